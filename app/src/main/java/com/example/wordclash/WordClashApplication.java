@@ -0,0 +1,21 @@
+package com.example.wordclash;
+
+import android.app.Application;
+
+import com.example.wordclash.services.SpeechService;
+import com.example.wordclash.services.WordCache;
+import com.example.wordclash.utils.UserSession;
+
+/**
+ * נקודת הכניסה של התהליך - רצה לפני כל מסך, גם כשהמערכת מחזירה את האפליקציה ישר למסך משחק
+ */
+public class WordClashApplication extends Application {
+
+    @Override
+    public void onCreate() {
+        super.onCreate();
+        WordCache.init(this);
+        UserSession.init(this);   // פענוח המשתמש השמור פעם אחת, לפני שנפתח מסך כלשהו
+        SpeechService.init(this); // המנוע עצמו עולה רק כשמסך המשחקים מבקש (warmUp)
+    }
+}
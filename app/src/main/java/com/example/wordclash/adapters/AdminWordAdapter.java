@@ -7,6 +7,7 @@ import android.widget.Button;
 import android.widget.TextView;
 
 import androidx.annotation.NonNull;
+import androidx.recyclerview.widget.AsyncListDiffer;
 import androidx.recyclerview.widget.RecyclerView;
 
 import com.example.wordclash.R;
@@ -17,14 +18,15 @@ import java.util.List;
 
 public class AdminWordAdapter extends RecyclerView.Adapter<AdminWordAdapter.ViewHolder> {
 
-    // רשימה מקומית של אובייקטים מסוג Word ומאזין OnWordActionListener (שורה 73) לניהול אירועים מול ה-Activity. (
-    private final List<Word> wordList;
+    // הרשימה המוצגת (מושווית ברקע לרשימה הקודמת, כמו ב-WordAdapter) ומאזין OnWordActionListener לניהול אירועים מול ה-Activity.
+    private final AsyncListDiffer<Word> differ = new AsyncListDiffer<>(this, WordAdapter.DIFF_CALLBACK);
+    private final StableIds stableIds = new StableIds();
     private final OnWordActionListener listener;
 
-    // מאתחל ArrayList ריקה ומקבל את המאזין (Callback) מהמסך הראשי.
+    // מקבל את המאזין (Callback) מהמסך הראשי.
     public AdminWordAdapter(OnWordActionListener listener) {
-        this.wordList = new ArrayList<>();
         this.listener = listener;
+        setHasStableIds(true);
     }
 
     // מנפח (Inflate) את ה-XML של פריט בודד (item_word_admin) ועוטף אותו ב-ViewHolder לצורך תצוגה
@@ -38,7 +40,7 @@ public class AdminWordAdapter extends RecyclerView.Adapter<AdminWordAdapter.View
     //מחבר את נתוני המילה לפי המיקום לרכיבי ה-UI ומגדיר מאזין ללחיצה על כפתור המחיקה
     @Override
     public void onBindViewHolder(@NonNull ViewHolder holder, int position) {
-        Word word = wordList.get(position);
+        Word word = differ.getCurrentList().get(position);
         if (word == null) return;
 
         holder.tvEnglish.setText(word.getEnglish());
@@ -57,22 +59,24 @@ public class AdminWordAdapter extends RecyclerView.Adapter<AdminWordAdapter.View
     // מחזיר את כמות הפריטים ברשימה המקומית כדי שה-RecyclerView ידע כמה שורות לייצר
     @Override
     public int getItemCount() {
-        return wordList.size();
+        return differ.getCurrentList().size();
     }
 
-    //מעדכן את האדפטר ברשימה חדשה וקורא ל-notifyDataSetChanged לרענון כל המסך
+    @Override
+    public long getItemId(int position) {
+        return stableIds.idOf(differ.getCurrentList().get(position).getId());
+    }
+
+    //מעדכן את האדפטר ברשימה חדשה; רק השורות שהשתנו מתעדכנות
     public void setWordList(List<Word> words) {
-        wordList.clear();
-        wordList.addAll(words);
-        notifyDataSetChanged();
+        differ.submitList(new ArrayList<>(words));
     }
 
-    //מוחק מילה מהרשימה ומעדכן רק את השורה הספציפית באמצעות notifyItemRemoved ליצירת אנימציית מחיקה חלקה
+    //מוחק מילה מהרשימה; ההשוואה מזהה שורה אחת שנמחקה ומפעילה אנימציית מחיקה חלקה
     public void removeWord(Word word) {
-        int index = wordList.indexOf(word);
-        if (index == -1) return;
-        wordList.remove(index);
-        notifyItemRemoved(index);
+        List<Word> words = new ArrayList<>(differ.getCurrentList());
+        if (!words.remove(word)) return;
+        differ.submitList(words);
     }
 
     // האדפטר עצמו לא יודע למחוק מילים ישירות מהFireBase
@@ -9,15 +9,15 @@ import androidx.annotation.NonNull;
 import androidx.recyclerview.widget.RecyclerView;
 
 import com.example.wordclash.R;
-import com.example.wordclash.screens.LeaderboardActivity;
+import com.example.wordclash.models.LeaderboardEntry;
 
 import java.util.ArrayList;
 import java.util.List;
 
 public class LeaderboardAdapter extends RecyclerView.Adapter<LeaderboardAdapter.ViewHolder> {
 
-    // רשימה של אובייקטים מסוג LeaderboardEntry (מחלקה פנימית סטטית שהוגדרה בתוך LeaderboardActivity לייצוג שורה בטבלה)
-    private final List<LeaderboardActivity.LeaderboardEntry> entries;
+    // רשימה של אובייקטים מסוג LeaderboardEntry (מחלקת מודל המייצגת שורה בטבלה)
+    private final List<LeaderboardEntry> entries;
 
     // מאתחל ArrayList ריקה. אין כאן מאזין כי המסך מציג נתונים בלבד (Read-only) ללא אינטראקציה.
     public LeaderboardAdapter() {
@@ -39,18 +39,18 @@ public class LeaderboardAdapter extends RecyclerView.Adapter<LeaderboardAdapter.
     //מחבר את נתוני השחקן לרכיבי הגרפיקה, ומחליף את המקומות 1-3 באמוג'י של מדליות כלוגיקה עיצובית.
     @Override
     public void onBindViewHolder(@NonNull ViewHolder holder, int position) {
-        LeaderboardActivity.LeaderboardEntry entry = entries.get(position);
+        LeaderboardEntry entry = entries.get(position);
 
         //שרשור המספר עם מחרוזת הופך אותו אוטומטית ל-String ומונע קריסה של setText באנדרואיד.
-        holder.tvPosition.setText("#" + entry.position);
-        holder.tvUsername.setText(entry.username);
-        holder.tvScore.setText(entry.totalScore + " pts");
+        holder.tvPosition.setText("#" + entry.getPosition());
+        holder.tvUsername.setText(entry.getUserName());
+        holder.tvScore.setText(entry.getScore() + " pts");
 
-        if (entry.position == 1) {
+        if (entry.getPosition() == 1) {
             holder.tvPosition.setText("🥇");
-        } else if (entry.position == 2) {
+        } else if (entry.getPosition() == 2) {
             holder.tvPosition.setText("🥈");
-        } else if (entry.position == 3) {
+        } else if (entry.getPosition() == 3) {
             holder.tvPosition.setText("🥉");
         }
     }
@@ -62,7 +62,7 @@ public class LeaderboardAdapter extends RecyclerView.Adapter<LeaderboardAdapter.
     }
 
     //מנקה את הרשימה, מכניסה את המיקומים החדשים שנקראו מה-Firebase ומרעננת את התצוגה עם notifyDataSetChanged.
-    public void setEntries(List<LeaderboardActivity.LeaderboardEntry> newEntries) {
+    public void setEntries(List<LeaderboardEntry> newEntries) {
         entries.clear();
         entries.addAll(newEntries);
         notifyDataSetChanged();
@@ -0,0 +1,21 @@
+package com.example.wordclash.adapters;
+
+import java.util.HashMap;
+import java.util.Map;
+
+// נותן לכל מזהה Firebase (מחרוזת) מספר long קבוע, לשימוש ב-getItemId של האדפטרים.
+// hashCode של המחרוזת יכול להתנגש ברשימה של אלפי מילים, ולכן כל מזהה חדש מקבל פשוט את המספר הבא.
+final class StableIds {
+
+    private final Map<String, Long> ids = new HashMap<>();
+
+    long idOf(String key) {
+        if (key == null) return -1; // RecyclerView.NO_ID
+        Long id = ids.get(key);
+        if (id == null) {
+            id = (long) ids.size();
+            ids.put(key, id);
+        }
+        return id;
+    }
+}
@@ -7,6 +7,8 @@ import android.widget.TextView;
 
 import androidx.annotation.NonNull;
 import androidx.annotation.Nullable;
+import androidx.recyclerview.widget.AsyncListDiffer;
+import androidx.recyclerview.widget.DiffUtil;
 import androidx.recyclerview.widget.RecyclerView;
 
 import com.example.wordclash.R;
@@ -14,21 +16,37 @@ import com.example.wordclash.models.User;
 
 import java.util.ArrayList;
 import java.util.List;
+import java.util.Objects;
 
 // הגדרת מחלקה ציבורית בשם UserAdapter, שיורשת את כל התכונות של אדפטר של אנדרואיד.
 // הadapter יעבוד עם ViewHolder, שנמצא כאן בתוך הקובץ (בסוף הקובץ)
 public class UserAdapter extends RecyclerView.Adapter<UserAdapter.ViewHolder> {
 
-    // final אומר שברגע שנוצרה רשימה, לא ניתן להחליף אותה עם רשימות אחרות, אבל כן ניתן להכניס ולהויא ממנה.
-    // רשימה של אובייקטי User (מחלקת מודל) ומאזין OnUserClickListener לטיפול בלחיצות רגילות וארוכות במסך.
-    private final List<User> userList;
+    // שני משתמשים הם אותה שורה אם יש להם אותו id; השורה מצוירת מחדש רק אם השם או האימייל השתנו
+    private static final DiffUtil.ItemCallback<User> DIFF_CALLBACK = new DiffUtil.ItemCallback<>() {
+        @Override
+        public boolean areItemsTheSame(@NonNull User oldItem, @NonNull User newItem) {
+            return Objects.equals(oldItem.getId(), newItem.getId());
+        }
+
+        @Override
+        public boolean areContentsTheSame(@NonNull User oldItem, @NonNull User newItem) {
+            return Objects.equals(oldItem.getUserName(), newItem.getUserName())
+                    && Objects.equals(oldItem.getEmail(), newItem.getEmail());
+        }
+    };
+
+    // הרשימה המוצגת של אובייקטי User (מחלקת מודל). AsyncListDiffer משווה כל רשימה חדשה לקודמת ב-thread רקע
+    // ומעדכן רק את השורות שהשתנו. ומאזין OnUserClickListener לטיפול בלחיצות רגילות וארוכות במסך.
+    private final AsyncListDiffer<User> differ = new AsyncListDiffer<>(this, DIFF_CALLBACK);
+    private final StableIds stableIds = new StableIds();
     private final OnUserClickListener onUserClickListener; // משתנה ששומר את הlistener, כדי שיטפל בלחיצות על משתמשים ברשימה.
 
 
-    //מאתחל ArrayList ריקה ושומר את המאזין, כאשר הנוטציה Nullable אומרת שמותר ליצור אדפטר גם בלי להגדיר מאזין.
+    //שומר את המאזין, כאשר הנוטציה Nullable אומרת שמותר ליצור אדפטר גם בלי להגדיר מאזין.
     public UserAdapter(@Nullable final OnUserClickListener onUserClickListener) {
-        userList = new ArrayList<>();
         this.onUserClickListener = onUserClickListener;
+        setHasStableIds(true);
     }
 
     @NonNull
@@ -45,7 +63,7 @@ public class UserAdapter extends RecyclerView.Adapter<UserAdapter.ViewHolder> {
     //מציג שם ואימייל, שולף אות ראשונה בעזרת charAt(0) לעיצוב הפרופיל, ומגדיר אירועי לחיצה קצרה וארוכה.
     @Override
     public void onBindViewHolder(@NonNull ViewHolder holder, int position) {
-        User user = userList.get(position);
+        User user = differ.getCurrentList().get(position);
         if (user == null) return;
 
         // Set full username
@@ -74,37 +92,53 @@ public class UserAdapter extends RecyclerView.Adapter<UserAdapter.ViewHolder> {
         });
     }
 
-    // מחזיר את כמות המשתמשים ברשימה המקומית.
+    // מחזיר את כמות המשתמשים ברשימה המוצגת.
     @Override
     public int getItemCount() {
-        return userList.size();
+        return differ.getCurrentList().size();
+    }
+
+    @Override
+    public long getItemId(int position) {
+        return stableIds.idOf(differ.getCurrentList().get(position).getId());
     }
 
-    //מעדכן את הרשימה המקומית בנתונים חדשים: ה-Activity שקוראת לפונקציה זו צריכה לקרוא לאחר מכן ל-notifyDataSetChanged כדי לרענן את המסך.
+    //מחליף את הרשימה המוצגת; ההשוואה נעשית ברקע והמסך מתעדכן בעצמו - אין צורך לקרוא ל-notifyDataSetChanged.
     public void setUserList(List<User> users) {
-        userList.clear();
-        userList.addAll(users);
+        differ.submitList(new ArrayList<>(users));
     }
 
 
-    //מנהלות את הרשימה בצורה דינמית ומעדכנות שורות ספציפיות בלבד (בעזרת notifyItemInserted/Changed/Removed) לשיפור ביצועים ואנימציה חלקה.
+    //מנהלות את הרשימה בצורה דינמית: כל שינוי עובר דרך אותה השוואה, כך שרק השורה הספציפית מתעדכנת עם אנימציה חלקה.
     public void addUser(User user) {
-        userList.add(user);
-        notifyItemInserted(userList.size() - 1);
+        List<User> users = new ArrayList<>(differ.getCurrentList());
+        users.add(user);
+        differ.submitList(users);
     }
 
     public void updateUser(User user) {
-        int index = userList.indexOf(user);
+        int index = indexOf(user);
         if (index == -1) return;
-        userList.set(index, user);
-        notifyItemChanged(index);
+        List<User> users = new ArrayList<>(differ.getCurrentList());
+        users.set(index, user);
+        differ.submitList(users);
     }
 
     public void removeUser(User user) {
-        int index = userList.indexOf(user);
+        int index = indexOf(user);
         if (index == -1) return;
-        userList.remove(index);
-        notifyItemRemoved(index);
+        List<User> users = new ArrayList<>(differ.getCurrentList());
+        users.remove(index);
+        differ.submitList(users);
+    }
+
+    // User לא מגדיר equals, ולכן מחפשים לפי id
+    private int indexOf(User user) {
+        List<User> users = differ.getCurrentList();
+        for (int i = 0; i < users.size(); i++) {
+            if (Objects.equals(users.get(i).getId(), user.getId())) return i;
+        }
+        return -1;
     }
 
     // האדפטר עצמו הוא רק רכיב תצוגה גרפי,
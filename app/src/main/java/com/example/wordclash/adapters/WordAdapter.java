@@ -6,6 +6,8 @@ import android.view.ViewGroup;
 import android.widget.TextView;
 
 import androidx.annotation.NonNull;
+import androidx.recyclerview.widget.AsyncListDiffer;
+import androidx.recyclerview.widget.DiffUtil;
 import androidx.recyclerview.widget.RecyclerView;
 
 import com.example.wordclash.R;
@@ -13,15 +15,33 @@ import com.example.wordclash.models.Word;
 
 import java.util.ArrayList;
 import java.util.List;
+import java.util.Objects;
 
 public class WordAdapter extends RecyclerView.Adapter<WordAdapter.ViewHolder> {
 
-    // רשימה של אובייקטים מסוג Word (אחד מהmodels)
-    private final List<Word> wordList;
+    // שתי מילים הן אותה שורה אם יש להן אותו id; השורה צריכה ציור מחדש רק אם הטקסט או הרמה השתנו
+    static final DiffUtil.ItemCallback<Word> DIFF_CALLBACK = new DiffUtil.ItemCallback<>() {
+        @Override
+        public boolean areItemsTheSame(@NonNull Word oldItem, @NonNull Word newItem) {
+            return Objects.equals(oldItem.getId(), newItem.getId());
+        }
+
+        @Override
+        public boolean areContentsTheSame(@NonNull Word oldItem, @NonNull Word newItem) {
+            return Objects.equals(oldItem.getEnglish(), newItem.getEnglish())
+                    && Objects.equals(oldItem.getHebrew(), newItem.getHebrew())
+                    && oldItem.getRank() == newItem.getRank();
+        }
+    };
+
+    // הרשימה המוצגת. AsyncListDiffer משווה כל רשימה חדשה לקודמת ב-thread רקע,
+    // ומעדכן רק את השורות שנוספו, זזו, השתנו או נמחקו.
+    private final AsyncListDiffer<Word> differ = new AsyncListDiffer<>(this, DIFF_CALLBACK);
+    private final StableIds stableIds = new StableIds();
 
-    // מאתחל ArrayList ריקה. אין צורך במאזין כי המסך מיועד לקריאה בלבד ללא כפתורי פעולה או אינטראקציה.
+    // אין צורך במאזין כי המסך מיועד לקריאה בלבד ללא כפתורי פעולה או אינטראקציה.
     public WordAdapter() {
-        wordList = new ArrayList<>();
+        setHasStableIds(true);
     }
 
     // מנפח את ה-XML של פריט מילה רגיל (item_word) ומחזיר ViewHolder.
@@ -35,7 +55,7 @@ public class WordAdapter extends RecyclerView.Adapter<WordAdapter.ViewHolder> {
     // שולף את המילה ומציג את הטקסטים המובנים שלה באנגלית ובעברית ברכיבי ה-TextView המתאימים.
     @Override
     public void onBindViewHolder(@NonNull ViewHolder holder, int position) {
-        Word word = wordList.get(position);
+        Word word = differ.getCurrentList().get(position);
         if (word == null) return;
 
         // שליפת הטקסטים של המילה באנגלית ובעברית והצגתם ברכיבי ה-TextView המתאימים
@@ -44,17 +64,22 @@ public class WordAdapter extends RecyclerView.Adapter<WordAdapter.ViewHolder> {
         holder.tvHebrew.setText(word.getHebrew());
     }
 
-    // מחזיר את גודל הרשימה המקומית לצורך קביעת כמות השורות הכוללת במסך.
+    // מחזיר את גודל הרשימה המוצגת לצורך קביעת כמות השורות הכוללת במסך.
     @Override
     public int getItemCount() {
-        return wordList.size();
+        return differ.getCurrentList().size();
+    }
+
+    // מזהה קבוע לכל מילה, כדי שה-RecyclerView יזהה אותה גם אחרי מיון או סינון
+    @Override
+    public long getItemId(int position) {
+        return stableIds.idOf(differ.getCurrentList().get(position).getId());
     }
 
-    //מנקה את הרשימה, מוסיפה מילים חדשות ומרעננת את התצוגה מיד בעזרת notifyDataSetChanged.
+    // מחליף את הרשימה המוצגת. ההשוואה לרשימה הקודמת נעשית ברקע, והמסך מתעדכן רק בשורות שהשתנו.
+    // (נשמר עותק - AsyncListDiffer מתעלם מרשימה שהיא אותו אובייקט כמו הקודמת)
     public void setWordList(List<Word> words) {
-        wordList.clear();
-        wordList.addAll(words);
-        notifyDataSetChanged();
+        differ.submitList(new ArrayList<>(words));
     }
 
     // מחלקה סטטית השומרת את רכיבי הטקסט של השורה בזיכרון לחסכון במשאבים ובסוללה.
@@ -0,0 +1,86 @@
+package com.example.wordclash.game;
+
+import com.example.wordclash.models.Word;
+import com.example.wordclash.utils.DistractorSampler;
+
+import java.util.List;
+import java.util.Random;
+
+/**
+ * Random choices shared by the rules when they build a deck: which words, which wrong answers,
+ * in which order. One instance per engine, so its buffers are reused between rounds.
+ */
+final class DeckBuilder {
+
+    private static final int WRONG_OPTIONS = 3;
+
+    private final Random random;
+    private final DistractorSampler sampler;          // על המאגר של המילים
+    // על רצפים קצרים (אותיות של מילה, צד של לוח). דוגם נפרד, כי כל שינוי בגודל מאתחל את המערכים של הדוגם
+    // מחדש - ובמאגר של אלפי מילים זה היה קורה בכל סבב.
+    private final DistractorSampler positionSampler;
+    private final int[] distractors = new int[WRONG_OPTIONS];
+
+    DeckBuilder(Random random) {
+        this.random = random;
+        this.sampler = new DistractorSampler(random);
+        this.positionSampler = new DistractorSampler(random);
+    }
+
+    Random random() {
+        return random;
+    }
+
+    /**
+     * Up to count distinct indices of a pool of poolSize words, in random order
+     */
+    int[] pick(int poolSize, int count) {
+        int[] picked = new int[Math.min(poolSize, count)];
+        sampler.sample(poolSize, -1, picked.length, picked);
+        return picked;
+    }
+
+    /**
+     * Up to count distinct positions of a short sequence (the letters of a word, one side of a board), in random order
+     */
+    int[] positions(int length, int count) {
+        int[] picked = new int[Math.min(length, count)];
+        positionSampler.sample(length, -1, picked.length, picked);
+        return picked;
+    }
+
+    /**
+     * A four-option question about pool.get(answer), the other options drawn from the rest of the pool
+     */
+    Question choice(List<Word> pool, int answer, String prompt, boolean optionsInHebrew) {
+        int wrong = sampler.sample(pool.size(), answer, WRONG_OPTIONS, distractors);
+        int correctOption = random.nextInt(wrong + 1);
+
+        String[] options = new String[wrong + 1];
+        Word[] optionWords = new Word[wrong + 1];
+        for (int option = 0, next = 0; option < options.length; option++) {
+            Word word = option == correctOption ? pool.get(answer) : pool.get(distractors[next++]);
+            optionWords[option] = word;
+            options[option] = optionsInHebrew ? word.getHebrew() : word.getEnglish();
+        }
+        return Question.choice(pool.get(answer), prompt, options, optionWords, correctOption);
+    }
+
+    void shuffle(char[] values) {
+        for (int i = values.length - 1; i > 0; i--) {
+            int j = random.nextInt(i + 1);
+            char swap = values[i];
+            values[i] = values[j];
+            values[j] = swap;
+        }
+    }
+
+    void shuffle(int[] values) {
+        for (int i = values.length - 1; i > 0; i--) {
+            int j = random.nextInt(i + 1);
+            int swap = values[i];
+            values[i] = values[j];
+            values[j] = swap;
+        }
+    }
+}
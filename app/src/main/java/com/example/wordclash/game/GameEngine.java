@@ -0,0 +1,323 @@
+package com.example.wordclash.game;
+
+import com.example.wordclash.models.Word;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+
+/**
+ * The state of one game, without any Android code: the round's deck, the current question and the score
+ * The whole deck is built when the round starts, so answering only compares precomputed values
+ * Not thread-safe; use it from the main thread
+ */
+// המסכים של המשחקים רק מציגים את Question הנוכחית ומעבירים למנוע את התשובה.
+// הניקוד, המעבר לשאלה הבאה ושמירת התוצאה (דרך ResultSink) נעשים כאן, באותה צורה לכל שבעת המשחקים.
+public class GameEngine {
+
+    /**
+     * Saves a finished round, e.g. through DatabaseService.submitGameResult
+     */
+    public interface ResultSink {
+        void submit(GameResult result);
+    }
+
+    private final GameRules rules;
+    private final int rank;
+    private final boolean learningEnglish;
+    private final DeckBuilder builder;
+
+    private List<Word> pool = Collections.emptyList();
+    private int[] picked = new int[0];             // המקום של כל מילה של הסבב בתוך pool
+    private Question[] deck = new Question[0];
+    private final List<Word> deckWords = new ArrayList<>();
+    private boolean[] matched = new boolean[0];  // PAIRS: אילו קלפים כבר נמצאו
+
+    private int index;
+    private int score;
+    private int pairsFound;
+    private boolean answered;
+    private boolean submitted;
+
+    public GameEngine(GameType type, int rank, boolean learningEnglish) {
+        this(type, rank, learningEnglish, new Random());
+    }
+
+    public GameEngine(GameType type, int rank, boolean learningEnglish, Random random) {
+        this.rules = GameRules.forType(type);
+        this.rank = rank;
+        this.learningEnglish = learningEnglish;
+        this.builder = new DeckBuilder(random);
+    }
+
+    // ========== סבב ==========
+
+    /**
+     * Keep the words the game can use and deal the first round from them
+     *
+     * @return false if there are fewer suitable words than the game needs
+     */
+    public boolean start(List<Word> words) {
+        if (!usePool(words)) return false;
+        restart();
+        return true;
+    }
+
+    /**
+     * Deal a new round from the same words ("play again"), with no network call
+     */
+    public void restart() {
+        deal(rules.pickWords(pool, rank, builder));
+    }
+
+    /**
+     * Continue a saved round. The questions are rebuilt for the same words
+     * (options and letters may come out in a different order).
+     *
+     * @return false if a word of the round is no longer available; start a new round then
+     */
+    public boolean restore(List<Word> words, GameSnapshot snapshot) {
+        if (!usePool(words)) return false;
+
+        Map<String, Integer> positions = new HashMap<>(pool.size() * 2);
+        for (int i = 0; i < pool.size(); i++) positions.put(pool.get(i).getId(), i);
+
+        String[] ids = snapshot.getWordIds();
+        int[] saved = new int[ids.length];
+        for (int i = 0; i < ids.length; i++) {
+            Integer position = positions.get(ids[i]);
+            if (position == null) return false;
+            saved[i] = position;
+        }
+        if (saved.length == 0) return false;
+
+        deal(saved);
+        index = Math.min(snapshot.getIndex(), deck.length);
+        score = snapshot.getScore();
+        submitted = snapshot.isSubmitted();
+
+        // בלוח זוגות: הקלפים של זוגות שכבר נמצאו מסומנים מחדש
+        boolean[] foundPairs = snapshot.getFoundPairs();
+        if (matched.length > 0 && foundPairs != null) {
+            Question board = deck[0];
+            for (int tile = 0; tile < matched.length; tile++) {
+                int pair = board.pairOf(tile);
+                if (pair < foundPairs.length && foundPairs[pair]) matched[tile] = true;
+            }
+            for (int pair = 0; pair < Math.min(foundPairs.length, board.getPairCount()); pair++) {
+                if (foundPairs[pair]) pairsFound++;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * The round as it is now, to save in savedInstanceState
+     * A question that was answered but not moved past yet is saved as done.
+     */
+    public GameSnapshot snapshot() {
+        String[] ids = new String[picked.length];
+        for (int i = 0; i < picked.length; i++) ids[i] = pool.get(picked[i]).getId();
+
+        boolean[] foundPairs = new boolean[matched.length > 0 ? deck[0].getPairCount() : 0];
+        for (int tile = 0; tile < matched.length; tile++) {
+            if (matched[tile]) foundPairs[deck[0].pairOf(tile)] = true;
+        }
+        return new GameSnapshot(ids, answered ? index + 1 : index, score, foundPairs, submitted);
+    }
+
+    /**
+     * Whether a round was dealt (by start or restore)
+     */
+    public boolean isStarted() {
+        return deck.length > 0;
+    }
+
+    /**
+     * Move past a question that was answered but not moved past yet,
+     * e.g. because the screen was recreated during the pause after the answer
+     */
+    public void advanceIfAnswered() {
+        if (answered) next();
+    }
+
+    private boolean usePool(List<Word> words) {
+        List<Word> suitable = new ArrayList<>(words.size());
+        for (Word word : words) {
+            if (rules.accepts(word)) suitable.add(word);
+        }
+        if (suitable.size() < rules.minimumWords()) return false;
+
+        pool = suitable;
+        return true;
+    }
+
+    private void deal(int[] words) {
+        picked = words;
+        deck = rules.buildDeck(pool, picked, learningEnglish, builder);
+        deckWords.clear();
+        for (int position : picked) deckWords.add(pool.get(position));
+        matched = deck.length > 0 && deck[0].getKind() == Question.Kind.PAIRS
+                ? new boolean[deck[0].getOptions().length] : new boolean[0];
+
+        index = 0;
+        score = 0;
+        pairsFound = 0;
+        answered = false;
+        submitted = false;
+    }
+
+    public Question current() {
+        return index < deck.length ? deck[index] : null;
+    }
+
+    /**
+     * The words of the current round, in question order (e.g. to prepare their audio)
+     */
+    public List<Word> getDeckWords() {
+        return Collections.unmodifiableList(deckWords);
+    }
+
+    public boolean isFinished() {
+        if (matched.length > 0) return pairsFound == deck[0].getPairCount();
+        return index >= deck.length;
+    }
+
+    // ========== תשובות ==========
+
+    /**
+     * @return whether the option is correct; false also if the question was already answered
+     */
+    public boolean answerChoice(int option) {
+        Question question = current();
+        if (answered || question == null) return false;
+        answered = true;
+        return award(option == question.getCorrectOption());
+    }
+
+    public boolean answerTrueFalse(boolean userAnswer) {
+        Question question = current();
+        if (answered || question == null) return false;
+        answered = true;
+        return award(userAnswer == question.isStatementTrue());
+    }
+
+    /**
+     * Check a built word. A wrong guess can be retried, so only a correct one ends the question.
+     */
+    public boolean answerSpelling(CharSequence guess) {
+        Question question = current();
+        if (answered || question == null) return false;
+        if (!question.getTarget().contentEquals(guess)) return false;
+        answered = true;
+        return award(true);
+    }
+
+    /**
+     * Try two tiles of a PAIRS board
+     *
+     * @return true if they are a pair that wasn't found yet
+     */
+    public boolean matchTiles(int first, int second) {
+        Question board = current();
+        if (board == null || first == second || matched[first] || matched[second]) return false;
+        if (board.pairOf(first) != board.pairOf(second)) return false;
+
+        matched[first] = true;
+        matched[second] = true;
+        pairsFound++;
+        return award(true);
+    }
+
+    /**
+     * The time for the question ran out before it was answered
+     */
+    public void timeout() {
+        answered = true;
+    }
+
+    /**
+     * Move to the next question (after an answer, a timeout or a skip)
+     */
+    public void next() {
+        if (index < deck.length) index++;
+        answered = false;
+    }
+
+    private boolean award(boolean correct) {
+        if (correct) score += rules.pointsPerAnswer(rank);
+        return correct;
+    }
+
+    // ========== תוצאה ==========
+
+    /**
+     * Save the result of the round, once. Later calls return the same result without saving again.
+     */
+    public GameResult finish(ResultSink sink) {
+        GameResult result = new GameResult(rules.getType(), rank, score, getMaxScore(), rules.passed(rank, score));
+        if (!submitted && sink != null) {
+            submitted = true;
+            sink.submit(result);
+        }
+        return result;
+    }
+
+    // ========== מצב ==========
+
+    public int getIndex() {
+        return index;
+    }
+
+    /**
+     * The number of questions in the round; for a PAIRS board, the number of pairs
+     */
+    public int getSize() {
+        return matched.length > 0 ? deck[0].getPairCount() : deck.length;
+    }
+
+    public int getScore() {
+        return score;
+    }
+
+    public int getMaxScore() {
+        return rules.maxScore(rank, getSize());
+    }
+
+    /**
+     * How many words a round uses, e.g. to ask the server for just that many
+     */
+    public int getRoundSize() {
+        return rules.roundSize(rank);
+    }
+
+    public int getRank() {
+        return rank;
+    }
+
+    public int getPairsFound() {
+        return pairsFound;
+    }
+
+    public boolean isTileMatched(int tile) {
+        return tile < matched.length && matched[tile];
+    }
+
+    public boolean isAnswered() {
+        return answered;
+    }
+
+    /**
+     * Whether the finished round was already handed to a ResultSink
+     */
+    public boolean isSubmitted() {
+        return submitted;
+    }
+
+    public GameType getType() {
+        return rules.getType();
+    }
+}
@@ -0,0 +1,44 @@
+package com.example.wordclash.game;
+
+/**
+ * The outcome of a finished round, as handed to GameEngine.ResultSink
+ */
+public final class GameResult {
+
+    private final GameType type;
+    private final int rank;
+    private final int score;
+    private final int maxScore;
+    private final boolean passed;
+
+    GameResult(GameType type, int rank, int score, int maxScore, boolean passed) {
+        this.type = type;
+        this.rank = rank;
+        this.score = score;
+        this.maxScore = maxScore;
+        this.passed = passed;
+    }
+
+    public GameType getType() {
+        return type;
+    }
+
+    public int getRank() {
+        return rank;
+    }
+
+    public int getScore() {
+        return score;
+    }
+
+    public int getMaxScore() {
+        return maxScore;
+    }
+
+    /**
+     * Whether the round counts as passing the rank's practice (only the speed quiz reports this)
+     */
+    public boolean isPassed() {
+        return passed;
+    }
+}
@@ -0,0 +1,318 @@
+package com.example.wordclash.game;
+
+import com.example.wordclash.models.Word;
+
+import java.util.List;
+import java.util.Locale;
+
+/**
+ * How one game builds its round and scores it. The engine is the same for all games;
+ * only these rules differ.
+ */
+public abstract class GameRules {
+
+    private final GameType type;
+
+    GameRules(GameType type) {
+        this.type = type;
+    }
+
+    public static GameRules forType(GameType type) {
+        switch (type) {
+            case SPEED_QUIZ:
+                return new SpeedQuiz();
+            case TRUE_FALSE:
+                return new TrueFalse();
+            case MATCH:
+                return new Pairs(GameType.MATCH, true);
+            case MEMORY_CARDS:
+                return new Pairs(GameType.MEMORY_CARDS, false);
+            case FILL_GAPS:
+                return new Spelling(GameType.FILL_GAPS, true);
+            case WORD_BUILDER:
+                return new Spelling(GameType.WORD_BUILDER, false);
+            case LISTEN_GUESS:
+            default:
+                return new ListenGuess();
+        }
+    }
+
+    public GameType getType() {
+        return type;
+    }
+
+    /**
+     * How many words a round uses at this rank (questions, or pairs on a board)
+     */
+    public abstract int roundSize(int rank);
+
+    public int pointsPerAnswer(int rank) {
+        return 10 * rank;
+    }
+
+    public int maxScore(int rank, int roundSize) {
+        return roundSize * pointsPerAnswer(rank);
+    }
+
+    /**
+     * Whether a score passes the rank's practice. Only the speed quiz counts towards rank progress.
+     */
+    public boolean passed(int rank, int score) {
+        return false;
+    }
+
+    /**
+     * The fewest suitable words the game can be played with
+     */
+    public int minimumWords() {
+        return 1;
+    }
+
+    /**
+     * Whether a word can be used in this game at all
+     */
+    public boolean accepts(Word word) {
+        return word.getEnglish() != null && word.getHebrew() != null;
+    }
+
+    /**
+     * Choose the words of a new round: indices into the pool, one per question (or per pair)
+     */
+    int[] pickWords(List<Word> pool, int rank, DeckBuilder builder) {
+        return builder.pick(pool.size(), roundSize(rank));
+    }
+
+    /**
+     * Build the questions for the chosen words. Also used to rebuild a saved round from its words.
+     */
+    abstract Question[] buildDeck(List<Word> pool, int[] picked, boolean learningEnglish, DeckBuilder builder);
+
+    // ========== החוקים של כל משחק ==========
+
+    // מילה בשפת האם, ארבע תשובות בשפת הלימוד. 100 נקודות לסבב, 80 עוברים את התרגול של הדרגה.
+    private static class SpeedQuiz extends GameRules {
+        private static final int MAX_SCORE = 100;
+        private static final int PASSING_SCORE = 80;
+
+        SpeedQuiz() {
+            super(GameType.SPEED_QUIZ);
+        }
+
+        @Override
+        public int roundSize(int rank) {
+            switch (rank) {
+                case 2:
+                    return 13;
+                case 3:
+                    return 16;
+                case 4:
+                    return 20;
+                case 5:
+                    return 25;
+                case 1:
+                default:
+                    return 10;
+            }
+        }
+
+        @Override
+        public int pointsPerAnswer(int rank) {
+            return MAX_SCORE / roundSize(rank);
+        }
+
+        @Override
+        public int maxScore(int rank, int roundSize) {
+            return MAX_SCORE;
+        }
+
+        @Override
+        public boolean passed(int rank, int score) {
+            return score >= PASSING_SCORE;
+        }
+
+        @Override
+        Question[] buildDeck(List<Word> pool, int[] picked, boolean learningEnglish, DeckBuilder builder) {
+            Question[] deck = new Question[picked.length];
+            for (int i = 0; i < picked.length; i++) {
+                Word word = pool.get(picked[i]);
+                String prompt = learningEnglish ? word.getHebrew() : word.getEnglish();
+                deck[i] = builder.choice(pool, picked[i], prompt, !learningEnglish);
+            }
+            return deck;
+        }
+    }
+
+    // המילה מושמעת בשפת הלימוד, והתשובות באותה שפה
+    private static class ListenGuess extends GameRules {
+        ListenGuess() {
+            super(GameType.LISTEN_GUESS);
+        }
+
+        @Override
+        public int roundSize(int rank) {
+            return 10;
+        }
+
+        @Override
+        Question[] buildDeck(List<Word> pool, int[] picked, boolean learningEnglish, DeckBuilder builder) {
+            Question[] deck = new Question[picked.length];
+            for (int i = 0; i < picked.length; i++) {
+                Word word = pool.get(picked[i]);
+                String spoken = learningEnglish ? word.getEnglish() : word.getHebrew();
+                deck[i] = builder.choice(pool, picked[i], spoken, !learningEnglish);
+            }
+            return deck;
+        }
+    }
+
+    // "מילה = תרגום" - התרגום הוא של המילה עצמה או של מילה סמוכה בסבב.
+    // אם יש פחות מילים מהשאלות, הסבב חוזר על המילים מההתחלה (מילים סמוכות תמיד שונות, כי יש לפחות 10).
+    private static class TrueFalse extends GameRules {
+        TrueFalse() {
+            super(GameType.TRUE_FALSE);
+        }
+
+        @Override
+        public int roundSize(int rank) {
+            return 15;
+        }
+
+        @Override
+        public int minimumWords() {
+            return 10;
+        }
+
+        @Override
+        int[] pickWords(List<Word> pool, int rank, DeckBuilder builder) {
+            int[] order = builder.pick(pool.size(), roundSize(rank));
+            int[] picked = new int[roundSize(rank)];
+            for (int i = 0; i < picked.length; i++) picked[i] = order[i % order.length];
+            return picked;
+        }
+
+        @Override
+        Question[] buildDeck(List<Word> pool, int[] picked, boolean learningEnglish, DeckBuilder builder) {
+            Question[] deck = new Question[picked.length];
+            for (int i = 0; i < deck.length; i++) {
+                Word word = pool.get(picked[i]);
+                Word other = pool.get(i + 1 < picked.length ? picked[i + 1] : picked[i - 1]);
+                boolean statementTrue = builder.random().nextBoolean();
+                Word shown = statementTrue ? word : other;
+
+                String statement = learningEnglish
+                        ? word.getHebrew() + " = " + shown.getEnglish()
+                        : word.getEnglish() + " = " + shown.getHebrew();
+                deck[i] = Question.trueFalse(word, statement, statementTrue);
+            }
+            return deck;
+        }
+    }
+
+    // לוח אחד של זוגות. בהתאמה: הקלפים של שפת האם בצד אחד לפי הסדר, והתרגומים בצד השני מעורבבים
+    // (הקלפים 0..n-1 הם הצד השמאלי). בזיכרון: כל הקלפים של שתי השפות מעורבבים יחד.
+    private static class Pairs extends GameRules {
+        private final boolean columns;
+
+        Pairs(GameType type, boolean columns) {
+            super(type);
+            this.columns = columns;
+        }
+
+        @Override
+        public int roundSize(int rank) {
+            return 6;
+        }
+
+        @Override
+        Question[] buildDeck(List<Word> pool, int[] picked, boolean learningEnglish, DeckBuilder builder) {
+            int pairs = picked.length;
+
+            int[] order = new int[pairs * 2];
+            for (int i = 0; i < order.length; i++) order[i] = i;
+            if (columns) {
+                int[] right = builder.positions(pairs, pairs);
+                for (int i = 0; i < pairs; i++) order[pairs + i] = pairs + right[i];
+            } else {
+                builder.shuffle(order);
+            }
+
+            // קלף k בסדר הבסיסי: k < pairs - הצד של שפת האם של זוג k, אחרת הצד של שפת הלימוד
+            String[] tiles = new String[pairs * 2];
+            int[] pairOf = new int[pairs * 2];
+            for (int tile = 0; tile < tiles.length; tile++) {
+                int base = order[tile];
+                int pair = base % pairs;
+                Word word = pool.get(picked[pair]);
+                boolean learningSide = base >= pairs;
+                boolean hebrew = learningEnglish != learningSide;
+                tiles[tile] = hebrew ? word.getHebrew() : word.getEnglish();
+                pairOf[tile] = pair;
+            }
+
+            return new Question[]{Question.pairs(tiles, pairOf, pairs)};
+        }
+    }
+
+    // מילים של 4-8 אותיות. בהשלמת אותיות חסרות כמחצית מהאותיות (לפחות 2), והאריחים הם האותיות החסרות;
+    // בבניית מילים האריחים הם כל האותיות ועוד שתי אותיות מיותרות.
+    private static class Spelling extends GameRules {
+        private static final String EXTRA_LETTERS = "ABCDEFGHIJKLMNOPQRSTUVWXYZ";
+        private static final int MAX_TILES = 10;
+
+        private final boolean gaps;
+
+        Spelling(GameType type, boolean gaps) {
+            super(type);
+            this.gaps = gaps;
+        }
+
+        @Override
+        public int roundSize(int rank) {
+            return 10;
+        }
+
+        @Override
+        public boolean accepts(Word word) {
+            if (!super.accepts(word)) return false;
+            int length = word.getEnglish().length();
+            return length >= 4 && length <= 8;
+        }
+
+        @Override
+        Question[] buildDeck(List<Word> pool, int[] picked, boolean learningEnglish, DeckBuilder builder) {
+            Question[] deck = new Question[picked.length];
+            for (int i = 0; i < picked.length; i++) {
+                Word word = pool.get(picked[i]);
+                String target = learningEnglish ? word.getEnglish().toUpperCase(Locale.ROOT) : word.getHebrew();
+                String hint = learningEnglish ? word.getHebrew() : word.getEnglish();
+                deck[i] = gaps ? withGaps(word, hint, target, builder) : withExtraLetters(word, hint, target, builder);
+            }
+            return deck;
+        }
+
+        private static Question withGaps(Word word, String hint, String target, DeckBuilder builder) {
+            int missing = Math.min(target.length(), Math.max(2, target.length() / 2));
+            int[] positions = builder.positions(target.length(), missing);
+
+            boolean[] hidden = new boolean[target.length()];
+            char[] letters = new char[positions.length];
+            for (int i = 0; i < positions.length; i++) {
+                hidden[positions[i]] = true;
+                letters[i] = target.charAt(positions[i]);
+            }
+            builder.shuffle(letters);
+            return Question.spelling(word, hint, target, letters, hidden);
+        }
+
+        private static Question withExtraLetters(Word word, String hint, String target, DeckBuilder builder) {
+            int extra = Math.max(0, Math.min(2, MAX_TILES - target.length()));
+            char[] letters = new char[target.length() + extra];
+            target.getChars(0, target.length(), letters, 0);
+            for (int i = target.length(); i < letters.length; i++) {
+                letters[i] = EXTRA_LETTERS.charAt(builder.random().nextInt(EXTRA_LETTERS.length()));
+            }
+            builder.shuffle(letters);
+            return Question.spelling(word, hint, target, letters, null);
+        }
+    }
+}
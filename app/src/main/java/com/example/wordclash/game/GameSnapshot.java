@@ -0,0 +1,47 @@
+package com.example.wordclash.game;
+
+/**
+ * A compact copy of a round in progress, small enough for savedInstanceState:
+ * the ids of the round's words, where the player is and the score so far.
+ * The questions themselves are rebuilt from the words by GameEngine.restore.
+ */
+public final class GameSnapshot {
+
+    private final String[] wordIds;
+    private final int index;
+    private final int score;
+    private final boolean[] foundPairs;
+    private final boolean submitted;
+
+    /**
+     * @param foundPairs for a PAIRS board, which pairs were already found (by word); empty otherwise
+     * @param submitted  whether the finished round was already saved
+     */
+    public GameSnapshot(String[] wordIds, int index, int score, boolean[] foundPairs, boolean submitted) {
+        this.wordIds = wordIds;
+        this.index = index;
+        this.score = score;
+        this.foundPairs = foundPairs;
+        this.submitted = submitted;
+    }
+
+    public String[] getWordIds() {
+        return wordIds;
+    }
+
+    public int getIndex() {
+        return index;
+    }
+
+    public int getScore() {
+        return score;
+    }
+
+    public boolean[] getFoundPairs() {
+        return foundPairs;
+    }
+
+    public boolean isSubmitted() {
+        return submitted;
+    }
+}
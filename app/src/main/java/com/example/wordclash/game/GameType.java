@@ -0,0 +1,24 @@
+package com.example.wordclash.game;
+
+/**
+ * The seven games, with the key each one's score is saved under in the stats
+ */
+public enum GameType {
+    SPEED_QUIZ("speed_quiz"),
+    TRUE_FALSE("true_false"),
+    MATCH("match"),
+    MEMORY_CARDS("memory_cards"),
+    FILL_GAPS("fill_gaps"),
+    WORD_BUILDER("word_builder"),
+    LISTEN_GUESS("listen_guess");
+
+    private final String key;
+
+    GameType(String key) {
+        this.key = key;
+    }
+
+    public String getKey() {
+        return key;
+    }
+}
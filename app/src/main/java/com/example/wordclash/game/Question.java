@@ -0,0 +1,152 @@
+package com.example.wordclash.game;
+
+import com.example.wordclash.models.Word;
+
+/**
+ * One precomputed step of a round. Everything the screen shows is already decided here
+ * (texts, option order, shuffled letters), so answering only compares numbers or strings.
+ * The arrays are shared with the engine - read them, don't modify them.
+ */
+// סוגי השאלות:
+// CHOICE - ארבע תשובות (חידון מהיר, האזנה). prompt = המילה שמוצגת/מושמעת.
+// TRUE_FALSE - צמד "מילה = תרגום" שנכון או לא. prompt = הטקסט המלא.
+// SPELLING - בניית מילה מאותיות (השלמת אותיות, בניית מילים). prompt = הרמז בשפה השנייה.
+// PAIRS - לוח של זוגות (התאמה, קלפי זיכרון). כל הלוח הוא "שאלה" אחת.
+public final class Question {
+
+    public enum Kind {CHOICE, TRUE_FALSE, SPELLING, PAIRS}
+
+    private Kind kind;
+    private Word word;
+    private String prompt;
+
+    // CHOICE: טקסט ומילה לכל תשובה. PAIRS: הטקסט של כל קלף
+    private String[] options;
+    private Word[] optionWords;
+    private int correctOption = -1;
+
+    // TRUE_FALSE
+    private boolean statementTrue;
+
+    // SPELLING
+    private String target;
+    private char[] letters;
+    private boolean[] gaps;
+
+    // PAIRS: pairOf[קלף] = מספר הזוג
+    private int[] pairOf;
+    private int pairCount;
+
+    private Question() {
+    }
+
+    static Question choice(Word word, String prompt, String[] options, Word[] optionWords, int correctOption) {
+        Question q = new Question();
+        q.kind = Kind.CHOICE;
+        q.word = word;
+        q.prompt = prompt;
+        q.options = options;
+        q.optionWords = optionWords;
+        q.correctOption = correctOption;
+        return q;
+    }
+
+    static Question trueFalse(Word word, String statement, boolean statementTrue) {
+        Question q = new Question();
+        q.kind = Kind.TRUE_FALSE;
+        q.word = word;
+        q.prompt = statement;
+        q.statementTrue = statementTrue;
+        return q;
+    }
+
+    static Question spelling(Word word, String hint, String target, char[] letters, boolean[] gaps) {
+        Question q = new Question();
+        q.kind = Kind.SPELLING;
+        q.word = word;
+        q.prompt = hint;
+        q.target = target;
+        q.letters = letters;
+        q.gaps = gaps;
+        return q;
+    }
+
+    static Question pairs(String[] tiles, int[] pairOf, int pairCount) {
+        Question q = new Question();
+        q.kind = Kind.PAIRS;
+        q.options = tiles;
+        q.pairOf = pairOf;
+        q.pairCount = pairCount;
+        return q;
+    }
+
+    public Kind getKind() {
+        return kind;
+    }
+
+    /**
+     * The word being asked about; null for a PAIRS board
+     */
+    public Word getWord() {
+        return word;
+    }
+
+    /**
+     * CHOICE: the word to show or say. TRUE_FALSE: the "word = translation" statement.
+     * SPELLING: the hint in the other language.
+     */
+    public String getPrompt() {
+        return prompt;
+    }
+
+    /**
+     * CHOICE: the text of each option. PAIRS: the text of each tile.
+     */
+    public String[] getOptions() {
+        return options;
+    }
+
+    public Word[] getOptionWords() {
+        return optionWords;
+    }
+
+    public int getCorrectOption() {
+        return correctOption;
+    }
+
+    public boolean isStatementTrue() {
+        return statementTrue;
+    }
+
+    /**
+     * SPELLING: the word to build, as it must be typed
+     */
+    public String getTarget() {
+        return target;
+    }
+
+    /**
+     * SPELLING: the letter tiles, already shuffled
+     */
+    public char[] getLetters() {
+        return letters;
+    }
+
+    /**
+     * SPELLING: which positions of the target are hidden (fill-the-gaps), or null if the whole word is built
+     */
+    public boolean[] getGaps() {
+        return gaps;
+    }
+
+    public int getPairCount() {
+        return pairCount;
+    }
+
+    /**
+     * PAIRS: the pair a tile belongs to; two tiles match if their pairs are equal
+     */
+    public int pairOf(int tile) {
+        return pairOf[tile];
+    }
+}
@@ -0,0 +1,84 @@
+package com.example.wordclash.models;
+
+import androidx.annotation.NonNull;
+
+/**
+ * Model class for a single leaderboard row
+ * Mirrors leaderboard/{userId} = {score, userName, rank} in the database
+ */
+// מחלקת מודל המייצגת שורה בטבלת המובילים. הנתונים נשמרים בצורה מוכפלת (denormalized) תחת leaderboard/
+// כדי שהמסך יוכל לשלוף את 10 המובילים בשאילתה אחת, בלי להוריד את כל המשתמשים ואת כל הסטטיסטיקות.
+public class LeaderboardEntry {
+
+    private String userId;
+    private String userName;
+    private int score; // Total score (same value as Stats.totalScore)
+    private int rank; // Current rank (1-5)
+    private int position; // Place on the leaderboard (1 = first), calculated on the device
+
+    // בנאי ריק שהוא חובה עבור Firebase Realtime Database כדי שהמערכת תוכל לשלוף נתונים ולהמיר אותם אוטומטית לאובייקט באמצעות getValue.
+    public LeaderboardEntry() {
+    }
+
+    // בנאי עם פרמטרים המשמש ליצירת שורה חדשה בזמן ריצה.
+    public LeaderboardEntry(String userId, String userName, int score, int rank) {
+        this.userId = userId;
+        this.userName = userName;
+        this.score = score;
+        this.rank = rank;
+    }
+
+    // פעולות תיווך ציבוריות המאפשרות לקרוא את ערכי המשתנים הפרטיים או לעדכן אותם בצורה בטוחה ומבוקרת מחוץ למחלקה.
+    public String getUserId() {
+        return userId;
+    }
+
+    public void setUserId(String userId) {
+        this.userId = userId;
+    }
+
+    public String getUserName() {
+        return userName;
+    }
+
+    public void setUserName(String userName) {
+        this.userName = userName;
+    }
+
+    public int getScore() {
+        return score;
+    }
+
+    public void setScore(int score) {
+        this.score = score;
+    }
+
+    public int getRank() {
+        return rank;
+    }
+
+    public void setRank(int rank) {
+        this.rank = rank;
+    }
+
+    public int getPosition() {
+        return position;
+    }
+
+    public void setPosition(int position) {
+        this.position = position;
+    }
+
+    @NonNull
+    @Override
+    // דורסת את פעולת toString ומחזירה מחרוזת המציגה את ערכי השורה, המשמשת בעיקר לצורכי בדיקות והדפסה ב-Logcat (Debugging).
+    public String toString() {
+        return "LeaderboardEntry{" +
+                "userId='" + userId + '\'' +
+                ", userName='" + userName + '\'' +
+                ", score=" + score +
+                ", rank=" + rank +
+                ", position=" + position +
+                '}';
+    }
+}
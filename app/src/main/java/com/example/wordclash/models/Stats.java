@@ -2,14 +2,12 @@ package com.example.wordclash.models;
 
 import androidx.annotation.NonNull;
 
-import java.io.Serializable;
-
 /**
  * Model class for user statistics
  * Tracks user's current rank and total score
  */
-//מחלקת מודל (Model) המייצגת סטטיסטיקות משתמש, המממשת Serializable כדי לאפשר העברת האובייקט השלם בין מסכים (Activities) שונים דרך Intent.
-public class Stats implements Serializable {
+//מחלקת מודל (Model) המייצגת סטטיסטיקות משתמש.
+public class Stats {
 
     private String userId;
     private int rank; // Current rank (1-5)
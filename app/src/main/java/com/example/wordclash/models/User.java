@@ -2,17 +2,14 @@ package com.example.wordclash.models;
 
 import androidx.annotation.NonNull;
 
-import java.io.Serializable;
 import java.util.ArrayList;
 
 /// model class for the user
 /// this class represents a user in the application
 /// it contains the user's information (including learning language preference)
-///
-/// @see Serializable
 // מחלקת מודל המייצגת את נתוני המשתמש באפליקציה.
-// היא מממשת Serializable כדי שנוכל להעביר את אובייקט המשתמש השלם בין מסכים שונים (Activities) בעזרת Intent.
-public class User implements Serializable {
+// בין מסכים מועבר רק ה-id של המשתמש, והמסך הבא לוקח את האובייקט מה-cache של DatabaseService.
+public class User {
 
     // משתנים פרטיים השומרים את פרטי המשתמש, כולל הרשאות מנהל, נתיב לתמונת פרופיל, שפת הלימוד הנבחרת ורשימת המילים האישית שלו מסוג Word.
     private String id;
@@ -21,8 +18,9 @@ public class User implements Serializable {
     private String gender;
     private boolean isAdmin;
 
-    // profile picture URL (stored in Firebase Storage or base64)
-    private String profilePictureUrl;
+    // content hash of the profile picture stored under avatars/{id} (null = no picture)
+    // the image bytes themselves are fetched only by screens that draw them
+    private String avatarHash;
 
     // the language the user wants to learn (not UI language)
     // "english" = learning English (UI in Hebrew)
@@ -35,7 +33,7 @@ public class User implements Serializable {
     // הוא חובה עבור Firebase Realtime Database כדי לבצע המרה אוטומטית של נתונים מהענן לאובייקט באמצעות getValue.
     public User() {
         this.learningLanguage = "english"; // default
-        this.profilePictureUrl = null; // default is no picture
+        this.avatarHash = null; // default is no picture
         this.words = new ArrayList<>();
     }
 
@@ -49,7 +47,7 @@ public class User implements Serializable {
         this.gender = gender;
         this.isAdmin = isAdmin;
         this.learningLanguage = learningLanguage;
-        this.profilePictureUrl = null;
+        this.avatarHash = null;
         this.words = words;
     }
 
@@ -110,12 +108,12 @@ public class User implements Serializable {
         this.learningLanguage = learningLanguage;
     }
 
-    public String getProfilePictureUrl() {
-        return profilePictureUrl;
+    public String getAvatarHash() {
+        return avatarHash;
     }
 
-    public void setProfilePictureUrl(String profilePictureUrl) {
-        this.profilePictureUrl = profilePictureUrl;
+    public void setAvatarHash(String avatarHash) {
+        this.avatarHash = avatarHash;
     }
 
     public ArrayList<Word> getWords() {
@@ -138,7 +136,7 @@ public class User implements Serializable {
                 ", userName='" + userName + '\'' +
                 ", gender='" + gender + '\'' +
                 ", isAdmin=" + isAdmin +
-                ", profilePictureUrl='" + profilePictureUrl + '\'' +
+                ", avatarHash='" + avatarHash + '\'' +
                 ", learningLanguage='" + learningLanguage + '\'' +
                 ", words=" + words +
                 '}';
@@ -2,7 +2,6 @@ package com.example.wordclash.models;
 
 import androidx.annotation.NonNull;
 
-import java.io.Serializable;
 import java.util.Objects;
 
 /**
@@ -10,8 +9,7 @@ import java.util.Objects;
  * Contains English word, Hebrew translation, and rank/level
  */
 // מחלקת מודל המייצגת מילה בודדת באפליקציה (אנגלית, עברית ודרגה).
-// היא מממשת Serializable כדי שנוכל להעביר אובייקטים של מילים בין מסכי המשחקים השונים דרך Intent.
-public class Word implements Serializable {
+public class Word {
 
     // משתנים פרטיים לשמירת נתוני המילה. המשתנה id מייצג את המפתח הייחודי של המילה כפי שהוא נשמר בתוך בסיס הנתונים Firebase.
     private String id;
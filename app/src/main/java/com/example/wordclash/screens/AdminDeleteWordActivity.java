@@ -20,18 +20,16 @@ import com.example.wordclash.adapters.AdminWordAdapter;
 import com.example.wordclash.models.Word;
 import com.example.wordclash.services.DatabaseService;
 import com.example.wordclash.utils.SharedPreferencesUtils;
+import com.example.wordclash.utils.WordFilter;
 
-import java.util.ArrayList;
-import java.util.Collections;
 import java.util.List;
 
 public class AdminDeleteWordActivity extends AppCompatActivity {
 
-    private final List<Word> filteredWords = new ArrayList<>();
+    private final WordFilter wordFilter = new WordFilter();
     private AdminWordAdapter wordAdapter;
     private EditText etSearch;
     private Spinner spinnerSort, spinnerRankFilter;
-    private List<Word> allWords = new ArrayList<>();
     private String currentSortOption = "Random";
     private int currentRankFilter = 0;
 
@@ -80,7 +78,7 @@ public class AdminDeleteWordActivity extends AppCompatActivity {
             @Override
             public void onItemSelected(AdapterView<?> parent, View view, int position, long id) {
                 currentSortOption = parent.getItemAtPosition(position).toString();
-                applyFiltersAndSort();
+                applyFiltersAndSort(false);
             }
 
             @Override
@@ -105,7 +103,7 @@ public class AdminDeleteWordActivity extends AppCompatActivity {
             @Override
             public void onItemSelected(AdapterView<?> parent, View view, int position, long id) {
                 currentRankFilter = position;
-                applyFiltersAndSort();
+                applyFiltersAndSort(false);
             }
 
             @Override
@@ -122,7 +120,7 @@ public class AdminDeleteWordActivity extends AppCompatActivity {
 
             @Override
             public void onTextChanged(CharSequence s, int start, int before, int count) {
-                applyFiltersAndSort();
+                applyFiltersAndSort(true);
             }
 
             @Override
@@ -139,8 +137,8 @@ public class AdminDeleteWordActivity extends AppCompatActivity {
                     Toast.makeText(AdminDeleteWordActivity.this, getString(R.string.no_words_found), Toast.LENGTH_SHORT).show();
                     return;
                 }
-                allWords = new ArrayList<>(words);
-                applyFiltersAndSort();
+                wordFilter.setWords(words);
+                applyFiltersAndSort(false);
             }
 
             @Override
@@ -150,43 +148,24 @@ public class AdminDeleteWordActivity extends AppCompatActivity {
         });
     }
 
-    private void applyFiltersAndSort() {
-        String searchQuery = etSearch.getText().toString().trim().toLowerCase();
+    // החיפוש והמיון רצים ב-WordFilter על thread נפרד; בהקלדה (debounce) מחכים שהמשתמש יעצור לרגע
+    private void applyFiltersAndSort(boolean debounce) {
+        String searchQuery = etSearch.getText().toString();
 
-        filteredWords.clear();
-        for (Word word : allWords) {
-            if (currentRankFilter != 0 && word.getRank() != currentRankFilter) continue;
-
-            if (!searchQuery.isEmpty()) {
-                boolean matchesEnglish = word.getEnglish() != null &&
-                        word.getEnglish().toLowerCase().contains(searchQuery);
-                boolean matchesHebrew = word.getHebrew() != null &&
-                        word.getHebrew().contains(searchQuery);
-                if (!matchesEnglish && !matchesHebrew) continue;
-            }
-
-            filteredWords.add(word);
-        }
-
-        if (currentSortOption.equals(getString(R.string.sort_random))) {
-            Collections.shuffle(filteredWords);
-        } else if (currentSortOption.equals(getString(R.string.sort_english))) {
-            filteredWords.sort((w1, w2) -> {
-                String en1 = w1.getEnglish() != null ? w1.getEnglish().toLowerCase() : "";
-                String en2 = w2.getEnglish() != null ? w2.getEnglish().toLowerCase() : "";
-                return en1.compareTo(en2);
-            });
+        WordFilter.Sort sort = WordFilter.Sort.RANDOM;
+        if (currentSortOption.equals(getString(R.string.sort_english))) {
+            sort = WordFilter.Sort.ENGLISH;
         } else if (currentSortOption.equals(getString(R.string.sort_hebrew))) {
-            filteredWords.sort((w1, w2) -> {
-                String he1 = w1.getHebrew() != null ? w1.getHebrew() : "";
-                String he2 = w2.getHebrew() != null ? w2.getHebrew() : "";
-                return he1.compareTo(he2);
-            });
+            sort = WordFilter.Sort.HEBREW;
         } else if (currentSortOption.equals(getString(R.string.sort_rank))) {
-            filteredWords.sort((w1, w2) -> Integer.compare(w1.getRank(), w2.getRank()));
+            sort = WordFilter.Sort.RANK;
         }
 
-        wordAdapter.setWordList(filteredWords);
+        if (debounce) {
+            wordFilter.filterDebounced(searchQuery, currentRankFilter, sort, wordAdapter::setWordList);
+        } else {
+            wordFilter.filter(searchQuery, currentRankFilter, sort, wordAdapter::setWordList);
+        }
     }
 
     private void confirmDelete(Word word) {
@@ -205,7 +184,7 @@ public class AdminDeleteWordActivity extends AppCompatActivity {
                 Toast.makeText(AdminDeleteWordActivity.this,
                         getString(R.string.word_deleted_success),
                         Toast.LENGTH_SHORT).show();
-                allWords.remove(word);
+                wordFilter.remove(word);
                 wordAdapter.removeWord(word);
             }
 
@@ -217,4 +196,10 @@ public class AdminDeleteWordActivity extends AppCompatActivity {
             }
         });
     }
-}
\ No newline at end of file
+
+    @Override
+    protected void onDestroy() {
+        super.onDestroy();
+        wordFilter.shutdown();
+    }
+}
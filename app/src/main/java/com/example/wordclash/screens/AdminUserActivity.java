@@ -52,9 +52,9 @@ public class AdminUserActivity extends AppCompatActivity {
             getSupportActionBar().setTitle(R.string.edit_user_title);
         }
 
-        selectedUser = getIntent().getSerializableExtra("user", User.class);
+        String userId = getIntent().getStringExtra("userId");
 
-        if (selectedUser == null) {
+        if (userId == null) {
             showError(getString(R.string.error_no_user_data));
             finish();
             return;
@@ -72,8 +72,30 @@ public class AdminUserActivity extends AppCompatActivity {
         setupListeners();
         setupChangeTracking();
         showLoading(true);
-        populateFields();
-        loadUserStats();
+        loadUser(userId);
+    }
+
+    private void loadUser(String userId) {
+        // בדרך כלל המשתמש כבר ב-cache מרשימת המשתמשים, כך שאין קריאה לשרת
+        DatabaseService.getInstance().getCachedUser(userId, new DatabaseService.DatabaseCallback<>() {
+            @Override
+            public void onCompleted(User user) {
+                if (user == null) {
+                    showError(getString(R.string.error_no_user_data));
+                    finish();
+                    return;
+                }
+                selectedUser = user;
+                populateFields();
+                loadUserStats();
+            }
+
+            @Override
+            public void onFailed(Exception e) {
+                showError(getString(R.string.error_no_user_data));
+                finish();
+            }
+        });
     }
 
     private void initViews() {
@@ -3,6 +3,7 @@ package com.example.wordclash.screens;
 import android.graphics.Color;
 import android.os.Bundle;
 import android.os.Handler;
+import android.os.Looper;
 import android.widget.Button;
 import android.widget.LinearLayout;
 import android.widget.TextView;
@@ -10,32 +11,28 @@ import android.widget.Toast;
 
 import androidx.appcompat.app.AlertDialog;
 import androidx.appcompat.app.AppCompatActivity;
+import androidx.lifecycle.ViewModelProvider;
 
 import com.example.wordclash.R;
-import com.example.wordclash.models.Stats;
+import com.example.wordclash.game.GameEngine;
+import com.example.wordclash.game.GameType;
+import com.example.wordclash.game.Question;
 import com.example.wordclash.models.User;
-import com.example.wordclash.models.Word;
 import com.example.wordclash.services.DatabaseService;
 import com.example.wordclash.utils.LanguageUtils;
 import com.example.wordclash.utils.SharedPreferencesUtils;
 
-import java.util.ArrayList;
-import java.util.Collections;
-import java.util.List;
-
 public class FillGapsGameActivity extends AppCompatActivity {
 
-    private final int TOTAL_WORDS = 10;
     private TextView tvHint, tvWord, tvProgress, tvScore;
     private LinearLayout lettersContainer;
     private User user;
     private int rank = 1;
-    private List<Word> gameWords;
-    private int currentWordIndex = 0;
-    private int score = 0;
-    private String targetWord;
-    private List<Integer> missingIndices;
+    private boolean learningEnglish = true;
+    private GameViewModel model;
+    private GameEngine engine;
     private StringBuilder currentGuess;
+    private final Handler handler = new Handler(Looper.getMainLooper());
 
     @Override
     protected void onCreate(Bundle savedInstanceState) {
@@ -48,8 +45,33 @@ public class FillGapsGameActivity extends AppCompatActivity {
         if (user != null) LanguageUtils.setLayoutDirection(this, user);
 
         rank = getIntent().getIntExtra("RANK", 1);
+        String learningLanguage = user != null ? user.getLearningLanguage() : null;
+        learningEnglish = learningLanguage == null || learningLanguage.equals("english");
+        model = new ViewModelProvider(this).get(GameViewModel.class);
+        engine = model.getEngine(GameType.FILL_GAPS, rank, learningEnglish);
         initializeViews();
-        loadWords();
+
+        if (engine.isStarted()) {
+            // המסך נוצר מחדש (למשל בסיבוב) - הסבב עדיין בזיכרון, בלי לטעון שוב
+            engine.advanceIfAnswered();
+            updateScore();
+            showNextWord();
+        } else {
+            model.restoreFrom(savedInstanceState);
+            loadWords();
+        }
+    }
+
+    @Override
+    protected void onSaveInstanceState(Bundle outState) {
+        super.onSaveInstanceState(outState);
+        model.save(outState);
+    }
+
+    @Override
+    protected void onDestroy() {
+        handler.removeCallbacksAndMessages(null);
+        super.onDestroy();
     }
 
     private void initializeViews() {
@@ -64,59 +86,41 @@ public class FillGapsGameActivity extends AppCompatActivity {
     }
 
     private void loadWords() {
-        DatabaseService.getInstance().getAllWords(new DatabaseService.DatabaseCallback<>() {
-            @Override
-            public void onCompleted(List<Word> words) {
-                if (words == null || words.isEmpty()) {
-                    Toast.makeText(FillGapsGameActivity.this,
-                            getString(R.string.no_words_available), Toast.LENGTH_SHORT).show();
-                    finish();
-                    return;
-                }
-                gameWords = new ArrayList<>();
-                for (Word word : words) {
-                    String english = word.getEnglish();
-                    if (english != null && english.length() >= 4 && english.length() <= 8) {
-                        gameWords.add(word);
+        // המנוע משאיר רק מילים של 4-8 אותיות
+        model.loadRound(callback -> DatabaseService.getInstance().getAllWords(callback),
+                new DatabaseService.DatabaseCallback<>() {
+                    @Override
+                    public void onCompleted(Boolean ready) {
+                        if (!ready) {
+                            Toast.makeText(FillGapsGameActivity.this,
+                                    getString(R.string.no_suitable_words), Toast.LENGTH_SHORT).show();
+                            finish();
+                            return;
+                        }
+                        updateScore();
+                        showNextWord();
                     }
-                }
-                if (gameWords.isEmpty()) {
-                    Toast.makeText(FillGapsGameActivity.this,
-                            getString(R.string.no_suitable_words), Toast.LENGTH_SHORT).show();
-                    finish();
-                    return;
-                }
-                Collections.shuffle(gameWords);
-                showNextWord();
-            }
 
-            @Override
-            public void onFailed(Exception e) {
-                Toast.makeText(FillGapsGameActivity.this,
-                        getString(R.string.failed_load_words, e.getMessage()),
-                        Toast.LENGTH_SHORT).show();
-                finish();
-            }
-        });
+                    @Override
+                    public void onFailed(Exception e) {
+                        Toast.makeText(FillGapsGameActivity.this,
+                                getString(R.string.failed_load_words, e.getMessage()),
+                                Toast.LENGTH_SHORT).show();
+                        finish();
+                    }
+                });
     }
 
     private void showNextWord() {
-        if (currentWordIndex >= TOTAL_WORDS || currentWordIndex >= gameWords.size()) {
+        if (engine.isFinished()) {
             showResults();
             return;
         }
 
-        Word word = gameWords.get(currentWordIndex);
-        String learningLanguage = user.getLearningLanguage();
-        if (learningLanguage == null) learningLanguage = "english";
-
-        if (learningLanguage.equals("english")) {
-            targetWord = word.getEnglish().toUpperCase();
-            tvHint.setText(getString(R.string.word_builder_hint_hebrew, word.getHebrew()));
-        } else {
-            targetWord = word.getHebrew();
-            tvHint.setText(getString(R.string.word_builder_hint_english, word.getEnglish()));
-        }
+        // המילה, הרמז והאותיות החסרות נבחרו כבר בתחילת הסבב
+        Question question = engine.current();
+        tvHint.setText(getString(learningEnglish ? R.string.word_builder_hint_hebrew : R.string.word_builder_hint_english,
+                question.getPrompt()));
 
         createWordWithGaps();
         setupLetterButtons();
@@ -124,20 +128,13 @@ public class FillGapsGameActivity extends AppCompatActivity {
     }
 
     private void createWordWithGaps() {
-        missingIndices = new ArrayList<>();
-        int numMissing = Math.max(2, targetWord.length() / 2);
+        Question question = engine.current();
+        String targetWord = question.getTarget();
+        boolean[] gaps = question.getGaps();
 
-        List<Integer> allIndices = new ArrayList<>();
-        for (int i = 0; i < targetWord.length(); i++) allIndices.add(i);
-        Collections.shuffle(allIndices);
-
-        for (int i = 0; i < numMissing && i < allIndices.size(); i++) {
-            missingIndices.add(allIndices.get(i));
-        }
-
-        currentGuess = new StringBuilder();
+        currentGuess = new StringBuilder(targetWord.length());
         for (int i = 0; i < targetWord.length(); i++) {
-            currentGuess.append(missingIndices.contains(i) ? '_' : targetWord.charAt(i));
+            currentGuess.append(gaps[i] ? '_' : targetWord.charAt(i));
         }
         updateWordDisplay();
     }
@@ -145,12 +142,10 @@ public class FillGapsGameActivity extends AppCompatActivity {
     private void setupLetterButtons() {
         lettersContainer.removeAllViews();
 
-        List<Character> missingLetters = new ArrayList<>();
-        for (int index : missingIndices) missingLetters.add(targetWord.charAt(index));
-        Collections.shuffle(missingLetters);
+        char[] missingLetters = engine.current().getLetters();
 
         int maxPerRow = 4;
-        int total = missingLetters.size();
+        int total = missingLetters.length;
         float density = getResources().getDisplayMetrics().density;
         int letterSizePx = (int) (56 * density);
 
@@ -166,7 +161,7 @@ public class FillGapsGameActivity extends AppCompatActivity {
 
             int rowEnd = Math.min(rowStart + maxPerRow, total);
             for (int i = rowStart; i < rowEnd; i++) {
-                final char letter = missingLetters.get(i);
+                final char letter = missingLetters[i];
                 Button btn = new Button(this);
                 LinearLayout.LayoutParams params = new LinearLayout.LayoutParams(
                         letterSizePx, letterSizePx);
@@ -215,22 +210,21 @@ public class FillGapsGameActivity extends AppCompatActivity {
     }
 
     private void checkAnswer() {
-        if (currentGuess.toString().equals(targetWord)) {
-            score += 10 * rank;
+        if (engine.answerSpelling(currentGuess)) {
             updateScore();
             tvWord.setTextColor(Color.parseColor("#43A047"));
             Toast.makeText(this, getString(R.string.game_correct), Toast.LENGTH_SHORT).show();
 
-            new Handler().postDelayed(() -> {
+            handler.postDelayed(() -> {
                 tvWord.setTextColor(Color.BLACK);
-                currentWordIndex++;
+                engine.next();
                 showNextWord();
             }, 1000);
         } else {
             tvWord.setTextColor(Color.RED);
             Toast.makeText(this, getString(R.string.game_wrong), Toast.LENGTH_SHORT).show();
 
-            new Handler().postDelayed(() -> {
+            handler.postDelayed(() -> {
                 tvWord.setTextColor(Color.BLACK);
                 createWordWithGaps();
                 setupLetterButtons();
@@ -239,33 +233,33 @@ public class FillGapsGameActivity extends AppCompatActivity {
     }
 
     private void skipWord() {
+        if (engine.isFinished()) return;
         new AlertDialog.Builder(this)
                 .setTitle(getString(R.string.skip_word_title))
-                .setMessage(getString(R.string.skip_word_msg, targetWord))
+                .setMessage(getString(R.string.skip_word_msg, engine.current().getTarget()))
                 .setPositiveButton(getString(R.string.next), (d, w) -> {
-                    currentWordIndex++;
+                    engine.next();
                     showNextWord();
                 })
                 .show();
     }
 
     private void updateProgress() {
-        tvProgress.setText(getString(R.string.word_progress, currentWordIndex + 1, TOTAL_WORDS));
+        tvProgress.setText(getString(R.string.word_progress, engine.getIndex() + 1, engine.getSize()));
     }
 
     private void updateScore() {
-        tvScore.setText(getString(R.string.score, score));
+        tvScore.setText(getString(R.string.score, engine.getScore()));
     }
 
     private void showResults() {
         saveScoreToStats();
         new AlertDialog.Builder(this)
                 .setTitle(getString(R.string.game_complete_title))
-                .setMessage(getString(R.string.game_complete_msg, score, TOTAL_WORDS * 10 * rank, rank))
+                .setMessage(getString(R.string.game_complete_msg, engine.getScore(), engine.getMaxScore(), rank))
                 .setPositiveButton(getString(R.string.game_play_again), (d, w) -> {
-                    currentWordIndex = 0;
-                    score = 0;
-                    Collections.shuffle(gameWords);
+                    engine.restart();
+                    updateScore();
                     showNextWord();
                 })
                 .setNegativeButton(getString(R.string.game_back), (d, w) -> finish())
@@ -274,17 +268,6 @@ public class FillGapsGameActivity extends AppCompatActivity {
     }
 
     private void saveScoreToStats() {
-        DatabaseService.getInstance().getStats(user.getId(), new DatabaseService.DatabaseCallback<>() {
-            @Override
-            public void onCompleted(Stats stats) {
-                if (stats == null) stats = new Stats(user.getId(), 1, 0);
-                stats.setTotalScore(stats.getTotalScore() + score);
-                DatabaseService.getInstance().updateStats(stats, null);
-            }
-
-            @Override
-            public void onFailed(Exception e) {
-            }
-        });
+        engine.finish(result -> DatabaseService.getInstance().submitGameResult(user.getId(), result, null));
     }
 }
\ No newline at end of file
@@ -0,0 +1,150 @@
+package com.example.wordclash.screens;
+
+import android.os.Bundle;
+
+import androidx.lifecycle.ViewModel;
+
+import com.example.wordclash.game.GameEngine;
+import com.example.wordclash.game.GameSnapshot;
+import com.example.wordclash.game.GameType;
+import com.example.wordclash.models.Word;
+import com.example.wordclash.services.DatabaseService;
+
+import java.util.List;
+
+/**
+ * Keeps a game's round alive while its screen is recreated (rotation, dark mode, language change),
+ * so the words aren't downloaded again and the round continues where it was.
+ * If the process itself is killed, a compact snapshot saved in savedInstanceState brings the round back.
+ */
+// שינוי תצורה: ה-ViewModel (והמנוע שבתוכו) שורד, והמסך החדש רק מצייר את המצב מחדש - בלי קריאות רשת.
+// מוות של התהליך: נשמרים רק מזהי המילים, המקום בסבב, הניקוד והזמן שנשאר; אחרי טעינת המילים
+// המנוע בונה מחדש את אותן שאלות (restore).
+public class GameViewModel extends ViewModel {
+
+    private static final String KEY_WORD_IDS = "game_word_ids";
+    private static final String KEY_INDEX = "game_index";
+    private static final String KEY_SCORE = "game_score";
+    private static final String KEY_FOUND_PAIRS = "game_found_pairs";
+    private static final String KEY_SUBMITTED = "game_submitted";
+    private static final String KEY_TIMER = "game_timer_remaining";
+
+    /**
+     * Starts the download of the words a round is dealt from
+     */
+    public interface WordLoader {
+        void load(DatabaseService.DatabaseCallback<List<Word>> callback);
+    }
+
+    private GameEngine engine;
+    private GameSnapshot pendingSnapshot;   // סבב שנשמר לפני מוות התהליך ועוד מחכה למילים
+    private boolean loading;
+    private DatabaseService.DatabaseCallback<Boolean> waiting;
+    private long timerRemainingMs = -1;
+
+    /**
+     * The engine of this screen's game, created on first use
+     */
+    public GameEngine getEngine(GameType type, int rank, boolean learningEnglish) {
+        if (engine == null) {
+            engine = new GameEngine(type, rank, learningEnglish);
+        }
+        return engine;
+    }
+
+    /**
+     * Remember a round saved before the process was killed; the next loadRound continues it
+     */
+    public void restoreFrom(Bundle savedInstanceState) {
+        if (savedInstanceState == null || engine != null && engine.isStarted()) return;
+
+        String[] wordIds = savedInstanceState.getStringArray(KEY_WORD_IDS);
+        if (wordIds == null) return;
+
+        pendingSnapshot = new GameSnapshot(wordIds,
+                savedInstanceState.getInt(KEY_INDEX),
+                savedInstanceState.getInt(KEY_SCORE),
+                savedInstanceState.getBooleanArray(KEY_FOUND_PAIRS),
+                savedInstanceState.getBoolean(KEY_SUBMITTED));
+        timerRemainingMs = savedInstanceState.getLong(KEY_TIMER, -1);
+    }
+
+    /**
+     * Whether loadRound is going to continue a saved round rather than deal a new one
+     */
+    public boolean hasPendingSnapshot() {
+        return pendingSnapshot != null;
+    }
+
+    /**
+     * Load the words and deal the round (or continue the saved one)
+     * If a load is already running because the screen was recreated, only the new callback gets its result.
+     *
+     * @param callback true when the round is ready, false if there aren't enough suitable words
+     */
+    public void loadRound(WordLoader loader, DatabaseService.DatabaseCallback<Boolean> callback) {
+        waiting = callback;
+        if (loading) return;
+
+        loading = true;
+        loader.load(new DatabaseService.DatabaseCallback<>() {
+            @Override
+            public void onCompleted(List<Word> words) {
+                loading = false;
+                boolean ready = words != null && deal(words);
+                DatabaseService.DatabaseCallback<Boolean> listener = waiting;
+                waiting = null;
+                if (listener != null) listener.onCompleted(ready);
+            }
+
+            @Override
+            public void onFailed(Exception e) {
+                loading = false;
+                DatabaseService.DatabaseCallback<Boolean> listener = waiting;
+                waiting = null;
+                if (listener != null) listener.onFailed(e);
+            }
+        });
+    }
+
+    private boolean deal(List<Word> words) {
+        GameSnapshot snapshot = pendingSnapshot;
+        pendingSnapshot = null;
+        if (snapshot != null && engine.restore(words, snapshot)) return true;
+
+        timerRemainingMs = -1;
+        return engine.start(words);
+    }
+
+    /**
+     * Time left on the current question's timer, or -1 for a full timer
+     */
+    public long getTimerRemainingMs() {
+        return timerRemainingMs;
+    }
+
+    public void setTimerRemainingMs(long timerRemainingMs) {
+        this.timerRemainingMs = timerRemainingMs;
+    }
+
+    /**
+     * Save the round from onSaveInstanceState, in case the process is killed while in the background
+     */
+    public void save(Bundle outState) {
+        GameSnapshot snapshot = engine != null && engine.isStarted() ? engine.snapshot() : pendingSnapshot;
+        if (snapshot == null) return;
+
+        outState.putStringArray(KEY_WORD_IDS, snapshot.getWordIds());
+        outState.putInt(KEY_INDEX, snapshot.getIndex());
+        outState.putInt(KEY_SCORE, snapshot.getScore());
+        outState.putBooleanArray(KEY_FOUND_PAIRS, snapshot.getFoundPairs());
+        outState.putBoolean(KEY_SUBMITTED, snapshot.isSubmitted());
+        // תשובה שכבר נענתה נשמרת כשאלה שהסתיימה, והשאלה הבאה מתחילה עם זמן מלא
+        outState.putLong(KEY_TIMER, engine != null && engine.isAnswered() ? -1 : timerRemainingMs);
+    }
+
+    @Override
+    protected void onCleared() {
+        waiting = null;
+    }
+}
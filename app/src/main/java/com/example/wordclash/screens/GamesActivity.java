@@ -9,6 +9,7 @@ import androidx.cardview.widget.CardView;
 
 import com.example.wordclash.R;
 import com.example.wordclash.models.User;
+import com.example.wordclash.services.SpeechService;
 import com.example.wordclash.utils.LanguageUtils;
 import com.example.wordclash.utils.SharedPreferencesUtils;
 
@@ -42,6 +43,9 @@ public class GamesActivity extends AppCompatActivity {
 
         rank = getIntent().getIntExtra("RANK", 1);
 
+        // מנוע הדיבור עולה ברקע בזמן שהמשתמש בוחר משחק, כך ש"שמע ונחש" יכול לדבר מיד
+        SpeechService.getInstance().warmUp();
+
         initializeViews();
     }
 
@@ -12,24 +12,22 @@ import androidx.recyclerview.widget.RecyclerView;
 
 import com.example.wordclash.R;
 import com.example.wordclash.adapters.LeaderboardAdapter;
-import com.example.wordclash.models.Stats;
+import com.example.wordclash.models.LeaderboardEntry;
 import com.example.wordclash.models.User;
 import com.example.wordclash.services.DatabaseService;
 import com.example.wordclash.utils.SharedPreferencesUtils;
 
-import java.util.ArrayList;
-import java.util.HashMap;
 import java.util.List;
-import java.util.Map;
 
 public class LeaderboardActivity extends AppCompatActivity {
 
+    private static final int TOP_COUNT = 10;
+
     private LeaderboardAdapter leaderboardAdapter;
     private CardView cardYourRank;
     private TextView tvYourPosition, tvYourUsername, tvYourScore;
 
     private User currentUser;
-    private List<LeaderboardEntry> allEntries;
 
     @Override
     protected void onCreate(Bundle savedInstanceState) {
@@ -62,23 +60,19 @@ public class LeaderboardActivity extends AppCompatActivity {
     }
 
     private void loadLeaderboard() {
-        allEntries = new ArrayList<>();
-
-        DatabaseService.getInstance().getUserList(new DatabaseService.DatabaseCallback<>() {
+        // שאילתה אחת על leaderboard/ שמחזירה רק את 10 המובילים, ממוינים כבר בשרת
+        DatabaseService.getInstance().getTopLeaderboard(TOP_COUNT, new DatabaseService.DatabaseCallback<>() {
             @Override
-            public void onCompleted(List<User> users) {
-                if (users == null || users.isEmpty()) {
+            public void onCompleted(List<LeaderboardEntry> entries) {
+                if (entries == null || entries.isEmpty()) {
                     Toast.makeText(LeaderboardActivity.this,
                             getString(R.string.no_users_found),
                             Toast.LENGTH_SHORT).show();
                     return;
                 }
 
-                Map<String, User> userMap = new HashMap<>();
-                for (User user : users) {
-                    userMap.put(user.getId(), user);
-                }
-                loadAllStats(userMap);
+                leaderboardAdapter.setEntries(entries);
+                displayUserRank(entries);
             }
 
             @Override
@@ -90,81 +84,48 @@ public class LeaderboardActivity extends AppCompatActivity {
         });
     }
 
-    private void loadAllStats(Map<String, User> userMap) {
-        final int[] loadedCount = {0};
-        final int totalUsers = userMap.size();
-
-        for (User user : userMap.values()) {
-            DatabaseService.getInstance().getStats(user.getId(), new DatabaseService.DatabaseCallback<>() {
-                @Override
-                public void onCompleted(Stats stats) {
-                    if (stats != null) {
-                        LeaderboardEntry entry = new LeaderboardEntry();
-                        entry.userId = user.getId();
-                        entry.username = user.getUserName();
-                        entry.totalScore = stats.getTotalScore();
-                        entry.rank = stats.getRank();
-                        allEntries.add(entry);
-                    }
+    private void displayUserRank(List<LeaderboardEntry> topEntries) {
+        for (LeaderboardEntry entry : topEntries) {
+            if (entry.getUserId().equals(currentUser.getId())) {
+                showUserRank(entry);
+                return;
+            }
+        }
 
-                    loadedCount[0]++;
-                    if (loadedCount[0] == totalUsers) {
-                        displayLeaderboard();
-                    }
+        // המשתמש לא בעשירייה הראשונה - שליפה של השורה שלו בלבד
+        DatabaseService.getInstance().getLeaderboardEntry(currentUser.getId(), new DatabaseService.DatabaseCallback<>() {
+            @Override
+            public void onCompleted(LeaderboardEntry userEntry) {
+                if (userEntry == null) {
+                    cardYourRank.setVisibility(View.GONE);
+                    return;
                 }
 
-                @Override
-                public void onFailed(Exception e) {
-                    loadedCount[0]++;
-                    if (loadedCount[0] == totalUsers) {
-                        displayLeaderboard();
+                DatabaseService.getInstance().getLeaderboardPosition(userEntry.getScore(), new DatabaseService.DatabaseCallback<>() {
+                    @Override
+                    public void onCompleted(Integer position) {
+                        userEntry.setPosition(position);
+                        showUserRank(userEntry);
                     }
-                }
-            });
-        }
-    }
-
-    private void displayLeaderboard() {
-        allEntries.sort((e1, e2) -> Integer.compare(e2.totalScore, e1.totalScore));
 
-        for (int i = 0; i < allEntries.size(); i++) {
-            allEntries.get(i).position = i + 1;
-        }
-
-        List<LeaderboardEntry> top10 = new ArrayList<>();
-        for (int i = 0; i < Math.min(10, allEntries.size()); i++) {
-            top10.add(allEntries.get(i));
-        }
-
-        leaderboardAdapter.setEntries(top10);
-        displayUserRank();
-    }
-
-    private void displayUserRank() {
-        LeaderboardEntry userEntry = null;
-
-        for (LeaderboardEntry entry : allEntries) {
-            if (entry.userId.equals(currentUser.getId())) {
-                userEntry = entry;
-                break;
+                    @Override
+                    public void onFailed(Exception e) {
+                        cardYourRank.setVisibility(View.GONE);
+                    }
+                });
             }
-        }
 
-        if (userEntry != null) {
-            cardYourRank.setVisibility(View.VISIBLE);
-            tvYourPosition.setText("#" + userEntry.position);
-            tvYourUsername.setText(userEntry.username);
-            tvYourScore.setText(getString(R.string.points, userEntry.totalScore));
-        } else {
-            cardYourRank.setVisibility(View.GONE);
-        }
+            @Override
+            public void onFailed(Exception e) {
+                cardYourRank.setVisibility(View.GONE);
+            }
+        });
     }
 
-    public static class LeaderboardEntry {
-        public String userId;
-        public String username;
-        public int totalScore;
-        public int rank;
-        public int position;
+    private void showUserRank(LeaderboardEntry userEntry) {
+        cardYourRank.setVisibility(View.VISIBLE);
+        tvYourPosition.setText("#" + userEntry.getPosition());
+        tvYourUsername.setText(userEntry.getUserName());
+        tvYourScore.setText(getString(R.string.points, userEntry.getScore()));
     }
-}
\ No newline at end of file
+}
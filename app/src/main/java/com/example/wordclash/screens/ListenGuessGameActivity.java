@@ -4,6 +4,7 @@ import android.graphics.Color;
 import android.graphics.Typeface;
 import android.os.Bundle;
 import android.os.Handler;
+import android.os.Looper;
 import android.speech.tts.TextToSpeech;
 import android.widget.Button;
 import android.widget.TextView;
@@ -11,20 +12,18 @@ import android.widget.Toast;
 
 import androidx.appcompat.app.AlertDialog;
 import androidx.appcompat.app.AppCompatActivity;
+import androidx.lifecycle.ViewModelProvider;
 
 import com.example.wordclash.R;
-import com.example.wordclash.models.Stats;
+import com.example.wordclash.game.GameEngine;
+import com.example.wordclash.game.GameType;
+import com.example.wordclash.game.Question;
 import com.example.wordclash.models.User;
-import com.example.wordclash.models.Word;
 import com.example.wordclash.services.DatabaseService;
+import com.example.wordclash.services.SpeechService;
 import com.example.wordclash.utils.LanguageUtils;
 import com.example.wordclash.utils.SharedPreferencesUtils;
 
-import java.util.ArrayList;
-import java.util.Collections;
-import java.util.List;
-import java.util.Locale;
-
 public class ListenGuessGameActivity extends AppCompatActivity {
 
     private static final int COLOR_DEFAULT = Color.parseColor("#2196F3");
@@ -35,12 +34,9 @@ public class ListenGuessGameActivity extends AppCompatActivity {
     private Button btnOption1, btnOption2, btnOption3, btnOption4;
     private User user;
     private int rank = 1;
-    private List<Word> allWords;
-    private List<Word> gameWords;
-    private int currentQuestionIndex = 0;
-    private int score = 0;
-    private boolean answerSelected = false;
-    private TextToSpeech tts;
+    private GameViewModel model;
+    private GameEngine engine;
+    private final Handler handler = new Handler(Looper.getMainLooper());
     private boolean ttsReady = false;
     private boolean wordsLoaded = false;
     private boolean ttsInitialized = false;
@@ -56,9 +52,28 @@ public class ListenGuessGameActivity extends AppCompatActivity {
         if (user != null) LanguageUtils.setLayoutDirection(this, user);
 
         rank = getIntent().getIntExtra("RANK", 1);
+        model = new ViewModelProvider(this).get(GameViewModel.class);
+        engine = model.getEngine(GameType.LISTEN_GUESS, rank, learningLanguage().equals("english"));
         initializeViews();
+
+        if (engine.isStarted()) {
+            // המסך נוצר מחדש (למשל בסיבוב) - הסבב עדיין בזיכרון, בלי לטעון שוב.
+            // המילה תושמע כשהמנוע של הדיבור יהיה מוכן.
+            engine.advanceIfAnswered();
+            wordsLoaded = true;
+            updateScore();
+            showQuestion();
+        } else {
+            model.restoreFrom(savedInstanceState);
+            loadWords();
+        }
         initializeTTS();
-        loadWords();
+    }
+
+    @Override
+    protected void onSaveInstanceState(Bundle outState) {
+        super.onSaveInstanceState(outState);
+        model.save(outState);
     }
 
     private void initializeViews() {
@@ -87,151 +102,93 @@ public class ListenGuessGameActivity extends AppCompatActivity {
         btnListen.setAlpha(0.5f);
     }
 
-    // יוצרת רכיב שממיר טקסט לדיבור (מנוע הדיבור של גוגל בטלפון).
-    // הסטטוס זה מאזין.
-    // אני צריך לבדוק האם זה עלה בהצלחה בכלל. אם כן, המשך בהתאם לשפת הלימוד.
+    // מקבלת את מנוע הדיבור המשותף של האפליקציה (SpeechService), כבר מכוון לשפת הלימוד.
+    // המנוע עולה כבר במסך בחירת המשחקים, והשפה שנמצאה שמורה - כך שבפתיחה חוזרת הוא מוכן מיד.
     private void initializeTTS() {
-        tts = new TextToSpeech(this, status -> {
-            if (status == TextToSpeech.SUCCESS) {
-                String learningLanguage = user.getLearningLanguage();
-                if (learningLanguage == null) learningLanguage = "english";
-                // האם הצלחנו להגדיר את השפה או לא
-                boolean languageSet = false;
-
-                if (learningLanguage.equals("english")) {
-                    int result = tts.setLanguage(Locale.US);
-                    // השפה נתמכת, אך קבצי הקול חסרים במכשיר ויש להורידם LANG_MISSING_DATA
-                    // LANG_NOT_SUPPORTED - השפה אינה נתמכת כלל על ידי מנוע ה(tts) במכשיר
-                    if (result != TextToSpeech.LANG_MISSING_DATA
-                            && result != TextToSpeech.LANG_NOT_SUPPORTED) {
-                        languageSet = true;
-                    }
-                } else {
-                    Locale[] hebrewLocales = {
-                            new Locale("iw", "IL"), new Locale("iw"),
-                            new Locale("he", "IL"), new Locale("he")
-                    };
-                    // רץ על המערך מההתחלה ועד הסוף (לולאת for each)
-                    for (Locale locale : hebrewLocales) {
-                        int result = tts.setLanguage(locale);
-                        if (result != TextToSpeech.LANG_MISSING_DATA
-                                && result != TextToSpeech.LANG_NOT_SUPPORTED) {
-                            languageSet = true;
-                            break;
-                        }
-                    }
-                    if (!languageSet) {
-                        try {
-                            for (Locale available : tts.getAvailableLanguages()) {
-                                String lang = available.getLanguage();
-                                if (lang.equals("iw") || lang.equals("he")) {
-                                    int result = tts.setLanguage(available);
-                                    if (result != TextToSpeech.LANG_MISSING_DATA
-                                            && result != TextToSpeech.LANG_NOT_SUPPORTED) {
-                                        languageSet = true;
-                                        break;
-                                    }
-                                }
-                            }
-                        } catch (Exception ignored) {
-                        }
-                    }
-                }
-
-                final boolean finalLanguageSet = languageSet;
-                runOnUiThread(() -> {
-                    ttsInitialized = true;
-                    if (finalLanguageSet) {
-                        ttsReady = true;
-                        btnListen.setEnabled(true);
-                        btnListen.setAlpha(1.0f);
-                        if (wordsLoaded && currentQuestionIndex < gameWords.size()) {
-                            new Handler().postDelayed(this::speakWord, 300);
-                        }
-                    } else {
-                        Toast.makeText(this,
-                                getString(R.string.tts_hebrew_missing),
-                                Toast.LENGTH_LONG).show();
-                    }
-                });
-            } else {
-                runOnUiThread(() -> {
-                    ttsInitialized = true;
-                    Toast.makeText(this, getString(R.string.tts_failed), Toast.LENGTH_LONG).show();
-                });
-            }
-        });
-    }
+        String learningLanguage = user.getLearningLanguage();
+        if (learningLanguage == null) learningLanguage = "english";
 
-    private void loadWords() {
-        DatabaseService.getInstance().getAllWords(new DatabaseService.DatabaseCallback<>() {
+        SpeechService.getInstance().acquire(learningLanguage, new SpeechService.EngineListener() {
             @Override
-            public void onCompleted(List<Word> words) {
-                if (words == null || words.isEmpty()) {
-                    Toast.makeText(ListenGuessGameActivity.this,
-                            getString(R.string.no_words_available), Toast.LENGTH_SHORT).show();
-                    finish();
-                    return;
-                }
-                allWords = words;
-                selectRandomWords();
-                wordsLoaded = true;
-                showQuestion();
-                if (ttsReady) {
-                    new Handler().postDelayed(ListenGuessGameActivity.this::speakWord, 500);
+            public void onReady(TextToSpeech tts) {
+                if (isFinishing() || isDestroyed()) return;
+                ttsInitialized = true;
+                ttsReady = true;
+                btnListen.setEnabled(true);
+                btnListen.setAlpha(1.0f);
+                if (wordsLoaded && !engine.isFinished()) {
+                    prerenderRound();
+                    speakWord();
                 }
             }
 
             @Override
-            public void onFailed(Exception e) {
+            public void onUnavailable(boolean engineFailed) {
+                if (isFinishing() || isDestroyed()) return;
+                ttsInitialized = true;
                 Toast.makeText(ListenGuessGameActivity.this,
-                        getString(R.string.failed_load_words, e.getMessage()),
-                        Toast.LENGTH_SHORT).show();
-                finish();
+                        getString(engineFailed ? R.string.tts_failed : R.string.tts_hebrew_missing),
+                        Toast.LENGTH_LONG).show();
             }
         });
     }
 
-    private void selectRandomWords() {
-        gameWords = new ArrayList<>();
-        List<Word> shuffled = new ArrayList<>(allWords);
-        Collections.shuffle(shuffled);
-        int TOTAL_QUESTIONS = 10;
-        for (int i = 0; i < Math.min(TOTAL_QUESTIONS, shuffled.size()); i++) {
-            gameWords.add(shuffled.get(i));
-        }
+    private void loadWords() {
+        model.loadRound(callback -> DatabaseService.getInstance().getAllWords(callback),
+                new DatabaseService.DatabaseCallback<>() {
+                    @Override
+                    public void onCompleted(Boolean ready) {
+                        if (!ready) {
+                            Toast.makeText(ListenGuessGameActivity.this,
+                                    getString(R.string.no_words_available), Toast.LENGTH_SHORT).show();
+                            finish();
+                            return;
+                        }
+                        wordsLoaded = true;
+                        updateScore();
+                        prerenderRound();
+                        showQuestion();
+                        if (ttsReady) {
+                            handler.postDelayed(ListenGuessGameActivity.this::speakWord, 500);
+                        }
+                    }
+
+                    @Override
+                    public void onFailed(Exception e) {
+                        Toast.makeText(ListenGuessGameActivity.this,
+                                getString(R.string.failed_load_words, e.getMessage()),
+                                Toast.LENGTH_SHORT).show();
+                        finish();
+                    }
+                });
+    }
+
+    // כל מילות הסבב מוקלטות לקבצים ברקע, כך שכל שאלה (וכל "השמע שוב") מתחילה מיד
+    private void prerenderRound() {
+        if (!ttsReady || !wordsLoaded) return;
+        SpeechService.getInstance().prerender(engine.getDeckWords(), learningLanguage());
+    }
+
+    private String learningLanguage() {
+        String learningLanguage = user != null ? user.getLearningLanguage() : null;
+        return learningLanguage != null ? learningLanguage : "english";
     }
 
     private void showQuestion() {
-        if (currentQuestionIndex >= gameWords.size()) {
+        if (engine.isFinished()) {
             endGame();
             return;
         }
-        answerSelected = false;
-        Word currentWord = gameWords.get(currentQuestionIndex);
-        String learningLanguage = user.getLearningLanguage();
-        if (learningLanguage == null) learningLanguage = "english";
-        boolean isLearningEnglish = learningLanguage.equals("english");
-        setupOptions(currentWord, !isLearningEnglish);
+        setupOptions(engine.current());
         updateProgress();
     }
 
-    private void setupOptions(Word correctWord, boolean showHebrew) {
-        List<Word> options = new ArrayList<>();
-        options.add(correctWord);
-
-        List<Word> otherWords = new ArrayList<>(allWords);
-        otherWords.remove(correctWord);
-        Collections.shuffle(otherWords);
-        for (int i = 0; i < Math.min(3, otherWords.size()); i++) options.add(otherWords.get(i));
-        Collections.shuffle(options);
-
+    private void setupOptions(Question question) {
+        String[] options = question.getOptions();
         Button[] buttons = {btnOption1, btnOption2, btnOption3, btnOption4};
-        for (int i = 0; i < buttons.length && i < options.size(); i++) {
-            Word word = options.get(i);
-            String text = showHebrew ? word.getHebrew() : word.getEnglish();
-            buttons[i].setText(text);
-            buttons[i].setTag(word);
+        for (int i = 0; i < buttons.length && i < options.length; i++) {
+            buttons[i].setText(options[i]);
+            buttons[i].setTag(i);
             buttons[i].setBackgroundColor(COLOR_DEFAULT);
             buttons[i].setTextColor(Color.WHITE);
             buttons[i].setEnabled(true);
@@ -250,46 +207,30 @@ public class ListenGuessGameActivity extends AppCompatActivity {
                     Toast.LENGTH_SHORT).show();
             return;
         }
-        if (gameWords == null || currentQuestionIndex >= gameWords.size()) return;
+        if (!wordsLoaded || engine.isFinished()) return;
 
-        Word currentWord = gameWords.get(currentQuestionIndex);
-        String learningLanguage = user.getLearningLanguage();
-        if (learningLanguage == null) learningLanguage = "english";
-        String textToSpeak = learningLanguage.equals("english")
-                ? currentWord.getEnglish() : currentWord.getHebrew();
-        tts.speak(textToSpeak, TextToSpeech.QUEUE_FLUSH, null, null);
+        SpeechService.getInstance().speak(engine.current().getWord(), learningLanguage());
     }
 
     private void checkAnswer(Button selectedButton) {
-        if (answerSelected) return;
-        answerSelected = true;
-
-        Word selectedWord = (Word) selectedButton.getTag();
-        Word correctWord = gameWords.get(currentQuestionIndex);
+        if (engine.isAnswered()) return;
 
         disableAllButtons();
 
-        if (selectedWord.getId().equals(correctWord.getId())) {
+        if (engine.answerChoice((int) selectedButton.getTag())) {
             selectedButton.setBackgroundColor(COLOR_CORRECT);
-            score += 10 * rank;
             updateScore();
         } else {
             selectedButton.setBackgroundColor(COLOR_WRONG);
-            highlightCorrect(correctWord);
+            highlightCorrect();
         }
 
-        new Handler().postDelayed(this::nextQuestion, 1800);
+        handler.postDelayed(this::nextQuestion, 1800);
     }
 
-    private void highlightCorrect(Word correctWord) {
+    private void highlightCorrect() {
         Button[] buttons = {btnOption1, btnOption2, btnOption3, btnOption4};
-        for (Button button : buttons) {
-            Word word = (Word) button.getTag();
-            if (word != null && word.getId().equals(correctWord.getId())) {
-                button.setBackgroundColor(COLOR_CORRECT);
-                break;
-            }
-        }
+        buttons[engine.current().getCorrectOption()].setBackgroundColor(COLOR_CORRECT);
     }
 
     private void disableAllButtons() {
@@ -299,37 +240,38 @@ public class ListenGuessGameActivity extends AppCompatActivity {
     }
 
     private void nextQuestion() {
-        currentQuestionIndex++;
+        engine.next();
         showQuestion();
-        if (ttsReady && currentQuestionIndex < gameWords.size()) {
-            new Handler().postDelayed(this::speakWord, 500);
+        if (ttsReady && !engine.isFinished()) {
+            handler.postDelayed(this::speakWord, 500);
         }
     }
 
     private void updateProgress() {
         tvProgress.setText(getString(R.string.question_progress,
-                currentQuestionIndex + 1, gameWords.size()));
+                engine.getIndex() + 1, engine.getSize()));
     }
 
     private void updateScore() {
-        tvScore.setText(getString(R.string.score, score));
+        tvScore.setText(getString(R.string.score, engine.getScore()));
     }
 
     private void endGame() {
         saveScoreToStats();
-        int percentage = (score * 100) / (gameWords.size() * 10 * rank);
-        String message = getString(R.string.your_score, score, gameWords.size() * 10 * rank)
-                + "\n" + getString(R.string.game_complete_msg, score, gameWords.size() * 10 * rank, rank);
+        int score = engine.getScore();
+        int maxScore = engine.getMaxScore();
+        String message = getString(R.string.your_score, score, maxScore)
+                + "\n" + getString(R.string.game_complete_msg, score, maxScore, rank);
 
         new AlertDialog.Builder(this)
                 .setTitle(getString(R.string.game_complete_title))
                 .setMessage(message)
                 .setPositiveButton(getString(R.string.game_play_again), (d, w) -> {
-                    currentQuestionIndex = 0;
-                    score = 0;
-                    selectRandomWords();
+                    engine.restart();
+                    updateScore();
+                    prerenderRound();
                     showQuestion();
-                    if (ttsReady) new Handler().postDelayed(this::speakWord, 500);
+                    if (ttsReady) handler.postDelayed(this::speakWord, 500);
                 })
                 .setNegativeButton(getString(R.string.game_back), (d, w) -> finish())
                 .setCancelable(false)
@@ -337,25 +279,15 @@ public class ListenGuessGameActivity extends AppCompatActivity {
     }
 
     private void saveScoreToStats() {
-        DatabaseService.getInstance().getStats(user.getId(), new DatabaseService.DatabaseCallback<>() {
-            @Override
-            public void onCompleted(Stats stats) {
-                if (stats == null) stats = new Stats(user.getId(), 1, 0);
-                stats.setTotalScore(stats.getTotalScore() + score);
-                DatabaseService.getInstance().updateStats(stats, null);
-            }
-
-            @Override
-            public void onFailed(Exception e) {
-            }
-        });
+        engine.finish(result -> DatabaseService.getInstance().submitGameResult(user.getId(), result, null));
     }
 
     @Override
     protected void onDestroy() {
-        if (tts != null) {
-            tts.stop();
-            tts.shutdown();
+        handler.removeCallbacksAndMessages(null);
+        // המנוע משותף לכל האפליקציה - רק עוצרים את הדיבור וההקלטות, בלי shutdown
+        if (ttsReady) {
+            SpeechService.getInstance().stop();
         }
         super.onDestroy();
     }
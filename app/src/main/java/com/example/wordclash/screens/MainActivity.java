@@ -3,9 +3,8 @@ package com.example.wordclash.screens;
 import android.content.Intent;
 import android.content.SharedPreferences;
 import android.graphics.Bitmap;
-import android.graphics.BitmapFactory;
 import android.os.Bundle;
-import android.util.Base64;
+import android.util.Log;
 import android.view.MenuItem;
 import android.view.View;
 import android.widget.Button;
@@ -20,6 +19,8 @@ import androidx.drawerlayout.widget.DrawerLayout;
 
 import com.example.wordclash.R;
 import com.example.wordclash.models.User;
+import com.example.wordclash.services.DatabaseService;
+import com.example.wordclash.utils.AvatarLoader;
 import com.example.wordclash.utils.LanguageUtils;
 import com.example.wordclash.utils.SharedPreferencesUtils;
 import com.example.wordclash.utils.VocabularyImporter;
@@ -30,6 +31,7 @@ import java.util.Calendar;
 public class MainActivity extends AppCompatActivity
         implements NavigationView.OnNavigationItemSelectedListener {
 
+    private static final String TAG = "MainActivity";
     private static final String PREFS_NAME = "WordClashPrefs";
     private static final String KEY_VOCABULARY_IMPORTED = "vocabulary_imported";
     private Button btnMiniGames;
@@ -167,28 +169,54 @@ public class MainActivity extends AppCompatActivity
         boolean imported = prefs.getBoolean(KEY_VOCABULARY_IMPORTED, false);
 
         if (!imported) {
-            VocabularyImporter.importVocabularyFromAssets(this);
-            prefs.edit().putBoolean(KEY_VOCABULARY_IMPORTED, true).apply();
+            // הדגל נשמר רק אחרי שכל המילים נכתבו - ייבוא שנקטע ימשיך בפעם הבאה
+            VocabularyImporter.importVocabularyFromAssets(this, new VocabularyImporter.ImportListener() {
+                @Override
+                public void onProgress(int committedWords) {
+                    // הייבוא רץ ברקע - ההתקדמות נרשמת ב-Logcat על ידי ה-importer
+                }
+
+                @Override
+                public void onComplete(int totalWords) {
+                    prefs.edit().putBoolean(KEY_VOCABULARY_IMPORTED, true).apply();
+                }
+
+                @Override
+                public void onFailed(Exception e) {
+                    Log.e(TAG, "Vocabulary import failed, will resume on next launch", e);
+                }
+            });
         }
     }
 
     private void loadProfilePicture() {
-        String profilePictureUrl = user.getProfilePictureUrl();
-
-        if (profilePictureUrl != null && !profilePictureUrl.isEmpty()) {
-            ivUserAvatar.setVisibility(View.VISIBLE);
-            tvUserInitial.setVisibility(View.GONE);
-
-            try {
-                byte[] decodedString = Base64.decode(profilePictureUrl, Base64.DEFAULT);
-                Bitmap decodedByte = BitmapFactory.decodeByteArray(decodedString, 0, decodedString.length);
-                ivUserAvatar.setImageBitmap(decodedByte);
-            } catch (Exception e) {
-                showDefaultAvatar();
-            }
-        } else {
+        String avatarHash = user.getAvatarHash();
+
+        if (avatarHash == null || avatarHash.isEmpty()) {
             showDefaultAvatar();
+            return;
         }
+
+        // התמונה עצמה נשמרת בנפרד (avatars/) ומפוענחת פעם אחת; חזרה למסך מקבלת אותה מה-cache
+        AvatarLoader.getInstance().load(user.getId(), avatarHash, ivUserAvatar,
+                new DatabaseService.DatabaseCallback<>() {
+                    @Override
+                    public void onCompleted(Bitmap bitmap) {
+                        if (bitmap == null) {
+                            showDefaultAvatar();
+                            return;
+                        }
+
+                        ivUserAvatar.setVisibility(View.VISIBLE);
+                        tvUserInitial.setVisibility(View.GONE);
+                        ivUserAvatar.setImageBitmap(bitmap);
+                    }
+
+                    @Override
+                    public void onFailed(Exception e) {
+                        showDefaultAvatar();
+                    }
+                });
     }
 
     private void showDefaultAvatar() {
@@ -3,6 +3,7 @@ package com.example.wordclash.screens;
 import android.graphics.Color;
 import android.os.Bundle;
 import android.os.Handler;
+import android.os.Looper;
 import android.widget.Button;
 import android.widget.LinearLayout;
 import android.widget.TextView;
@@ -10,33 +11,33 @@ import android.widget.Toast;
 
 import androidx.appcompat.app.AlertDialog;
 import androidx.appcompat.app.AppCompatActivity;
+import androidx.lifecycle.ViewModelProvider;
 
 import com.example.wordclash.R;
-import com.example.wordclash.models.Stats;
+import com.example.wordclash.game.GameEngine;
+import com.example.wordclash.game.GameType;
+import com.example.wordclash.game.Question;
 import com.example.wordclash.models.User;
-import com.example.wordclash.models.Word;
 import com.example.wordclash.services.DatabaseService;
 import com.example.wordclash.utils.LanguageUtils;
 import com.example.wordclash.utils.SharedPreferencesUtils;
 
 import java.util.ArrayList;
-import java.util.Collections;
 import java.util.List;
 
 public class MatchGameActivity extends AppCompatActivity {
 
-    private final int TOTAL_PAIRS = 6;
     private TextView tvScore, tvMatches;
     private LinearLayout leftColumn, rightColumn;
     private User user;
     private int rank = 1;
-    private List<Word> gameWords;
+    private GameViewModel model;
+    private GameEngine engine;
+    private final Handler handler = new Handler(Looper.getMainLooper());
     private List<Button> leftButtons;
     private List<Button> rightButtons;
     private Button selectedLeft = null;
     private Button selectedRight = null;
-    private int matchesFound = 0;
-    private int score = 0;
 
     @Override
     protected void onCreate(Bundle savedInstanceState) {
@@ -49,9 +50,32 @@ public class MatchGameActivity extends AppCompatActivity {
         if (user != null) LanguageUtils.setLayoutDirection(this, user);
 
         rank = getIntent().getIntExtra("RANK", 1);
+        String learningLanguage = user != null ? user.getLearningLanguage() : null;
+        model = new ViewModelProvider(this).get(GameViewModel.class);
+        engine = model.getEngine(GameType.MATCH, rank, learningLanguage == null || learningLanguage.equals("english"));
 
         initializeViews();
-        loadWords();
+
+        if (engine.isStarted()) {
+            // המסך נוצר מחדש (למשל בסיבוב) - הלוח והזוגות שנמצאו עדיין בזיכרון, בלי לטעון שוב
+            setupGame();
+            if (engine.isFinished()) showWinDialog();
+        } else {
+            model.restoreFrom(savedInstanceState);
+            loadWords();
+        }
+    }
+
+    @Override
+    protected void onSaveInstanceState(Bundle outState) {
+        super.onSaveInstanceState(outState);
+        model.save(outState);
+    }
+
+    @Override
+    protected void onDestroy() {
+        handler.removeCallbacksAndMessages(null);
+        super.onDestroy();
     }
 
     private void initializeViews() {
@@ -61,42 +85,46 @@ public class MatchGameActivity extends AppCompatActivity {
         rightColumn = findViewById(R.id.rightColumn);
         Button btnNewGame = findViewById(R.id.btnNewGame);
 
-        btnNewGame.setOnClickListener(v -> loadWords());
+        btnNewGame.setOnClickListener(v -> newGame());
 
         leftButtons = new ArrayList<>();
         rightButtons = new ArrayList<>();
     }
 
     private void loadWords() {
-        DatabaseService.getInstance().getAllWords(new DatabaseService.DatabaseCallback<>() {
-            @Override
-            public void onCompleted(List<Word> words) {
-                if (words == null || words.isEmpty()) {
-                    Toast.makeText(MatchGameActivity.this,
-                            getString(R.string.no_words_available), Toast.LENGTH_SHORT).show();
-                    return;
-                }
-
-                Collections.shuffle(words);
-                gameWords = new ArrayList<>();
-                for (int i = 0; i < Math.min(TOTAL_PAIRS, words.size()); i++) {
-                    gameWords.add(words.get(i));
-                }
-                setupGame();
-            }
+        model.loadRound(callback -> DatabaseService.getInstance().getAllWords(callback),
+                new DatabaseService.DatabaseCallback<>() {
+                    @Override
+                    public void onCompleted(Boolean ready) {
+                        if (!ready) {
+                            Toast.makeText(MatchGameActivity.this,
+                                    getString(R.string.no_words_available), Toast.LENGTH_SHORT).show();
+                            return;
+                        }
+                        setupGame();
+                        if (engine.isFinished()) showWinDialog();
+                    }
+
+                    @Override
+                    public void onFailed(Exception e) {
+                        Toast.makeText(MatchGameActivity.this,
+                                getString(R.string.failed_load_words, e.getMessage()),
+                                Toast.LENGTH_SHORT).show();
+                    }
+                });
+    }
 
-            @Override
-            public void onFailed(Exception e) {
-                Toast.makeText(MatchGameActivity.this,
-                        getString(R.string.failed_load_words, e.getMessage()),
-                        Toast.LENGTH_SHORT).show();
-            }
-        });
+    // משחק חדש מחלק לוח חדש מאותן מילים - בלי לטעון אותן שוב
+    private void newGame() {
+        if (!engine.isStarted()) {
+            loadWords();
+            return;
+        }
+        engine.restart();
+        setupGame();
     }
 
     private void setupGame() {
-        matchesFound = 0;
-        score = 0;
         selectedLeft = null;
         selectedRight = null;
 
@@ -107,29 +135,23 @@ public class MatchGameActivity extends AppCompatActivity {
         leftButtons.clear();
         rightButtons.clear();
 
-        String learningLanguage = user.getLearningLanguage();
-        if (learningLanguage == null) learningLanguage = "english";
-        boolean isLearningEnglish = learningLanguage.equals("english");
-
-        List<Word> leftWords = new ArrayList<>(gameWords);
-        for (Word word : leftWords) {
-            Button btn = createWordButton(
-                    isLearningEnglish ? word.getHebrew() : word.getEnglish(), word, true);
-            leftButtons.add(btn);
-            leftColumn.addView(btn);
-        }
-
-        List<Word> rightWords = new ArrayList<>(gameWords);
-        Collections.shuffle(rightWords);
-        for (Word word : rightWords) {
-            Button btn = createWordButton(
-                    isLearningEnglish ? word.getEnglish() : word.getHebrew(), word, false);
-            rightButtons.add(btn);
-            rightColumn.addView(btn);
+        // הקלפים הראשונים הם הצד השמאלי לפי הסדר, והשאר התרגומים כבר מעורבבים
+        Question board = engine.current();
+        String[] tiles = board.getOptions();
+        for (int tile = 0; tile < tiles.length; tile++) {
+            boolean isLeft = tile < board.getPairCount();
+            Button btn = createWordButton(tiles[tile], tile, isLeft);
+            if (isLeft) {
+                leftButtons.add(btn);
+                leftColumn.addView(btn);
+            } else {
+                rightButtons.add(btn);
+                rightColumn.addView(btn);
+            }
         }
     }
 
-    private Button createWordButton(String text, Word word, boolean isLeft) {
+    private Button createWordButton(String text, int tile, boolean isLeft) {
         Button button = new Button(this);
         LinearLayout.LayoutParams params = new LinearLayout.LayoutParams(
                 LinearLayout.LayoutParams.MATCH_PARENT,
@@ -137,12 +159,18 @@ public class MatchGameActivity extends AppCompatActivity {
         params.setMargins(8, 8, 8, 8);
         button.setLayoutParams(params);
         button.setText(text);
-        button.setTag(word);
+        button.setTag(tile);
         button.setTextSize(16);
         button.setBackgroundColor(Color.parseColor("#2196F3"));
         button.setTextColor(Color.WHITE);
         button.setPadding(16, 16, 16, 16);
         button.setOnClickListener(v -> handleButtonClick(button, isLeft));
+        if (engine.isTileMatched(tile)) {
+            // זוג שכבר נמצא לפני שהמסך נוצר מחדש
+            button.setBackgroundColor(Color.GREEN);
+            button.setAlpha(0.3f);
+            button.setEnabled(false);
+        }
         return button;
     }
 
@@ -174,10 +202,7 @@ public class MatchGameActivity extends AppCompatActivity {
     }
 
     private void checkMatch() {
-        Word leftWord = (Word) selectedLeft.getTag();
-        Word rightWord = (Word) selectedRight.getTag();
-
-        if (leftWord.getId().equals(rightWord.getId())) {
+        if (engine.matchTiles((int) selectedLeft.getTag(), (int) selectedRight.getTag())) {
             selectedLeft.setBackgroundColor(Color.GREEN);
             selectedRight.setBackgroundColor(Color.GREEN);
             selectedLeft.setAlpha(0.3f);
@@ -185,21 +210,19 @@ public class MatchGameActivity extends AppCompatActivity {
             selectedLeft.setEnabled(false);
             selectedRight.setEnabled(false);
 
-            matchesFound++;
-            score += 10 * rank;
             updateScore();
 
             selectedLeft = null;
             selectedRight = null;
 
-            if (matchesFound == TOTAL_PAIRS) {
-                new Handler().postDelayed(this::showWinDialog, 500);
+            if (engine.isFinished()) {
+                handler.postDelayed(this::showWinDialog, 500);
             }
         } else {
             selectedLeft.setBackgroundColor(Color.RED);
             selectedRight.setBackgroundColor(Color.RED);
 
-            new Handler().postDelayed(() -> {
+            handler.postDelayed(() -> {
                 if (selectedLeft != null) {
                     selectedLeft.setBackgroundColor(Color.parseColor("#2196F3"));
                     selectedLeft = null;
@@ -213,33 +236,22 @@ public class MatchGameActivity extends AppCompatActivity {
     }
 
     private void updateScore() {
-        tvScore.setText(getString(R.string.score, score));
-        tvMatches.setText(getString(R.string.matches_progress, matchesFound, TOTAL_PAIRS));
+        tvScore.setText(getString(R.string.score, engine.getScore()));
+        tvMatches.setText(getString(R.string.matches_progress, engine.getPairsFound(), engine.getSize()));
     }
 
     private void showWinDialog() {
         saveScoreToStats();
         new AlertDialog.Builder(this)
                 .setTitle(getString(R.string.congratulations))
-                .setMessage(getString(R.string.match_congrats_msg, score, rank))
-                .setPositiveButton(getString(R.string.game_play_again), (d, w) -> loadWords())
+                .setMessage(getString(R.string.match_congrats_msg, engine.getScore(), rank))
+                .setPositiveButton(getString(R.string.game_play_again), (d, w) -> newGame())
                 .setNegativeButton(getString(R.string.game_back), (d, w) -> finish())
                 .setCancelable(false)
                 .show();
     }
 
     private void saveScoreToStats() {
-        DatabaseService.getInstance().getStats(user.getId(), new DatabaseService.DatabaseCallback<>() {
-            @Override
-            public void onCompleted(Stats stats) {
-                if (stats == null) stats = new Stats(user.getId(), 1, 0);
-                stats.setTotalScore(stats.getTotalScore() + score);
-                DatabaseService.getInstance().updateStats(stats, null);
-            }
-
-            @Override
-            public void onFailed(Exception e) {
-            }
-        });
+        engine.finish(result -> DatabaseService.getInstance().submitGameResult(user.getId(), result, null));
     }
 }
\ No newline at end of file
@@ -3,6 +3,7 @@ package com.example.wordclash.screens;
 import android.graphics.Color;
 import android.os.Bundle;
 import android.os.Handler;
+import android.os.Looper;
 import android.widget.Button;
 import android.widget.GridLayout;
 import android.widget.TextView;
@@ -10,32 +11,32 @@ import android.widget.Toast;
 
 import androidx.appcompat.app.AlertDialog;
 import androidx.appcompat.app.AppCompatActivity;
+import androidx.lifecycle.ViewModelProvider;
 
 import com.example.wordclash.R;
-import com.example.wordclash.models.Stats;
+import com.example.wordclash.game.GameEngine;
+import com.example.wordclash.game.GameType;
+import com.example.wordclash.game.Question;
 import com.example.wordclash.models.User;
-import com.example.wordclash.models.Word;
 import com.example.wordclash.services.DatabaseService;
 import com.example.wordclash.utils.LanguageUtils;
 import com.example.wordclash.utils.SharedPreferencesUtils;
 
 import java.util.ArrayList;
-import java.util.Collections;
 import java.util.List;
 
 public class MemoryCardsGameActivity extends AppCompatActivity {
 
-    private final int TOTAL_PAIRS = 6;
     private TextView tvScore, tvMatches;
     private GridLayout gridCards;
     private User user;
     private int rank = 1;
-    private List<Word> gameWords;
+    private GameViewModel model;
+    private GameEngine engine;
+    private final Handler handler = new Handler(Looper.getMainLooper());
     private List<Button> cardButtons;
     private Button firstCard = null;
     private Button secondCard = null;
-    private int matchesFound = 0;
-    private int score = 0;
     private boolean isProcessing = false;
 
     @Override
@@ -49,9 +50,32 @@ public class MemoryCardsGameActivity extends AppCompatActivity {
         if (user != null) LanguageUtils.setLayoutDirection(this, user);
 
         rank = getIntent().getIntExtra("RANK", 1);
+        String learningLanguage = user != null ? user.getLearningLanguage() : null;
+        model = new ViewModelProvider(this).get(GameViewModel.class);
+        engine = model.getEngine(GameType.MEMORY_CARDS, rank, learningLanguage == null || learningLanguage.equals("english"));
 
         initializeViews();
-        loadWords();
+
+        if (engine.isStarted()) {
+            // המסך נוצר מחדש (למשל בסיבוב) - הלוח והזוגות שנמצאו עדיין בזיכרון, בלי לטעון שוב
+            setupGame();
+            if (engine.isFinished()) showWinDialog();
+        } else {
+            model.restoreFrom(savedInstanceState);
+            loadWords();
+        }
+    }
+
+    @Override
+    protected void onSaveInstanceState(Bundle outState) {
+        super.onSaveInstanceState(outState);
+        model.save(outState);
+    }
+
+    @Override
+    protected void onDestroy() {
+        handler.removeCallbacksAndMessages(null);
+        super.onDestroy();
     }
 
     private void initializeViews() {
@@ -62,41 +86,45 @@ public class MemoryCardsGameActivity extends AppCompatActivity {
         Button btnNewGame = findViewById(R.id.btnNewGame);
 
         btnBack.setOnClickListener(v -> finish());
-        btnNewGame.setOnClickListener(v -> loadWords());
+        btnNewGame.setOnClickListener(v -> newGame());
 
         cardButtons = new ArrayList<>();
     }
 
     private void loadWords() {
-        DatabaseService.getInstance().getAllWords(new DatabaseService.DatabaseCallback<>() {
-            @Override
-            public void onCompleted(List<Word> words) {
-                if (words == null || words.isEmpty()) {
-                    Toast.makeText(MemoryCardsGameActivity.this,
-                            getString(R.string.no_words_available), Toast.LENGTH_SHORT).show();
-                    return;
-                }
-
-                Collections.shuffle(words);
-                gameWords = new ArrayList<>();
-                for (int i = 0; i < Math.min(TOTAL_PAIRS, words.size()); i++) {
-                    gameWords.add(words.get(i));
-                }
-                setupGame();
-            }
+        model.loadRound(callback -> DatabaseService.getInstance().getAllWords(callback),
+                new DatabaseService.DatabaseCallback<>() {
+                    @Override
+                    public void onCompleted(Boolean ready) {
+                        if (!ready) {
+                            Toast.makeText(MemoryCardsGameActivity.this,
+                                    getString(R.string.no_words_available), Toast.LENGTH_SHORT).show();
+                            return;
+                        }
+                        setupGame();
+                        if (engine.isFinished()) showWinDialog();
+                    }
+
+                    @Override
+                    public void onFailed(Exception e) {
+                        Toast.makeText(MemoryCardsGameActivity.this,
+                                getString(R.string.failed_load_words, e.getMessage()),
+                                Toast.LENGTH_SHORT).show();
+                    }
+                });
+    }
 
-            @Override
-            public void onFailed(Exception e) {
-                Toast.makeText(MemoryCardsGameActivity.this,
-                        getString(R.string.failed_load_words, e.getMessage()),
-                        Toast.LENGTH_SHORT).show();
-            }
-        });
+    // משחק חדש מחלק לוח חדש מאותן מילים - בלי לטעון אותן שוב
+    private void newGame() {
+        if (!engine.isStarted()) {
+            loadWords();
+            return;
+        }
+        engine.restart();
+        setupGame();
     }
 
     private void setupGame() {
-        matchesFound = 0;
-        score = 0;
         firstCard = null;
         secondCard = null;
         isProcessing = false;
@@ -106,24 +134,20 @@ public class MemoryCardsGameActivity extends AppCompatActivity {
         gridCards.removeAllViews();
         cardButtons.clear();
 
-        List<CardData> cards = new ArrayList<>();
-        for (Word word : gameWords) {
-            cards.add(new CardData(word, word.getEnglish(), false));
-            cards.add(new CardData(word, word.getHebrew(), true));
-        }
-        Collections.shuffle(cards);
+        // הקלפים (אנגלית ועברית של כל מילה) כבר מעורבבים במנוע
+        String[] cards = engine.current().getOptions();
 
         gridCards.setColumnCount(4);
-        gridCards.setRowCount((cards.size() + 3) / 4);
+        gridCards.setRowCount((cards.length + 3) / 4);
 
-        for (CardData card : cards) {
+        for (int card = 0; card < cards.length; card++) {
             Button btn = createCardButton(card);
             cardButtons.add(btn);
             gridCards.addView(btn);
         }
     }
 
-    private Button createCardButton(CardData card) {
+    private Button createCardButton(int card) {
         Button button = new Button(this);
         GridLayout.LayoutParams params = new GridLayout.LayoutParams();
         params.width = 0;
@@ -138,6 +162,12 @@ public class MemoryCardsGameActivity extends AppCompatActivity {
         button.setTextColor(Color.WHITE);
         button.setPadding(16, 32, 16, 32);
         button.setOnClickListener(v -> handleCardClick(button));
+        if (engine.isTileMatched(card)) {
+            // זוג שכבר נמצא לפני שהמסך נוצר מחדש
+            button.setText(engine.current().getOptions()[card]);
+            button.setBackgroundColor(Color.GREEN);
+            button.setAlpha(0.3f);
+        }
         return button;
     }
 
@@ -146,8 +176,8 @@ public class MemoryCardsGameActivity extends AppCompatActivity {
         if (button.getAlpha() == 0.3f) return;
         if (button == firstCard) return;
 
-        CardData card = (CardData) button.getTag();
-        button.setText(card.text);
+        Question board = engine.current();
+        button.setText(board.getOptions()[(int) button.getTag()]);
         button.setBackgroundColor(Color.parseColor("#FF6F00"));
 
         if (firstCard == null) {
@@ -160,28 +190,23 @@ public class MemoryCardsGameActivity extends AppCompatActivity {
     }
 
     private void checkMatch() {
-        CardData firstData = (CardData) firstCard.getTag();
-        CardData secondData = (CardData) secondCard.getTag();
-
-        if (firstData.word.getId().equals(secondData.word.getId())) {
+        if (engine.matchTiles((int) firstCard.getTag(), (int) secondCard.getTag())) {
             firstCard.setBackgroundColor(Color.GREEN);
             secondCard.setBackgroundColor(Color.GREEN);
             firstCard.setAlpha(0.3f);
             secondCard.setAlpha(0.3f);
 
-            matchesFound++;
-            score += 10 * rank;
             updateScore();
 
             firstCard = null;
             secondCard = null;
             isProcessing = false;
 
-            if (matchesFound == TOTAL_PAIRS) {
-                new Handler().postDelayed(this::showWinDialog, 500);
+            if (engine.isFinished()) {
+                handler.postDelayed(this::showWinDialog, 500);
             }
         } else {
-            new Handler().postDelayed(() -> {
+            handler.postDelayed(() -> {
                 firstCard.setText("?");
                 secondCard.setText("?");
                 firstCard.setBackgroundColor(Color.parseColor("#2196F3"));
@@ -194,45 +219,22 @@ public class MemoryCardsGameActivity extends AppCompatActivity {
     }
 
     private void updateScore() {
-        tvScore.setText(getString(R.string.score, score));
-        tvMatches.setText(getString(R.string.matches_progress, matchesFound, TOTAL_PAIRS));
+        tvScore.setText(getString(R.string.score, engine.getScore()));
+        tvMatches.setText(getString(R.string.matches_progress, engine.getPairsFound(), engine.getSize()));
     }
 
     private void showWinDialog() {
         saveScoreToStats();
         new AlertDialog.Builder(this)
                 .setTitle(getString(R.string.congratulations))
-                .setMessage(getString(R.string.memory_congrats_msg, score, rank))
-                .setPositiveButton(getString(R.string.game_play_again), (d, w) -> loadWords())
+                .setMessage(getString(R.string.memory_congrats_msg, engine.getScore(), rank))
+                .setPositiveButton(getString(R.string.game_play_again), (d, w) -> newGame())
                 .setNegativeButton(getString(R.string.game_back), (d, w) -> finish())
                 .setCancelable(false)
                 .show();
     }
 
     private void saveScoreToStats() {
-        DatabaseService.getInstance().getStats(user.getId(), new DatabaseService.DatabaseCallback<>() {
-            @Override
-            public void onCompleted(Stats stats) {
-                if (stats == null) stats = new Stats(user.getId(), 1, 0);
-                stats.setTotalScore(stats.getTotalScore() + score);
-                DatabaseService.getInstance().updateStats(stats, null);
-            }
-
-            @Override
-            public void onFailed(Exception e) {
-            }
-        });
-    }
-
-    private static class CardData {
-        final Word word;
-        final String text;
-        final boolean isHebrew;
-
-        CardData(Word word, String text, boolean isHebrew) {
-            this.word = word;
-            this.text = text;
-            this.isHebrew = isHebrew;
-        }
+        engine.finish(result -> DatabaseService.getInstance().submitGameResult(user.getId(), result, null));
     }
 }
\ No newline at end of file
@@ -8,7 +8,6 @@ import android.graphics.Matrix;
 import android.media.ExifInterface;
 import android.net.Uri;
 import android.os.Bundle;
-import android.util.Base64;
 import android.widget.Button;
 import android.widget.ImageView;
 import android.widget.TextView;
@@ -26,10 +25,10 @@ import androidx.core.content.FileProvider;
 import com.example.wordclash.R;
 import com.example.wordclash.models.User;
 import com.example.wordclash.services.DatabaseService;
+import com.example.wordclash.utils.AvatarLoader;
 import com.example.wordclash.utils.LanguageUtils;
 import com.example.wordclash.utils.SharedPreferencesUtils;
 
-import java.io.ByteArrayOutputStream;
 import java.io.File;
 import java.io.InputStream;
 
@@ -43,6 +42,8 @@ public class ProfilePictureActivity extends AppCompatActivity {
     private User currentUser;
     private Uri photoUri;
     private Bitmap currentBitmap;
+    private Bitmap savingBitmap; // מקודד/נשלח כרגע - אסור למחזר אותו עד שהשמירה מסתיימת
+    private boolean currentIsFullSize; // false כשהתמונה הוקטנה לגודל ה-View בפענוח
     private int currentRotation = 0;
 
     // Gallery launcher — unchanged
@@ -121,37 +122,51 @@ public class ProfilePictureActivity extends AppCompatActivity {
     }
 
     private void displayCurrentPicture() {
-        String profilePictureUrl = currentUser.getProfilePictureUrl();
+        String avatarHash = currentUser.getAvatarHash();
 
-        if (profilePictureUrl != null && !profilePictureUrl.isEmpty()) {
-            ivProfilePicture.setVisibility(ImageView.VISIBLE);
-            tvUserInitial.setVisibility(TextView.GONE);
-
-            try {
-                byte[] decodedString = Base64.decode(profilePictureUrl, Base64.DEFAULT);
-                Bitmap decodedByte = BitmapFactory.decodeByteArray(decodedString, 0, decodedString.length);
+        if (avatarHash == null || avatarHash.isEmpty()) {
+            showNoPicture();
+            return;
+        }
 
-                // תיקון: שחרור בטוח של הביטמאפ הקודם במידה והוא קיים ושונה
-                if (currentBitmap != null && currentBitmap != decodedByte) {
-                    ivProfilePicture.setImageBitmap(null);
-                    currentBitmap.recycle();
-                }
+        AvatarLoader.getInstance().load(currentUser.getId(), avatarHash, ivProfilePicture,
+                new DatabaseService.DatabaseCallback<>() {
+                    @Override
+                    public void onCompleted(Bitmap bitmap) {
+                        if (bitmap == null) {
+                            showNoPicture();
+                            return;
+                        }
+
+                        // תיקון: שחרור בטוח של הביטמאפ הקודם במידה והוא קיים ושונה
+                        if (currentBitmap != bitmap) {
+                            releaseCurrentBitmap();
+                        }
+
+                        currentBitmap = bitmap;
+                        currentIsFullSize = false;
+                        displayBitmap(bitmap);
+                        showPictureControls();
+                    }
+
+                    @Override
+                    public void onFailed(Exception e) {
+                        showNoPicture();
+                    }
+                });
+    }
 
-                currentBitmap = decodedByte;
-                ivProfilePicture.setImageBitmap(decodedByte);
-            } catch (Exception e) {
-                showDefaultAvatar();
-            }
+    private void showPictureControls() {
+        btnDeletePicture.setVisibility(Button.VISIBLE);
+        btnDeletePicture.setEnabled(true);
+        btnDeletePicture.setAlpha(1.0f);
+        showRotationControls();
+    }
 
-            btnDeletePicture.setVisibility(Button.VISIBLE);
-            btnDeletePicture.setEnabled(true);
-            btnDeletePicture.setAlpha(1.0f);
-            showRotationControls();
-        } else {
-            showDefaultAvatar();
-            btnDeletePicture.setVisibility(Button.GONE);
-            hideRotationControls();
-        }
+    private void showNoPicture() {
+        showDefaultAvatar();
+        btnDeletePicture.setVisibility(Button.GONE);
+        hideRotationControls();
     }
 
     private void showDefaultAvatar() {
@@ -247,16 +262,11 @@ public class ProfilePictureActivity extends AppCompatActivity {
             Bitmap resized = resizeBitmap(orientedBitmap, 512, 512);
             if (resized != orientedBitmap) orientedBitmap.recycle();
 
-            // תיקון: ניקוי ה-ImageView מהביטמאפ הנוכחי *לפני* שמבצעים לו recycle() כדי למנוע קריסת Canvas
-            if (currentBitmap != null) {
-                ivProfilePicture.setImageBitmap(null);
-                currentBitmap.recycle();
-            }
+            releaseCurrentBitmap();
             currentBitmap = resized;
+            currentIsFullSize = true;
             currentRotation = 0;
 
-            String base64Image = bitmapToBase64(currentBitmap);
-            currentUser.setProfilePictureUrl(base64Image);
             saveProfilePicture();
 
         } catch (OutOfMemoryError e) {
@@ -307,25 +317,51 @@ public class ProfilePictureActivity extends AppCompatActivity {
             Toast.makeText(this, R.string.no_image_to_rotate, Toast.LENGTH_SHORT).show();
             return;
         }
+        if (currentIsFullSize) {
+            rotate(currentBitmap);
+            return;
+        }
 
+        // התמונה המוצגת הוקטנה לגודל ה-View - מסובבים את התמונה השמורה בגודל המלא, כדי לא לשמור במקומה גרסה מטושטשת
+        btnRotate.setEnabled(false);
+        AvatarLoader.getInstance().load(currentUser.getId(), currentUser.getAvatarHash(),
+                AvatarLoader.FULL_SIZE, AvatarLoader.FULL_SIZE, new DatabaseService.DatabaseCallback<>() {
+                    @Override
+                    public void onCompleted(Bitmap fullBitmap) {
+                        if (isFinishing() || isDestroyed()) return;
+                        btnRotate.setEnabled(true);
+                        if (fullBitmap == null) {
+                            Toast.makeText(ProfilePictureActivity.this, R.string.no_image_to_rotate, Toast.LENGTH_SHORT).show();
+                            return;
+                        }
+                        rotate(fullBitmap);
+                    }
+
+                    @Override
+                    public void onFailed(Exception e) {
+                        if (isFinishing() || isDestroyed()) return;
+                        btnRotate.setEnabled(true);
+                        Toast.makeText(ProfilePictureActivity.this, R.string.failed_load_image, Toast.LENGTH_SHORT).show();
+                    }
+                });
+    }
+
+    private void rotate(Bitmap source) {
         currentRotation = (currentRotation + 90) % 360;
 
         Matrix matrix = new Matrix();
         matrix.postRotate(90);
 
         Bitmap rotated = Bitmap.createBitmap(
-                currentBitmap, 0, 0,
-                currentBitmap.getWidth(), currentBitmap.getHeight(), matrix, true);
+                source, 0, 0,
+                source.getWidth(), source.getHeight(), matrix, true);
 
-        // תיקון: התנתקות מה-ImageView לפני המיחזור של הביטמאפ הישן במסך הסיבוב
-        ivProfilePicture.setImageBitmap(null);
-        currentBitmap.recycle();
+        releaseCurrentBitmap();
         currentBitmap = rotated;
+        currentIsFullSize = true;
 
         displayBitmap(currentBitmap);
 
-        String base64Image = bitmapToBase64(currentBitmap);
-        currentUser.setProfilePictureUrl(base64Image);
         saveProfilePicture();
     }
 
@@ -344,6 +380,16 @@ public class ProfilePictureActivity extends AppCompatActivity {
         return inSampleSize;
     }
 
+    // תיקון: ניקוי ה-ImageView מהביטמאפ הנוכחי *לפני* שמבצעים לו recycle() כדי למנוע קריסת Canvas.
+    // ביטמאפ שנמצא ב-AvatarLoader משותף למסכים אחרים, וביטמאפ שעדיין נשמר נקרא ברקע - את אלה לא ממחזרים.
+    private void releaseCurrentBitmap() {
+        if (currentBitmap == null) return;
+        ivProfilePicture.setImageBitmap(null);
+        if (currentBitmap != savingBitmap && !AvatarLoader.getInstance().isCached(currentBitmap)) {
+            currentBitmap.recycle();
+        }
+    }
+
     private void displayBitmap(Bitmap bitmap) {
         ivProfilePicture.setVisibility(ImageView.VISIBLE);
         tvUserInitial.setVisibility(TextView.GONE);
@@ -372,25 +418,44 @@ public class ProfilePictureActivity extends AppCompatActivity {
         return bitmap;
     }
 
-    private String bitmapToBase64(Bitmap bitmap) {
-        ByteArrayOutputStream byteArrayOutputStream = new ByteArrayOutputStream();
-        bitmap.compress(Bitmap.CompressFormat.JPEG, 80, byteArrayOutputStream);
-        byte[] byteArray = byteArrayOutputStream.toByteArray();
-        return Base64.encodeToString(byteArray, Base64.DEFAULT);
+    // הקידוד (WebP, בגודל מלא ובגודל קטן) רץ ב-AvatarLoader על thread נפרד, ורק אחריו מעלים
+    private void saveProfilePicture() {
+        Bitmap bitmap = currentBitmap;
+        savingBitmap = bitmap;
+
+        AvatarLoader.getInstance().encode(bitmap, new DatabaseService.DatabaseCallback<>() {
+            @Override
+            public void onCompleted(AvatarLoader.EncodedAvatar encoded) {
+                uploadProfilePicture(bitmap, encoded);
+            }
+
+            @Override
+            public void onFailed(Exception e) {
+                if (savingBitmap == bitmap) savingBitmap = null;
+                Toast.makeText(ProfilePictureActivity.this,
+                        getString(R.string.image_process_failed, e.getMessage()), Toast.LENGTH_SHORT).show();
+            }
+        });
     }
 
-    private void saveProfilePicture() {
-        DatabaseService.getInstance().updateUser(currentUser, new DatabaseService.DatabaseCallback<>() {
+    private void uploadProfilePicture(Bitmap bitmap, AvatarLoader.EncodedAvatar encoded) {
+        DatabaseService.getInstance().saveAvatar(currentUser.getId(), encoded.full, encoded.thumbnail, new DatabaseService.DatabaseCallback<>() {
             @Override
-            public void onCompleted(Void unused) {
+            public void onCompleted(String avatarHash) {
+                if (savingBitmap == bitmap) savingBitmap = null;
+                currentUser.setAvatarHash(avatarHash);
                 SharedPreferencesUtils.saveUser(ProfilePictureActivity.this, currentUser);
+                // המסך הראשי יציג את התמונה החדשה מה-cache, בלי להוריד ולפענח אותה שוב
+                AvatarLoader.getInstance().put(currentUser.getId(), avatarHash, bitmap, encoded);
                 Toast.makeText(ProfilePictureActivity.this,
                         R.string.profile_picture_updated, Toast.LENGTH_SHORT).show();
-                displayCurrentPicture();
+                displayBitmap(currentBitmap);
+                showPictureControls();
             }
 
             @Override
             public void onFailed(Exception e) {
+                if (savingBitmap == bitmap) savingBitmap = null;
                 Toast.makeText(ProfilePictureActivity.this,
                         getString(R.string.profile_picture_update_failed, e.getMessage()), Toast.LENGTH_SHORT).show();
             }
@@ -407,15 +472,16 @@ public class ProfilePictureActivity extends AppCompatActivity {
     }
 
     private void deletePicture() {
-        currentUser.setProfilePictureUrl(null);
-
-        DatabaseService.getInstance().updateUser(currentUser, new DatabaseService.DatabaseCallback<>() {
+        DatabaseService.getInstance().deleteAvatar(currentUser.getId(), new DatabaseService.DatabaseCallback<>() {
             @Override
             public void onCompleted(Void unused) {
+                currentUser.setAvatarHash(null);
                 SharedPreferencesUtils.saveUser(ProfilePictureActivity.this, currentUser);
                 Toast.makeText(ProfilePictureActivity.this,
                         R.string.profile_picture_removed, Toast.LENGTH_SHORT).show();
-                displayCurrentPicture();
+                releaseCurrentBitmap();
+                currentBitmap = null;
+                showNoPicture();
             }
 
             @Override
@@ -425,4 +491,4 @@ public class ProfilePictureActivity extends AppCompatActivity {
             }
         });
     }
-}
\ No newline at end of file
+}
@@ -1,8 +1,8 @@
 package com.example.wordclash.screens;
 
 import android.os.Bundle;
-import android.os.CountDownTimer;
 import android.os.Handler;
+import android.os.Looper;
 import android.widget.Button;
 import android.widget.ProgressBar;
 import android.widget.TextView;
@@ -11,21 +11,24 @@ import android.widget.Toast;
 import androidx.appcompat.app.AlertDialog;
 import androidx.appcompat.app.AppCompatActivity;
 import androidx.core.content.ContextCompat;
+import androidx.lifecycle.ViewModelProvider;
 
 import com.example.wordclash.R;
+import com.example.wordclash.game.GameEngine;
+import com.example.wordclash.game.GameResult;
+import com.example.wordclash.game.GameType;
+import com.example.wordclash.game.Question;
 import com.example.wordclash.models.Stats;
 import com.example.wordclash.models.User;
-import com.example.wordclash.models.Word;
 import com.example.wordclash.services.DatabaseService;
+import com.example.wordclash.utils.FrameCountdown;
 import com.example.wordclash.utils.LanguageUtils;
 import com.example.wordclash.utils.SharedPreferencesUtils;
 
-import java.util.ArrayList;
-import java.util.Collections;
-import java.util.List;
-
 public class SpeedQuizGameActivity extends AppCompatActivity {
 
+    private static final long QUESTION_TIME_MS = 10000;
+
     private TextView tvQuestion, tvTimer, tvScore, tvProgress;
     private Button btnOption1;
     private Button btnOption2;
@@ -34,17 +37,12 @@ public class SpeedQuizGameActivity extends AppCompatActivity {
     private ProgressBar progressBar;
 
     private User user;
-    private Stats stats;
     private int currentRank;
-    private List<Word> allWords;
-    private List<Word> gameWords;
-    private int currentQuestionIndex = 0;
-    private int score = 0;
-    private int totalQuestions;
-    private int pointsPerQuestion;
-    private int passingScore;
-    private CountDownTimer timer;
-    private boolean answerSelected = false;
+    private GameViewModel model;
+    private GameEngine engine;
+    private GameResult result;
+    private FrameCountdown countdown;
+    private final Handler handler = new Handler(Looper.getMainLooper());
 
     @Override
     protected void onCreate(Bundle savedInstanceState) {
@@ -72,8 +70,28 @@ public class SpeedQuizGameActivity extends AppCompatActivity {
         int colorWrong = ContextCompat.getColor(this, R.color.game_wrong);
         int colorDefault = ContextCompat.getColor(this, R.color.info);
 
+        String learningLanguage = user.getLearningLanguage();
+        boolean learningEnglish = learningLanguage == null || learningLanguage.equals("english");
+        model = new ViewModelProvider(this).get(GameViewModel.class);
+        engine = model.getEngine(GameType.SPEED_QUIZ, currentRank, learningEnglish);
+
         initializeViews();
-        loadStatsAndWords();
+
+        if (engine.isStarted()) {
+            // המסך נוצר מחדש (למשל בסיבוב) - הסבב והזמן שנשאר עדיין בזיכרון, בלי לטעון שוב
+            engine.advanceIfAnswered();
+            updateScore();
+            showQuestion();
+        } else {
+            model.restoreFrom(savedInstanceState);
+            loadWords();
+        }
+    }
+
+    @Override
+    protected void onSaveInstanceState(Bundle outState) {
+        super.onSaveInstanceState(outState);
+        model.save(outState);
     }
 
     private void initializeViews() {
@@ -91,63 +109,34 @@ public class SpeedQuizGameActivity extends AppCompatActivity {
         btnOption2.setOnClickListener(v -> checkAnswer(btnOption2));
         btnOption3.setOnClickListener(v -> checkAnswer(btnOption3));
         btnOption4.setOnClickListener(v -> checkAnswer(btnOption4));
-    }
 
-    private void loadStatsAndWords() {
-        DatabaseService.getInstance().getStats(user.getId(), new DatabaseService.DatabaseCallback<>() {
-            @Override
-            public void onCompleted(Stats loadedStats) {
-                stats = loadedStats;
-                if (stats == null) {
-                    Toast.makeText(SpeedQuizGameActivity.this, getString(R.string.error_loading), Toast.LENGTH_SHORT).show();
-                    finish();
-                    return;
-                }
-
-                totalQuestions = getQuestionsForRank(currentRank);
-                pointsPerQuestion = 100 / totalQuestions;
-                passingScore = 80;
-
-                loadWords();
-            }
-
-            @Override
-            public void onFailed(Exception e) {
-                Toast.makeText(SpeedQuizGameActivity.this, getString(R.string.error_loading), Toast.LENGTH_SHORT).show();
-                finish();
-            }
-        });
-    }
-
-    private int getQuestionsForRank(int rank) {
-        switch (rank) {
-            case 1:
-                return 10;
-            case 2:
-                return 13;
-            case 3:
-                return 16;
-            case 4:
-                return 20;
-            case 5:
-                return 25;
-            default:
-                return 10;
-        }
+        countdown = new FrameCountdown(progressBar, tvTimer, (int) (QUESTION_TIME_MS / 1000), this::onTimeUp);
     }
 
     private void loadWords() {
-        DatabaseService.getInstance().getWordsByRank(currentRank, new DatabaseService.DatabaseCallback<>() {
+        String userId = user.getId();
+        int rank = currentRank;
+        int roundSize = engine.getRoundSize();
+        // סבב שנשמר לפני שהתהליך נסגר: צריך את אותן מילים בדיוק, אז טוענים את כל מילות הדרגה
+        boolean restoring = model.hasPendingSnapshot();
+
+        model.loadRound(callback -> {
+            if (restoring) {
+                DatabaseService.getInstance().getWordsByRank(rank, callback);
+            } else {
+                // רק המילים של המשחק יורדות מהשרת, והן משמשות גם כתשובות השגויות
+                DatabaseService.getInstance().getRandomWords(rank, roundSize, null, callback);
+            }
+        }, new DatabaseService.DatabaseCallback<>() {
             @Override
-            public void onCompleted(List<Word> words) {
-                if (words == null || words.isEmpty()) {
+            public void onCompleted(Boolean ready) {
+                if (!ready) {
                     Toast.makeText(SpeedQuizGameActivity.this, getString(R.string.no_words_found), Toast.LENGTH_SHORT).show();
                     finish();
                     return;
                 }
 
-                allWords = words;
-                selectRandomWords();
+                updateScore();
                 showQuestion();
             }
 
@@ -159,244 +148,120 @@ public class SpeedQuizGameActivity extends AppCompatActivity {
         });
     }
 
-    private void selectRandomWords() {
-        gameWords = new ArrayList<>();
-        List<Word> shuffled = new ArrayList<>(allWords);
-        Collections.shuffle(shuffled);
-
-        for (int i = 0; i < Math.min(totalQuestions, shuffled.size()); i++) {
-            gameWords.add(shuffled.get(i));
-        }
-    }
-
     private void showQuestion() {
-        if (currentQuestionIndex >= gameWords.size()) {
+        if (engine.isFinished()) {
             endGame();
             return;
         }
 
-        answerSelected = false;
-        Word currentWord = gameWords.get(currentQuestionIndex);
-
-        String learningLanguage = user.getLearningLanguage();
-        if (learningLanguage == null) learningLanguage = "english";
-
-        boolean showHebrewQuestion = learningLanguage.equals("english");
-
-        if (showHebrewQuestion) {
-            tvQuestion.setText(currentWord.getHebrew());
-            setupOptions(currentWord, false);
-        } else {
-            tvQuestion.setText(currentWord.getEnglish());
-            setupOptions(currentWord, true);
-        }
+        // השאלה והתשובות כבר הוכנו במנוע בתחילת הסבב
+        Question question = engine.current();
+        tvQuestion.setText(question.getPrompt());
+        setupOptions(question);
 
         updateProgress();
-        startTimer();
+        // אחרי שהמסך נוצר מחדש השעון ממשיך מהזמן שנשאר לשאלה
+        long remaining = model.getTimerRemainingMs();
+        startTimer(remaining > 0 ? remaining : QUESTION_TIME_MS);
     }
 
-    private void setupOptions(Word correctWord, boolean showHebrew) {
-        List<Word> options = new ArrayList<>();
-        options.add(correctWord);
-
-        List<Word> otherWords = new ArrayList<>(allWords);
-        otherWords.remove(correctWord);
-        Collections.shuffle(otherWords);
-
-        for (int i = 0; i < Math.min(3, otherWords.size()); i++) {
-            options.add(otherWords.get(i));
-        }
-
-        Collections.shuffle(options);
-
+    private void setupOptions(Question question) {
+        String[] options = question.getOptions();
         Button[] buttons = {btnOption1, btnOption2, btnOption3, btnOption4};
-        for (int i = 0; i < buttons.length && i < options.size(); i++) {
-            Word word = options.get(i);
-            String text = showHebrew ? word.getHebrew() : word.getEnglish();
-            buttons[i].setText(text);
-            buttons[i].setTag(word);
+        for (int i = 0; i < buttons.length && i < options.length; i++) {
+            buttons[i].setText(options[i]);
+            buttons[i].setTag(i);
             buttons[i].setBackgroundTintList(ContextCompat.getColorStateList(this, R.color.info));
             buttons[i].setEnabled(true);
         }
     }
 
-    private void startTimer() {
-        if (timer != null) {
-            timer.cancel();
-        }
-
-        progressBar.setMax(10);
-        progressBar.setProgress(10);
-
-        timer = new CountDownTimer(10000, 100) {
-            @Override
-            public void onTick(long millisUntilFinished) {
-                int secondsLeft = (int) (millisUntilFinished / 1000);
-                tvTimer.setText(String.valueOf(secondsLeft + 1));
-                progressBar.setProgress((int) (millisUntilFinished / 1000));
-            }
+    private void startTimer(long remainingMs) {
+        countdown.start(QUESTION_TIME_MS, remainingMs);
+    }
 
-            @Override
-            public void onFinish() {
-                tvTimer.setText("0");
-                if (!answerSelected) {
-                    showCorrectAnswer();
-                    new Handler().postDelayed(() -> nextQuestion(), 2000);
-                }
-            }
-        }.start();
+    private void onTimeUp() {
+        model.setTimerRemainingMs(-1);
+        if (!engine.isAnswered()) {
+            engine.timeout();
+            showCorrectAnswer();
+            handler.postDelayed(this::nextQuestion, 2000);
+        }
     }
 
     private void checkAnswer(Button selectedButton) {
-        if (answerSelected) return;
+        if (engine.isAnswered()) return;
+        countdown.cancel();
+        model.setTimerRemainingMs(-1);
 
-        answerSelected = true;
-        timer.cancel();
-
-        Word selectedWord = (Word) selectedButton.getTag();
-        Word correctWord = gameWords.get(currentQuestionIndex);
-
-        if (selectedWord.getId().equals(correctWord.getId())) {
+        if (engine.answerChoice((int) selectedButton.getTag())) {
             selectedButton.setBackgroundTintList(ContextCompat.getColorStateList(this, R.color.game_correct));
-            score += pointsPerQuestion;
             updateScore();
         } else {
             selectedButton.setBackgroundTintList(ContextCompat.getColorStateList(this, R.color.game_wrong));
             showCorrectAnswer();
         }
 
-        new Handler().postDelayed(this::nextQuestion, 2000);
+        handler.postDelayed(this::nextQuestion, 2000);
     }
 
     private void showCorrectAnswer() {
-        Word correctWord = gameWords.get(currentQuestionIndex);
         Button[] buttons = {btnOption1, btnOption2, btnOption3, btnOption4};
-
-        for (Button button : buttons) {
-            Word word = (Word) button.getTag();
-            if (word != null && word.getId().equals(correctWord.getId())) {
-                button.setBackgroundTintList(ContextCompat.getColorStateList(this, R.color.game_correct));
-                break;
-            }
-        }
+        int correct = engine.current().getCorrectOption();
+        buttons[correct].setBackgroundTintList(ContextCompat.getColorStateList(this, R.color.game_correct));
     }
 
     private void nextQuestion() {
-        currentQuestionIndex++;
+        engine.next();
         showQuestion();
     }
 
     private void updateProgress() {
         tvProgress.setText(getString(R.string.question_progress,
-                currentQuestionIndex + 1, gameWords.size()));
+                engine.getIndex() + 1, engine.getSize()));
     }
 
     private void updateScore() {
-        tvScore.setText(getString(R.string.score, score));
+        tvScore.setText(getString(R.string.score, engine.getScore()));
     }
 
     private void endGame() {
-        if (timer != null) {
-            timer.cancel();
-        }
+        countdown.cancel();
 
-        stats.setTotalScore(stats.getTotalScore() + score);
-
-        if (score >= passingScore) {
-            DatabaseService.getInstance().incrementPracticeForRank(user.getId(), currentRank, new DatabaseService.DatabaseCallback<>() {
-                @Override
-                public void onCompleted(Void unused) {
-                    checkAndUpdateRank();
-                }
+        if (engine.isSubmitted()) {
+            // המסך נוצר מחדש אחרי שהתוצאה כבר נשלחה - רק מציגים אותה שוב
+            result = engine.finish(null);
+            showResultDialog();
+            return;
+        }
 
+        // ניקוד, תרגול ועלייה בדרגה נשמרים יחד בכתיבה אחת
+        engine.finish(finished -> {
+            result = finished;
+            DatabaseService.getInstance().submitGameResult(user.getId(), finished, new DatabaseService.DatabaseCallback<>() {
                 @Override
-                public void onFailed(Exception e) {
-                    Toast.makeText(SpeedQuizGameActivity.this, getString(R.string.error_saving), Toast.LENGTH_SHORT).show();
-                    showResultDialog();
-                }
-            });
-        } else {
-            DatabaseService.getInstance().updateStats(stats, new DatabaseService.DatabaseCallback<>() {
-                @Override
-                public void onCompleted(Void unused) {
+                public void onCompleted(Stats updatedStats) {
+                    if (isFinishing() || isDestroyed()) return;
                     showResultDialog();
                 }
 
                 @Override
                 public void onFailed(Exception e) {
+                    if (isFinishing() || isDestroyed()) return;
                     Toast.makeText(SpeedQuizGameActivity.this, getString(R.string.error_saving), Toast.LENGTH_SHORT).show();
                     showResultDialog();
                 }
             });
-        }
-    }
-
-    private void checkAndUpdateRank() {
-        DatabaseService.getInstance().getRankProgress(user.getId(), currentRank, new DatabaseService.DatabaseCallback<>() {
-            @Override
-            public void onCompleted(DatabaseService.RankProgressData progress) {
-                if (progress != null) {
-                    int required = getRequiredPracticeForRank(currentRank);
-                    if (progress.practiceCount >= required && currentRank < 5) {
-                        stats.setRank(currentRank + 1);
-                    }
-                }
-
-                DatabaseService.getInstance().updateStats(stats, new DatabaseService.DatabaseCallback<>() {
-                    @Override
-                    public void onCompleted(Void unused) {
-                        showResultDialog();
-                    }
-
-                    @Override
-                    public void onFailed(Exception e) {
-                        Toast.makeText(SpeedQuizGameActivity.this, getString(R.string.error_saving), Toast.LENGTH_SHORT).show();
-                        showResultDialog();
-                    }
-                });
-            }
-
-            @Override
-            public void onFailed(Exception e) {
-                DatabaseService.getInstance().updateStats(stats, new DatabaseService.DatabaseCallback<>() {
-                    @Override
-                    public void onCompleted(Void unused) {
-                        showResultDialog();
-                    }
-
-                    @Override
-                    public void onFailed(Exception ex) {
-                        showResultDialog();
-                    }
-                });
-            }
         });
     }
 
-    private int getRequiredPracticeForRank(int rank) {
-        switch (rank) {
-            case 1:
-                return 15;
-            case 2:
-                return 25;
-            case 3:
-                return 40;
-            case 4:
-                return 60;
-            case 5:
-                return Integer.MAX_VALUE;
-            default:
-                return 15;
-        }
-    }
-
     private void showResultDialog() {
         String message;
-        if (score >= passingScore) {
-            message = getString(R.string.your_score, score, 100)
+        if (result.isPassed()) {
+            message = getString(R.string.your_score, result.getScore(), result.getMaxScore())
                     + "\n\n" + getString(R.string.congratulations);
         } else {
-            message = getString(R.string.your_score, score, 100)
+            message = getString(R.string.your_score, result.getScore(), result.getMaxScore())
                     + "\n\n" + getString(R.string.you_failed);
         }
 
@@ -408,11 +273,27 @@ public class SpeedQuizGameActivity extends AppCompatActivity {
                 .show();
     }
 
+    // השעון עוצר כשהמסך לא בחזית, והזמן שנשאר נשמר ב-ViewModel למקרה שהמסך ייווצר מחדש
+    @Override
+    protected void onPause() {
+        super.onPause();
+        if (countdown == null) return;
+        countdown.pause();
+        if (countdown.isRunning()) model.setTimerRemainingMs(countdown.getRemainingMs());
+    }
+
+    @Override
+    protected void onResume() {
+        super.onResume();
+        if (countdown != null) countdown.resume();
+    }
+
     @Override
     protected void onDestroy() {
         super.onDestroy();
-        if (timer != null) {
-            timer.cancel();
+        handler.removeCallbacksAndMessages(null);
+        if (countdown != null) {
+            countdown.cancel();
         }
     }
 }
\ No newline at end of file
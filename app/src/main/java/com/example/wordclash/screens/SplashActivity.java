@@ -120,6 +120,9 @@ public class SplashActivity extends AppCompatActivity {
             if (SharedPreferencesUtils.isUserLoggedIn(SplashActivity.this)) {
                 User oldUser = SharedPreferencesUtils.getUser(SplashActivity.this);
 
+                // מיגרציות חד-פעמיות (תמונות פרופיל, גרסאות ואינדקס מילים, טבלת מובילים והיסטוגרמת ניקוד)
+                DatabaseService.getInstance().runPendingMigrations();
+
                 DatabaseService.getInstance().getUser(oldUser.getId(), new DatabaseService.DatabaseCallback<>() {
                     @Override
                     public void onCompleted(User newUser) {
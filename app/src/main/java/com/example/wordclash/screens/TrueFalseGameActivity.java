@@ -3,37 +3,32 @@ package com.example.wordclash.screens;
 import android.graphics.Color;
 import android.os.Bundle;
 import android.os.Handler;
+import android.os.Looper;
 import android.widget.Button;
 import android.widget.TextView;
 import android.widget.Toast;
 
 import androidx.appcompat.app.AlertDialog;
 import androidx.appcompat.app.AppCompatActivity;
+import androidx.lifecycle.ViewModelProvider;
 
 import com.example.wordclash.R;
-import com.example.wordclash.models.Stats;
+import com.example.wordclash.game.GameEngine;
+import com.example.wordclash.game.GameType;
 import com.example.wordclash.models.User;
-import com.example.wordclash.models.Word;
 import com.example.wordclash.services.DatabaseService;
 import com.example.wordclash.utils.LanguageUtils;
 import com.example.wordclash.utils.SharedPreferencesUtils;
 
-import java.util.Collections;
-import java.util.List;
-import java.util.Random;
-
 public class TrueFalseGameActivity extends AppCompatActivity {
 
-    private final int TOTAL_QUESTIONS = 15;
     private TextView tvQuestion, tvProgress, tvScore;
     private Button btnTrue, btnFalse;
     private User user;
     private int rank = 1;
-    private List<Word> allWords;
-    private int currentQuestion = 0;
-    private int score = 0;
-    private boolean answerSelected = false;
-    private boolean isCorrect;
+    private GameViewModel model;
+    private GameEngine engine;
+    private final Handler handler = new Handler(Looper.getMainLooper());
 
     @Override
     protected void onCreate(Bundle savedInstanceState) {
@@ -46,9 +41,33 @@ public class TrueFalseGameActivity extends AppCompatActivity {
         if (user != null) LanguageUtils.setLayoutDirection(this, user);
 
         rank = getIntent().getIntExtra("RANK", 1);
+        String learningLanguage = user != null ? user.getLearningLanguage() : null;
+        model = new ViewModelProvider(this).get(GameViewModel.class);
+        engine = model.getEngine(GameType.TRUE_FALSE, rank, learningLanguage == null || learningLanguage.equals("english"));
 
         initializeViews();
-        loadWords();
+
+        if (engine.isStarted()) {
+            // המסך נוצר מחדש (למשל בסיבוב) - הסבב עדיין בזיכרון, בלי לטעון שוב
+            engine.advanceIfAnswered();
+            updateScore();
+            showNextQuestion();
+        } else {
+            model.restoreFrom(savedInstanceState);
+            loadWords();
+        }
+    }
+
+    @Override
+    protected void onSaveInstanceState(Bundle outState) {
+        super.onSaveInstanceState(outState);
+        model.save(outState);
+    }
+
+    @Override
+    protected void onDestroy() {
+        handler.removeCallbacksAndMessages(null);
+        super.onDestroy();
     }
 
     private void initializeViews() {
@@ -63,83 +82,54 @@ public class TrueFalseGameActivity extends AppCompatActivity {
     }
 
     private void loadWords() {
-        DatabaseService.getInstance().getAllWords(new DatabaseService.DatabaseCallback<>() {
-            @Override
-            public void onCompleted(List<Word> words) {
-                if (words == null || words.size() < 10) {
-                    Toast.makeText(TrueFalseGameActivity.this,
-                            getString(R.string.no_suitable_words), Toast.LENGTH_SHORT).show();
-                    finish();
-                    return;
-                }
-                allWords = words;
-                Collections.shuffle(allWords);
-                showNextQuestion();
-            }
-
-            @Override
-            public void onFailed(Exception e) {
-                Toast.makeText(TrueFalseGameActivity.this,
-                        getString(R.string.failed_load_words, e.getMessage()),
-                        Toast.LENGTH_SHORT).show();
-                finish();
-            }
-        });
+        model.loadRound(callback -> DatabaseService.getInstance().getAllWords(callback),
+                new DatabaseService.DatabaseCallback<>() {
+                    @Override
+                    public void onCompleted(Boolean ready) {
+                        if (!ready) {
+                            Toast.makeText(TrueFalseGameActivity.this,
+                                    getString(R.string.no_suitable_words), Toast.LENGTH_SHORT).show();
+                            finish();
+                            return;
+                        }
+                        updateScore();
+                        showNextQuestion();
+                    }
+
+                    @Override
+                    public void onFailed(Exception e) {
+                        Toast.makeText(TrueFalseGameActivity.this,
+                                getString(R.string.failed_load_words, e.getMessage()),
+                                Toast.LENGTH_SHORT).show();
+                        finish();
+                    }
+                });
     }
 
     private void showNextQuestion() {
-        if (currentQuestion >= TOTAL_QUESTIONS) {
+        if (engine.isFinished()) {
             showResults();
             return;
         }
 
-        answerSelected = false;
         btnTrue.setEnabled(true);
         btnFalse.setEnabled(true);
         btnTrue.setBackgroundColor(Color.parseColor("#43A047"));
         btnFalse.setBackgroundColor(Color.parseColor("#E53935"));
 
-        Word correctWord = allWords.get(currentQuestion % allWords.size());
-
-        Random random = new Random();
-        isCorrect = random.nextBoolean();
-
-        String learningLanguage = user.getLearningLanguage();
-        if (learningLanguage == null) learningLanguage = "english";
-
-        String displayEnglish, displayHebrew;
-        if (learningLanguage.equals("english")) {
-            displayHebrew = correctWord.getHebrew();
-            if (isCorrect) {
-                displayEnglish = correctWord.getEnglish();
-            } else {
-                Word wrongWord = allWords.get((currentQuestion + 1) % allWords.size());
-                displayEnglish = wrongWord.getEnglish();
-            }
-            tvQuestion.setText(displayHebrew + " = " + displayEnglish);
-        } else {
-            displayEnglish = correctWord.getEnglish();
-            if (isCorrect) {
-                displayHebrew = correctWord.getHebrew();
-            } else {
-                Word wrongWord = allWords.get((currentQuestion + 1) % allWords.size());
-                displayHebrew = wrongWord.getHebrew();
-            }
-            tvQuestion.setText(displayEnglish + " = " + displayHebrew);
-        }
+        // הצמד (נכון או לא) הוגרל כבר בתחילת הסבב
+        tvQuestion.setText(engine.current().getPrompt());
 
         updateProgress();
     }
 
     private void checkAnswer(boolean userAnswer) {
-        if (answerSelected) return;
-        answerSelected = true;
+        if (engine.isAnswered()) return;
 
         btnTrue.setEnabled(false);
         btnFalse.setEnabled(false);
 
-        if (userAnswer == isCorrect) {
-            score += 10 * rank;
+        if (engine.answerTrueFalse(userAnswer)) {
             if (userAnswer) btnTrue.setBackgroundColor(Color.GREEN);
             else btnFalse.setBackgroundColor(Color.GREEN);
         } else {
@@ -154,34 +144,34 @@ public class TrueFalseGameActivity extends AppCompatActivity {
 
         updateScore();
 
-        new Handler().postDelayed(() -> {
-            currentQuestion++;
+        handler.postDelayed(() -> {
+            engine.next();
             showNextQuestion();
         }, 1000);
     }
 
     private void updateProgress() {
-        tvProgress.setText(getString(R.string.question_progress, currentQuestion + 1, TOTAL_QUESTIONS));
+        tvProgress.setText(getString(R.string.question_progress, engine.getIndex() + 1, engine.getSize()));
     }
 
     private void updateScore() {
-        tvScore.setText(getString(R.string.score, score));
+        tvScore.setText(getString(R.string.score, engine.getScore()));
     }
 
     private void showResults() {
         saveScoreToStats();
 
-        int percentage = (score * 100) / (TOTAL_QUESTIONS * 10 * rank);
-        String message = getString(R.string.your_score, score, TOTAL_QUESTIONS * 10 * rank)
-                + "\n" + getString(R.string.game_complete_msg, score, TOTAL_QUESTIONS * 10 * rank, rank);
+        int score = engine.getScore();
+        int maxScore = engine.getMaxScore();
+        String message = getString(R.string.your_score, score, maxScore)
+                + "\n" + getString(R.string.game_complete_msg, score, maxScore, rank);
 
         new AlertDialog.Builder(this)
                 .setTitle(getString(R.string.game_complete_title))
                 .setMessage(message)
                 .setPositiveButton(getString(R.string.game_play_again), (d, w) -> {
-                    currentQuestion = 0;
-                    score = 0;
-                    Collections.shuffle(allWords);
+                    engine.restart();
+                    updateScore();
                     showNextQuestion();
                 })
                 .setNegativeButton(getString(R.string.game_back), (d, w) -> finish())
@@ -190,17 +180,6 @@ public class TrueFalseGameActivity extends AppCompatActivity {
     }
 
     private void saveScoreToStats() {
-        DatabaseService.getInstance().getStats(user.getId(), new DatabaseService.DatabaseCallback<>() {
-            @Override
-            public void onCompleted(Stats stats) {
-                if (stats == null) stats = new Stats(user.getId(), 1, 0);
-                stats.setTotalScore(stats.getTotalScore() + score);
-                DatabaseService.getInstance().updateStats(stats, null);
-            }
-
-            @Override
-            public void onFailed(Exception e) {
-            }
-        });
+        engine.finish(result -> DatabaseService.getInstance().submitGameResult(user.getId(), result, null));
     }
 }
\ No newline at end of file
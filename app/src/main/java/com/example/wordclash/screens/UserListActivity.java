@@ -2,6 +2,8 @@ package com.example.wordclash.screens;
 
 import android.content.Intent;
 import android.os.Bundle;
+import android.os.Handler;
+import android.os.Looper;
 import android.text.Editable;
 import android.text.TextWatcher;
 import android.view.View;
@@ -12,6 +14,7 @@ import android.widget.Spinner;
 import android.widget.Toast;
 
 import androidx.activity.EdgeToEdge;
+import androidx.annotation.NonNull;
 import androidx.appcompat.app.AppCompatActivity;
 import androidx.core.graphics.Insets;
 import androidx.core.view.ViewCompat;
@@ -30,7 +33,21 @@ import java.util.List;
 
 public class UserListActivity extends AppCompatActivity {
 
-    final List<User> allUsers = new ArrayList<>();
+    private static final int PAGE_SIZE = 30;
+    private static final int PREFETCH_DISTANCE = 10; // כמה שורות לפני הסוף מתחילים להוריד את העמוד הבא
+    private static final long SEARCH_DEBOUNCE_MS = 300;
+    // כמה עמודים רצופים מותר להוריד בלי גלילה, כשהסינון המקומי (אימייל/מגדר) משאיר רשימה קצרה
+    private static final int MAX_AUTO_PAGES = 5;
+
+    // המשתמשים שכבר הורדו לחיפוש הנוכחי. רק עמוד אחד (PAGE_SIZE) יורד בכל פעם, לפי הגלילה.
+    final List<User> loadedUsers = new ArrayList<>();
+    private final Handler searchHandler = new Handler(Looper.getMainLooper());
+    private final Runnable restartSearch = this::filterUsers;
+    private User lastLoaded;      // המשתמש האחרון שהשרת החזיר - נקודת ההמשך של העמוד הבא
+    private boolean loading;
+    private boolean hasMore;
+    private int autoPages;        // עמודים שהורדו ברצף בלי גלילה, מאז החיפוש או הגלילה האחרונה
+    private int searchGeneration; // תשובות של חיפוש ישן (לפני שהמשתמש המשיך להקליד) מתעלמים מהן
     RecyclerView rvUsers;
     UserAdapter userAdapter;
     EditText searchUsername, searchEmail;
@@ -65,7 +82,7 @@ public class UserListActivity extends AppCompatActivity {
                     Toast.makeText(UserListActivity.this, getString(R.string.manager_access_denied), Toast.LENGTH_LONG).show();
                 } else {
                     Intent intent = new Intent(UserListActivity.this, AdminUserActivity.class);
-                    intent.putExtra("user", user);
+                    intent.putExtra("userId", user.getId()); // רק ה-id - המסך הבא לוקח את המשתמש מה-cache
                     startActivity(intent);
                 }
             }
@@ -76,7 +93,7 @@ public class UserListActivity extends AppCompatActivity {
                     Toast.makeText(UserListActivity.this, getString(R.string.manager_access_denied), Toast.LENGTH_LONG).show();
                 } else {
                     Intent intent = new Intent(UserListActivity.this, AdminUserActivity.class);
-                    intent.putExtra("user", user);
+                    intent.putExtra("userId", user.getId()); // רק ה-id - המסך הבא לוקח את המשתמש מה-cache
                     startActivity(intent);
                 }
             }
@@ -84,6 +101,19 @@ public class UserListActivity extends AppCompatActivity {
 
         rvUsers.setAdapter(userAdapter);
 
+        // גלילה אינסופית: כשמתקרבים לסוף הרשימה מורידים את העמוד הבא
+        rvUsers.addOnScrollListener(new RecyclerView.OnScrollListener() {
+            @Override
+            public void onScrolled(@NonNull RecyclerView recyclerView, int dx, int dy) {
+                LinearLayoutManager layoutManager = (LinearLayoutManager) recyclerView.getLayoutManager();
+                if (layoutManager == null || dy <= 0) return;
+                if (layoutManager.findLastVisibleItemPosition() >= userAdapter.getItemCount() - PREFETCH_DISTANCE) {
+                    autoPages = 0;
+                    loadNextPage();
+                }
+            }
+        });
+
         setupGenderSpinner();
 
         TextWatcher searchWatcher = new TextWatcher() {
@@ -93,7 +123,8 @@ public class UserListActivity extends AppCompatActivity {
 
             @Override
             public void onTextChanged(CharSequence s, int start, int before, int count) {
-                filterUsers();
+                searchHandler.removeCallbacks(restartSearch);
+                searchHandler.postDelayed(restartSearch, SEARCH_DEBOUNCE_MS);
             }
 
             @Override
@@ -114,35 +145,6 @@ public class UserListActivity extends AppCompatActivity {
             public void onNothingSelected(AdapterView<?> parent) {
             }
         });
-
-        DatabaseService.getInstance().getUserList(new DatabaseService.DatabaseCallback<>() {
-            @Override
-            public void onCompleted(List<User> users) {
-                allUsers.clear();
-                List<User> adminUsers = new ArrayList<>();
-                List<User> regularUsers = new ArrayList<>();
-                for (User user : users) {
-                    if (currentUser != null && user.getId().equals(currentUser.getId())) {
-                        continue;
-                    }
-                    if (user.isAdmin()) {
-                        adminUsers.add(user);
-                    } else {
-                        regularUsers.add(user);
-                    }
-                }
-                allUsers.addAll(adminUsers);
-                allUsers.addAll(regularUsers);
-
-                userAdapter.setUserList(allUsers);
-                userAdapter.notifyDataSetChanged();
-            }
-
-            @Override
-            public void onFailed(Exception e) {
-                Toast.makeText(UserListActivity.this, getString(R.string.failed_load_users, e.getMessage()), Toast.LENGTH_SHORT).show();
-            }
-        });
     }
 
     private void setupGenderSpinner() {
@@ -158,73 +160,95 @@ public class UserListActivity extends AppCompatActivity {
         searchGender.setAdapter(adapter);
     }
 
+    // מתחיל חיפוש חדש מהעמוד הראשון. החיפוש לפי שם (או לפי אימייל, אם רק הוא מולא) נעשה בשרת לפי תחילית;
+    // השדה השני והמגדר מסוננים על כל עמוד שמגיע.
     private void filterUsers() {
+        searchHandler.removeCallbacks(restartSearch);
+        searchGeneration++;
+        loadedUsers.clear();
+        lastLoaded = null;
+        loading = false;
+        hasMore = true;
+        autoPages = 0;
+        userAdapter.setUserList(loadedUsers);
+        loadNextPage();
+    }
+
+    private void loadNextPage() {
+        if (loading || !hasMore) return;
+        loading = true;
+
         String usernameQuery = searchUsername.getText().toString().toLowerCase().trim();
         String emailQuery = searchEmail.getText().toString().toLowerCase().trim();
         int genderIndex = searchGender.getSelectedItemPosition();
-
-        List<User> filteredList = new ArrayList<>();
         String[] dbGenders = {"All", "Male", "Female", "Other"};
         String dbGenderQuery = dbGenders[genderIndex];
 
-        for (User user : allUsers) {
-            if (!usernameQuery.isEmpty()) {
-                if (user.getUserName() == null ||
-                        !user.getUserName().toLowerCase().contains(usernameQuery)) {
-                    continue;
-                }
-            }
+        boolean byEmail = usernameQuery.isEmpty() && !emailQuery.isEmpty();
+        String field = byEmail ? DatabaseService.EMAIL_LOWER : DatabaseService.USER_NAME_LOWER;
+        String prefix = byEmail ? emailQuery : usernameQuery;
 
-            if (!emailQuery.isEmpty()) {
-                if (user.getEmail() == null ||
-                        !user.getEmail().toLowerCase().contains(emailQuery)) {
-                    continue;
-                }
-            }
-
-            if (!dbGenderQuery.equals("All")) {
-                if (user.getGender() == null ||
-                        !user.getGender().equalsIgnoreCase(dbGenderQuery)) {
-                    continue;
-                }
-            }
-
-            filteredList.add(user);
-        }
-
-        userAdapter.setUserList(filteredList);
-        userAdapter.notifyDataSetChanged();
-    }
-
-    @Override
-    protected void onResume() {
-        super.onResume();
-        DatabaseService.getInstance().getUserList(new DatabaseService.DatabaseCallback<>() {
+        int generation = searchGeneration;
+        DatabaseService.getInstance().getUsersPage(field, prefix, lastLoaded, PAGE_SIZE, new DatabaseService.DatabaseCallback<>() {
             @Override
             public void onCompleted(List<User> users) {
-                allUsers.clear();
-                List<User> adminUsers = new ArrayList<>();
-                List<User> regularUsers = new ArrayList<>();
+                if (generation != searchGeneration) return;
+                loading = false;
+                // getUsersPage מבקש עמוד אחד יותר כשיש after, ומדלג עליו רק אם הוא חזר - לכן >=
+                hasMore = users.size() >= PAGE_SIZE;
+                if (!users.isEmpty()) lastLoaded = users.get(users.size() - 1);
+
                 for (User user : users) {
                     if (currentUser != null && user.getId().equals(currentUser.getId())) {
                         continue;
                     }
-                    if (user.isAdmin()) {
-                        adminUsers.add(user);
-                    } else {
-                        regularUsers.add(user);
+
+                    if (!byEmail && !emailQuery.isEmpty()) {
+                        if (user.getEmail() == null ||
+                                !user.getEmail().toLowerCase().contains(emailQuery)) {
+                            continue;
+                        }
+                    }
+
+                    if (!dbGenderQuery.equals("All")) {
+                        if (user.getGender() == null ||
+                                !user.getGender().equalsIgnoreCase(dbGenderQuery)) {
+                            continue;
+                        }
                     }
+
+                    loadedUsers.add(user);
                 }
-                allUsers.addAll(adminUsers);
-                allUsers.addAll(regularUsers);
 
-                filterUsers();
+                userAdapter.setUserList(loadedUsers);
+
+                // רוב העמוד סונן החוצה והרשימה קצרה מכדי לגלול - ממשיכים לעמוד הבא בעצמנו,
+                // אבל לא יותר מ-MAX_AUTO_PAGES, כדי שחיפוש שכמעט אין לו תוצאות לא יוריד את כל המשתמשים
+                if (loadedUsers.size() < PAGE_SIZE && autoPages < MAX_AUTO_PAGES) {
+                    autoPages++;
+                    loadNextPage();
+                }
             }
 
             @Override
             public void onFailed(Exception e) {
+                if (generation != searchGeneration) return;
+                loading = false;
                 Toast.makeText(UserListActivity.this, getString(R.string.failed_load_users, e.getMessage()), Toast.LENGTH_SHORT).show();
             }
         });
     }
-}
\ No newline at end of file
+
+    @Override
+    protected void onResume() {
+        super.onResume();
+        // חזרה ממסך עריכת משתמש - מתחילים מחדש כדי להציג את הפרטים המעודכנים
+        filterUsers();
+    }
+
+    @Override
+    protected void onDestroy() {
+        super.onDestroy();
+        searchHandler.removeCallbacks(restartSearch);
+    }
+}
@@ -3,6 +3,7 @@ package com.example.wordclash.screens;
 import android.graphics.Color;
 import android.os.Bundle;
 import android.os.Handler;
+import android.os.Looper;
 import android.widget.Button;
 import android.widget.LinearLayout;
 import android.widget.TextView;
@@ -10,30 +11,30 @@ import android.widget.Toast;
 
 import androidx.appcompat.app.AlertDialog;
 import androidx.appcompat.app.AppCompatActivity;
+import androidx.lifecycle.ViewModelProvider;
 
 import com.example.wordclash.R;
-import com.example.wordclash.models.Stats;
+import com.example.wordclash.game.GameEngine;
+import com.example.wordclash.game.GameType;
+import com.example.wordclash.game.Question;
 import com.example.wordclash.models.User;
-import com.example.wordclash.models.Word;
 import com.example.wordclash.services.DatabaseService;
 import com.example.wordclash.utils.LanguageUtils;
 import com.example.wordclash.utils.SharedPreferencesUtils;
 
 import java.util.ArrayList;
-import java.util.Collections;
 import java.util.List;
 
 public class WordBuilderGameActivity extends AppCompatActivity {
 
-    private final int TOTAL_WORDS = 10;
     private TextView tvHint, tvBuiltWord, tvProgress, tvScore;
     private LinearLayout lettersContainer;
     private User user;
     private int rank = 1;
-    private List<Word> gameWords;
-    private int currentWordIndex = 0;
-    private int score = 0;
-    private String targetWord;
+    private boolean learningEnglish = true;
+    private GameViewModel model;
+    private GameEngine engine;
+    private final Handler handler = new Handler(Looper.getMainLooper());
     private StringBuilder builtWord;
     private List<Button> letterButtons;
 
@@ -48,9 +49,34 @@ public class WordBuilderGameActivity extends AppCompatActivity {
         if (user != null) LanguageUtils.setLayoutDirection(this, user);
 
         rank = getIntent().getIntExtra("RANK", 1);
+        String learningLanguage = user != null ? user.getLearningLanguage() : null;
+        learningEnglish = learningLanguage == null || learningLanguage.equals("english");
+        model = new ViewModelProvider(this).get(GameViewModel.class);
+        engine = model.getEngine(GameType.WORD_BUILDER, rank, learningEnglish);
 
         initializeViews();
-        loadWords();
+
+        if (engine.isStarted()) {
+            // המסך נוצר מחדש (למשל בסיבוב) - הסבב עדיין בזיכרון, בלי לטעון שוב
+            engine.advanceIfAnswered();
+            updateScore();
+            showNextWord();
+        } else {
+            model.restoreFrom(savedInstanceState);
+            loadWords();
+        }
+    }
+
+    @Override
+    protected void onSaveInstanceState(Bundle outState) {
+        super.onSaveInstanceState(outState);
+        model.save(outState);
+    }
+
+    @Override
+    protected void onDestroy() {
+        handler.removeCallbacksAndMessages(null);
+        super.onDestroy();
     }
 
     private void initializeViews() {
@@ -74,63 +100,41 @@ public class WordBuilderGameActivity extends AppCompatActivity {
     }
 
     private void loadWords() {
-        DatabaseService.getInstance().getAllWords(new DatabaseService.DatabaseCallback<>() {
-            @Override
-            public void onCompleted(List<Word> words) {
-                if (words == null || words.isEmpty()) {
-                    Toast.makeText(WordBuilderGameActivity.this,
-                            getString(R.string.no_words_available), Toast.LENGTH_SHORT).show();
-                    finish();
-                    return;
-                }
-
-                gameWords = new ArrayList<>();
-                for (Word word : words) {
-                    String english = word.getEnglish();
-                    if (english.length() >= 4 && english.length() <= 8) {
-                        gameWords.add(word);
+        // המנוע משאיר רק מילים של 4-8 אותיות
+        model.loadRound(callback -> DatabaseService.getInstance().getAllWords(callback),
+                new DatabaseService.DatabaseCallback<>() {
+                    @Override
+                    public void onCompleted(Boolean ready) {
+                        if (!ready) {
+                            Toast.makeText(WordBuilderGameActivity.this,
+                                    getString(R.string.no_suitable_words), Toast.LENGTH_SHORT).show();
+                            finish();
+                            return;
+                        }
+                        updateScore();
+                        showNextWord();
                     }
-                }
-
-                if (gameWords.isEmpty()) {
-                    Toast.makeText(WordBuilderGameActivity.this,
-                            getString(R.string.no_suitable_words), Toast.LENGTH_SHORT).show();
-                    finish();
-                    return;
-                }
 
-                Collections.shuffle(gameWords);
-                showNextWord();
-            }
-
-            @Override
-            public void onFailed(Exception e) {
-                Toast.makeText(WordBuilderGameActivity.this,
-                        getString(R.string.failed_load_words, e.getMessage()),
-                        Toast.LENGTH_SHORT).show();
-                finish();
-            }
-        });
+                    @Override
+                    public void onFailed(Exception e) {
+                        Toast.makeText(WordBuilderGameActivity.this,
+                                getString(R.string.failed_load_words, e.getMessage()),
+                                Toast.LENGTH_SHORT).show();
+                        finish();
+                    }
+                });
     }
 
     private void showNextWord() {
-        if (currentWordIndex >= TOTAL_WORDS || currentWordIndex >= gameWords.size()) {
+        if (engine.isFinished()) {
             showResults();
             return;
         }
 
-        Word word = gameWords.get(currentWordIndex);
-
-        String learningLanguage = user.getLearningLanguage();
-        if (learningLanguage == null) learningLanguage = "english";
-
-        if (learningLanguage.equals("english")) {
-            targetWord = word.getEnglish().toUpperCase();
-            tvHint.setText(getString(R.string.word_builder_hint_hebrew, word.getHebrew()));
-        } else {
-            targetWord = word.getHebrew();
-            tvHint.setText(getString(R.string.word_builder_hint_english, word.getEnglish()));
-        }
+        // המילה, הרמז והאותיות המעורבבות נבחרו כבר בתחילת הסבב
+        Question question = engine.current();
+        tvHint.setText(getString(learningEnglish ? R.string.word_builder_hint_hebrew : R.string.word_builder_hint_english,
+                question.getPrompt()));
 
         clearWord();
         setupLetterButtons();
@@ -141,17 +145,7 @@ public class WordBuilderGameActivity extends AppCompatActivity {
         lettersContainer.removeAllViews();
         letterButtons.clear();
 
-        List<Character> letters = new ArrayList<>();
-        for (char c : targetWord.toCharArray()) letters.add(c);
-        Collections.shuffle(letters);
-
-        String extraLetters = "ABCDEFGHIJKLMNOPQRSTUVWXYZ";
-        for (int i = 0; i < 2 && letters.size() < 10; i++) {
-            letters.add(extraLetters.charAt((int) (Math.random() * extraLetters.length())));
-        }
-        Collections.shuffle(letters);
-
-        for (char letter : letters) {
+        for (char letter : engine.current().getLetters()) {
             Button btn = new Button(this);
             LinearLayout.LayoutParams params = new LinearLayout.LayoutParams(
                     0, LinearLayout.LayoutParams.WRAP_CONTENT, 1.0f);
@@ -190,54 +184,51 @@ public class WordBuilderGameActivity extends AppCompatActivity {
     }
 
     private void checkAnswer() {
-        String answer = builtWord.toString();
-
-        if (answer.equals(targetWord)) {
-            score += 10 * rank;
+        if (engine.answerSpelling(builtWord)) {
             updateScore();
             tvBuiltWord.setTextColor(Color.GREEN);
             Toast.makeText(this, getString(R.string.game_correct), Toast.LENGTH_SHORT).show();
 
-            new Handler().postDelayed(() -> {
+            handler.postDelayed(() -> {
                 tvBuiltWord.setTextColor(Color.BLACK);
-                currentWordIndex++;
+                engine.next();
                 showNextWord();
             }, 1000);
         } else {
             tvBuiltWord.setTextColor(Color.RED);
             Toast.makeText(this, getString(R.string.game_wrong), Toast.LENGTH_SHORT).show();
-            new Handler().postDelayed(() -> tvBuiltWord.setTextColor(Color.BLACK), 500);
+            handler.postDelayed(() -> tvBuiltWord.setTextColor(Color.BLACK), 500);
         }
     }
 
     private void skipWord() {
+        if (engine.isFinished()) return;
         new AlertDialog.Builder(this)
                 .setTitle(getString(R.string.skip_word_title))
-                .setMessage(getString(R.string.skip_word_msg, targetWord))
+                .setMessage(getString(R.string.skip_word_msg, engine.current().getTarget()))
                 .setPositiveButton(getString(R.string.next), (d, w) -> {
-                    currentWordIndex++;
+                    engine.next();
                     showNextWord();
                 })
                 .show();
     }
 
     private void updateProgress() {
-        tvProgress.setText(getString(R.string.word_progress, currentWordIndex + 1, TOTAL_WORDS));
+        tvProgress.setText(getString(R.string.word_progress, engine.getIndex() + 1, engine.getSize()));
     }
 
     private void updateScore() {
-        tvScore.setText(getString(R.string.score, score));
+        tvScore.setText(getString(R.string.score, engine.getScore()));
     }
 
     private void showResults() {
         saveScoreToStats();
         new AlertDialog.Builder(this)
                 .setTitle(getString(R.string.game_complete_title))
-                .setMessage(getString(R.string.game_complete_msg, score, TOTAL_WORDS * 10 * rank, rank))
+                .setMessage(getString(R.string.game_complete_msg, engine.getScore(), engine.getMaxScore(), rank))
                 .setPositiveButton(getString(R.string.game_play_again), (d, w) -> {
-                    currentWordIndex = 0;
-                    score = 0;
-                    Collections.shuffle(gameWords);
+                    engine.restart();
+                    updateScore();
                     showNextWord();
                 })
                 .setNegativeButton(getString(R.string.game_back), (d, w) -> finish())
@@ -246,17 +237,6 @@ public class WordBuilderGameActivity extends AppCompatActivity {
     }
 
     private void saveScoreToStats() {
-        DatabaseService.getInstance().getStats(user.getId(), new DatabaseService.DatabaseCallback<>() {
-            @Override
-            public void onCompleted(Stats stats) {
-                if (stats == null) stats = new Stats(user.getId(), 1, 0);
-                stats.setTotalScore(stats.getTotalScore() + score);
-                DatabaseService.getInstance().updateStats(stats, null);
-            }
-
-            @Override
-            public void onFailed(Exception e) {
-            }
-        });
+        engine.finish(result -> DatabaseService.getInstance().submitGameResult(user.getId(), result, null));
     }
 }
\ No newline at end of file
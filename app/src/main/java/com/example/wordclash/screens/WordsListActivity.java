@@ -23,22 +23,19 @@ import com.example.wordclash.models.User;
 import com.example.wordclash.models.Word;
 import com.example.wordclash.services.DatabaseService;
 import com.example.wordclash.utils.SharedPreferencesUtils;
+import com.example.wordclash.utils.WordFilter;
 
-import java.util.ArrayList;
-import java.util.Collections;
 import java.util.List;
 
 public class WordsListActivity extends AppCompatActivity {
 
-    private final List<Word> filteredWords = new ArrayList<>();
+    private final WordFilter wordFilter = new WordFilter();
     private WordAdapter wordAdapter;
     private Button btnReady;
     private EditText etSearch;
     private Spinner spinnerSort;
     private User user;
     private int currentRank;
-    private List<Word> allWords = new ArrayList<>();
-    private String currentSortOption = "Random";
 
     @Override
     protected void onCreate(Bundle savedInstanceState) {
@@ -123,7 +120,7 @@ public class WordsListActivity extends AppCompatActivity {
         spinnerSort.setOnItemSelectedListener(new AdapterView.OnItemSelectedListener() {
             @Override
             public void onItemSelected(AdapterView<?> parent, View view, int position, long id) {
-                applyFiltersAndSort();
+                applyFiltersAndSort(false);
             }
 
             @Override
@@ -140,7 +137,7 @@ public class WordsListActivity extends AppCompatActivity {
 
             @Override
             public void onTextChanged(CharSequence s, int start, int before, int count) {
-                applyFiltersAndSort();
+                applyFiltersAndSort(true);
             }
 
             @Override
@@ -157,8 +154,8 @@ public class WordsListActivity extends AppCompatActivity {
                     Toast.makeText(WordsListActivity.this, R.string.no_words_found, Toast.LENGTH_SHORT).show();
                     return;
                 }
-                allWords = new ArrayList<>(words);
-                applyFiltersAndSort();
+                wordFilter.setWords(words);
+                applyFiltersAndSort(false);
             }
 
             @Override
@@ -168,47 +165,29 @@ public class WordsListActivity extends AppCompatActivity {
         });
     }
 
-    private void applyFiltersAndSort() {
-        String searchQuery = etSearch.getText().toString().trim().toLowerCase();
+    // החיפוש והמיון רצים ב-WordFilter על thread נפרד; בהקלדה (debounce) מחכים שהמשתמש יעצור לרגע
+    private void applyFiltersAndSort(boolean debounce) {
+        String searchQuery = etSearch.getText().toString();
 
-        filteredWords.clear();
-        if (searchQuery.isEmpty()) {
-            filteredWords.addAll(allWords);
-        } else {
-            for (Word word : allWords) {
-                boolean matchesEnglish = word.getEnglish() != null &&
-                        word.getEnglish().toLowerCase().contains(searchQuery);
-                boolean matchesHebrew = word.getHebrew() != null &&
-                        word.getHebrew().contains(searchQuery);
-
-                if (matchesEnglish || matchesHebrew) {
-                    filteredWords.add(word);
-                }
-            }
-        }
-
-        int sortPosition = spinnerSort.getSelectedItemPosition();
-        switch (sortPosition) {
-            case 0: // Random
-                Collections.shuffle(filteredWords);
-                break;
+        WordFilter.Sort sort;
+        switch (spinnerSort.getSelectedItemPosition()) {
             case 1: // A-Z (English)
-                filteredWords.sort((w1, w2) -> {
-                    String en1 = w1.getEnglish() != null ? w1.getEnglish().toLowerCase() : "";
-                    String en2 = w2.getEnglish() != null ? w2.getEnglish().toLowerCase() : "";
-                    return en1.compareTo(en2);
-                });
+                sort = WordFilter.Sort.ENGLISH;
                 break;
             case 2: // א-ב (Hebrew)
-                filteredWords.sort((w1, w2) -> {
-                    String he1 = w1.getHebrew() != null ? w1.getHebrew() : "";
-                    String he2 = w2.getHebrew() != null ? w2.getHebrew() : "";
-                    return he1.compareTo(he2);
-                });
+                sort = WordFilter.Sort.HEBREW;
+                break;
+            case 0: // Random
+            default:
+                sort = WordFilter.Sort.RANDOM;
                 break;
         }
 
-        wordAdapter.setWordList(filteredWords);
+        if (debounce) {
+            wordFilter.filterDebounced(searchQuery, 0, sort, wordAdapter::setWordList);
+        } else {
+            wordFilter.filter(searchQuery, 0, sort, wordAdapter::setWordList);
+        }
     }
 
     private void markAsReviewed() {
@@ -225,4 +204,10 @@ public class WordsListActivity extends AppCompatActivity {
             }
         });
     }
-}
\ No newline at end of file
+
+    @Override
+    protected void onDestroy() {
+        super.onDestroy();
+        wordFilter.shutdown();
+    }
+}
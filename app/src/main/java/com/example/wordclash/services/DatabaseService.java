@@ -1,16 +1,36 @@
 package com.example.wordclash.services;
 
+import android.os.Handler;
+import android.os.Looper;
+import android.os.SystemClock;
+
+import com.example.wordclash.game.GameResult;
+import com.example.wordclash.models.LeaderboardEntry;
 import com.example.wordclash.models.Stats;
 import com.example.wordclash.models.User;
 import com.example.wordclash.models.Word;
+
 import com.google.firebase.database.DataSnapshot;
+import com.google.firebase.database.DatabaseError;
 import com.google.firebase.database.DatabaseReference;
 import com.google.firebase.database.FirebaseDatabase;
+import com.google.firebase.database.Query;
+import com.google.firebase.database.ServerValue;
 
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
 import java.util.ArrayList;
+import java.util.Collections;
 import java.util.HashMap;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Locale;
 import java.util.Map;
+import java.util.Random;
+import java.util.Set;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
 
 /**
  * שירות לניהול Firebase Database
@@ -21,13 +41,42 @@ public class DatabaseService {
     // ========== הגדרות בסיסיות ==========
 
     private static final String USERS_PATH = "users";           // נתיב למשתמשים
-    private static final String STATS_PATH = "stats";           // נתיב לסטטיסטיקות
+    // נתיב לסטטיסטיקות. כל כתיבה מעלה את stats/{userId}/version ב-1 (StatsUpdates), ובחוקי ה-Database צריך:
+    // "stats": {"$uid": {"version": {".validate": "newData.val() === (data.exists() ? data.val() : 0) + 1"}}}
+    // כדי שעדכון שנבנה מקריאה ישנה יידחה כולו
+    static final String STATS_PATH = "stats";
     private static final String WORDS_PATH = "vocabulary";      // נתיב למילים
-    private static final String RANK_PROGRESS = "rank_progress"; // נתיב להתקדמות
+    // גרסה לכל רמה: levelN -> מספר. הוספה ומחיקה של מילה כותבות גרסה+1 יחד עם האינדקס הרציף, ובחוקי ה-Database צריך:
+    // "vocabulary_versions": {"$level": {".validate": "newData.val() === (data.exists() ? data.val() : 0) + 1"}}
+    // כדי ששתי כתיבות שקראו את אותה גרסה לא יכתבו שתיהן לאותו מקום באינדקס
+    private static final String WORD_VERSIONS_PATH = "vocabulary_versions";
+    // אינדקס רציף לכל רמה: vocabulary_ordinals/levelN/{0..count-1} = {id, en, he}
+    // בלי חורים, כדי שאפשר יהיה להגריל מספר ולקרוא בדיוק את המילה שלו
+    private static final String WORD_ORDINALS_PATH = "vocabulary_ordinals";
+    private static final String WORD_COUNTS_PATH = "vocabulary_counts";   // levelN -> כמה מילים באינדקס
+    private static final String VOCABULARY_IMPORT_PATH = "vocabulary_import"; // מצב הייבוא הראשוני, תחת migrations/
+    static final String RANK_PROGRESS = "rank_progress"; // נתיב להתקדמות
+    private static final String EMAIL_INDEX_PATH = "emailIndex"; // אינדקס אימייל -> מזהה משתמש
+    private static final String MIGRATIONS_PATH = "migrations";  // דגלים של מיגרציות חד-פעמיות
+    // שדות חיפוש ברשומת המשתמש (אותיות קטנות). דורש ".indexOn": ["userNameLower", "emailLower"] תחת users בחוקי ה-Database
+    public static final String USER_NAME_LOWER = "userNameLower";
+    public static final String EMAIL_LOWER = "emailLower";
+    private static final String USER_SEARCH_MIGRATION = "user_search";
+    private static final String AVATARS_PATH = "avatars";       // תמונות פרופיל (base64) לפי משתמש
+    private static final String AVATAR_THUMBNAILS_PATH = "avatar_thumbnails"; // אותה תמונה בגודל קטן, לתצוגות קטנות
+    // טבלת מובילים מוכפלת: leaderboard/{userId} = {score, userName, rank}
+    // (דורש ".indexOn": "score" בחוקי ה-Database כדי שהמיון ייעשה בשרת)
+    static final String LEADERBOARD_PATH = "leaderboard";
+    // היסטוגרמות של הניקוד (מתוחזקות ב-StatsUpdates): כמה משתמשים בכל טווח של BUCKET_SIZE,
+    // ובתוך כל טווח - כמה משתמשים עם כל ניקוד
+    static final String LEADERBOARD_BUCKETS_PATH = "leaderboard_buckets";
+    static final String LEADERBOARD_SCORE_COUNTS_PATH = "leaderboard_score_counts";
+    private static final String LEGACY_PICTURE_FIELD = "profilePictureUrl"; // השדה הישן בתוך users/
     /**
      * כמה תרגולים נדרשים לעבור דרגה
      */
     private static final Map<Integer, Integer> RANK_REQUIREMENTS = new HashMap<>();
+    private static final int MAX_WRITE_ATTEMPTS = 5;  // כמה פעמים קוראים וכותבים שוב כשעדכון נדחה בגלל כתיבה מקבילה
     private static DatabaseService instance;                    // סינגלטון
 
     static {
@@ -39,6 +88,20 @@ public class DatabaseService {
     }
 
     private final DatabaseReference db;                         // חיבור ל-Firebase
+    private final Random random = new Random();
+    // פענוח של snapshots גדולים מחוץ ל-main thread
+    private final ExecutorService parseExecutor = Executors.newSingleThreadExecutor();
+    private final Handler mainHandler = new Handler(Looper.getMainLooper());
+    private ParseTimingListener parseTimingListener;
+    private final Map<String, String[]> avatarCache = new HashMap<>(); // userId -> {hash, data}
+    private final Map<String, String[]> thumbnailCache = new HashMap<>(); // userId -> {hash, data}
+    private final Map<String, User> userCache = new HashMap<>();       // משתמשים שכבר נטענו, לפי id
+    private boolean emailIndexMigrating;                                // ה-backfill של אינדקס האימיילים רץ עכשיו
+    private boolean emailIndexMigrated;                                 // ה-backfill כבר רץ (או שהדגל בשרת אומר שרץ)
+    private final List<Runnable> emailIndexWaiters = new ArrayList<>(); // חיפושים שמחכים לסוף ה-backfill
+    // הערכים האחרונים שנקראו/נכתבו - מאפשרים לחשב עלייה בדרגה בסוף משחק בלי לקרוא שוב מהשרת
+    private final Map<String, Stats> statsCache = new HashMap<>();                 // userId -> stats
+    private final Map<String, RankProgressData> progressCache = new HashMap<>();   // userId/rank_N -> progress
 
     // ========== ממשק Callback ==========
 
@@ -92,7 +155,19 @@ public class DatabaseService {
      * יצירת משתמש חדש
      */
     public void createNewUser(User user, DatabaseCallback<Void> callback) {
-        db.child(USERS_PATH).child(user.getId()).setValue(user)
+        String key = emailKey(user.getEmail());
+        if (key == null) {
+            if (callback != null) callback.onFailed(new IllegalArgumentException("Email is required"));
+            return;
+        }
+
+        // כתיבה אטומית של המשתמש ושל רשומת האינדקס שלו
+        Map<String, Object> updates = new HashMap<>();
+        updates.put(USERS_PATH + "/" + user.getId(), SnapshotMappers.fromUser(user));
+        updates.put(EMAIL_INDEX_PATH + "/" + key, user.getId());
+        updates.put(LEADERBOARD_PATH + "/" + user.getId() + "/userName", user.getUserName());
+
+        db.updateChildren(updates)
                 .addOnSuccessListener(v -> {
                     if (callback != null) callback.onCompleted(null);
                 })
@@ -107,7 +182,15 @@ public class DatabaseService {
     public void getUser(String userId, DatabaseCallback<User> callback) {
         db.child(USERS_PATH).child(userId).get()
                 .addOnSuccessListener(snapshot -> {
-                    User user = snapshot.getValue(User.class);
+                    User user = SnapshotMappers.toUser(snapshot);
+
+                    // משתמש שעוד שומר את התמונה בתוך הרשומה - העברה ל-avatars/
+                    String legacyPicture = snapshot.child(LEGACY_PICTURE_FIELD).getValue(String.class);
+                    if (user != null && legacyPicture != null && !legacyPicture.isEmpty()) {
+                        user.setAvatarHash(hashAvatar(legacyPicture));
+                        moveLegacyAvatar(userId, legacyPicture, null);
+                    }
+                    rememberUser(userId, user);
                     callback.onCompleted(user);
                 })
                 .addOnFailureListener(callback::onFailed);
@@ -118,22 +201,178 @@ public class DatabaseService {
      */
     public void getUserList(DatabaseCallback<List<User>> callback) {
         db.child(USERS_PATH).get()
+                .addOnSuccessListener(snapshot -> parseInBackground(USERS_PATH, snapshot, usersSnapshot -> {
+                    List<User> users = new ArrayList<>();
+                    for (DataSnapshot child : usersSnapshot.getChildren()) {
+                        User user = SnapshotMappers.toUser(child);
+                        if (user != null) users.add(user);
+                    }
+                    return users;
+                }, new DatabaseCallback<>() {
+                    @Override
+                    public void onCompleted(List<User> users) {
+                        userCache.clear();
+                        for (User user : users) rememberUser(user.getId(), user);
+                        callback.onCompleted(users);
+                    }
+
+                    @Override
+                    public void onFailed(Exception e) {
+                        callback.onFailed(e);
+                    }
+                }))
+                .addOnFailureListener(callback::onFailed);
+    }
+
+    /**
+     * עמוד אחד של משתמשים שהשדה שלהם (USER_NAME_LOWER או EMAIL_LOWER) מתחיל ב-prefix, ממוינים לפיו.
+     * המיון והסינון נעשים בשרת, כך שמורדים רק pageSize משתמשים בכל פעם.
+     *
+     * @param after המשתמש האחרון בעמוד הקודם, או null לעמוד הראשון
+     */
+    public void getUsersPage(String field, String prefix, User after, int pageSize, DatabaseCallback<List<User>> callback) {
+        String start = SnapshotMappers.searchKey(prefix);
+        if (start == null) start = "";
+
+        Query query = db.child(USERS_PATH).orderByChild(field);
+        int limit = pageSize;
+        if (after != null) {
+            // ממשיכים מהמשתמש האחרון (לפי ערך ואז לפי מפתח) - הוא עצמו חוזר ראשון ומדולג
+            String afterValue = SnapshotMappers.searchKey(USER_NAME_LOWER.equals(field) ? after.getUserName() : after.getEmail());
+            query = query.startAt(afterValue != null ? afterValue : "", after.getId());
+            limit++;
+        } else {
+            query = query.startAt(start);
+        }
+        if (!start.isEmpty()) {
+            query = query.endAt(start + "\uf8ff");
+        }
+
+        query.limitToFirst(limit).get()
                 .addOnSuccessListener(snapshot -> {
                     List<User> users = new ArrayList<>();
                     for (DataSnapshot child : snapshot.getChildren()) {
-                        User user = child.getValue(User.class);
-                        if (user != null) users.add(user);
+                        if (after != null && after.getId().equals(child.getKey())) continue;
+                        User user = SnapshotMappers.toUser(child);
+                        if (user == null) continue;
+                        rememberUser(user.getId(), user);
+                        users.add(user);
                     }
                     callback.onCompleted(users);
                 })
                 .addOnFailureListener(callback::onFailed);
     }
 
+    /**
+     * קבלת משתמש לפי ID - מה-cache אם המשתמש כבר נטען (למשל ברשימת המשתמשים), אחרת מהשרת.
+     * כך מסכים מעבירים ביניהם רק id במקום את כל האובייקט דרך ה-Intent.
+     * מחזיר עותק: המסך יכול לשנות אותו, וה-cache מתעדכן רק כשהשמירה ב-updateUser מצליחה.
+     */
+    public void getCachedUser(String userId, DatabaseCallback<User> callback) {
+        User cached = userCache.get(userId);
+        if (cached != null) {
+            callback.onCompleted(copyOf(cached));
+            return;
+        }
+        getUser(userId, callback);
+    }
+
+    // שמירת עותק - האובייקט שהתקבל נמצא גם ברשימות של המסכים, שמשנים אותו
+    private void rememberUser(String userId, User user) {
+        if (user == null) {
+            userCache.remove(userId);
+        } else {
+            userCache.put(userId, copyOf(user));
+        }
+    }
+
+    private static User copyOf(User user) {
+        User copy = new User(user.getId(), user.getEmail(), user.getPassword(), user.getUserName(), user.getGender(),
+                user.isAdmin(), user.getLearningLanguage(),
+                user.getWords() != null ? new ArrayList<>(user.getWords()) : null);
+        copy.setAvatarHash(user.getAvatarHash());
+        return copy;
+    }
+
     /**
      * עדכון משתמש
      */
-    public void updateUser(User user, DatabaseCallback<Void> callback) {
-        db.child(USERS_PATH).child(user.getId()).setValue(user)
+    public void updateUser(User user, DatabaseCallback<Void> original) {
+        // ה-cache מתעדכן רק אחרי שהשרת קיבל את השינוי; שמירה שנכשלה משאירה בו את הערכים הקודמים
+        DatabaseCallback<Void> callback = new DatabaseCallback<>() {
+            @Override
+            public void onCompleted(Void unused) {
+                // ה-hash ב-cache לא חוזר אחורה - writeUser לא כתב את התמונה
+                User cached = userCache.get(user.getId());
+                rememberUser(user.getId(), user);
+                if (cached != null) userCache.get(user.getId()).setAvatarHash(cached.getAvatarHash());
+                if (original != null) original.onCompleted(null);
+            }
+
+            @Override
+            public void onFailed(Exception e) {
+                if (original != null) original.onFailed(e);
+            }
+        };
+
+        // קריאת האימייל הקודם כדי לדעת אם צריך להזיז את רשומת האינדקס
+        db.child(USERS_PATH).child(user.getId()).child("email").get()
+                .addOnSuccessListener(snapshot -> {
+                    String oldEmail = snapshot.getValue(String.class);
+                    String newKey = emailKey(user.getEmail());
+
+                    // בלי אימייל אין רשומת אינדקס לבדוק
+                    if (newKey == null || newKey.equals(emailKey(oldEmail))) {
+                        writeUser(user, oldEmail, callback);
+                        return;
+                    }
+
+                    // האימייל השתנה - לוודא שהוא לא שייך למשתמש אחר
+                    db.child(EMAIL_INDEX_PATH).child(newKey).get()
+                            .addOnSuccessListener(indexSnapshot -> {
+                                String ownerId = indexSnapshot.getValue(String.class);
+                                if (ownerId != null && !ownerId.equals(user.getId())) {
+                                    if (callback != null) {
+                                        callback.onFailed(new IllegalStateException("Email already exists"));
+                                    }
+                                    return;
+                                }
+                                writeUser(user, oldEmail, callback);
+                            })
+                            .addOnFailureListener(e -> {
+                                if (callback != null) callback.onFailed(e);
+                            });
+                })
+                .addOnFailureListener(e -> {
+                    if (callback != null) callback.onFailed(e);
+                });
+    }
+
+    /**
+     * שמירת המשתמש ועדכון האינדקס בפעולה אחת.
+     * כל שדה נכתב בנפרד, חוץ מ-avatarHash: המשתמש יכול להיות עותק מה-cache (getCachedUser), ותמונה
+     * שהוחלפה בינתיים לא צריכה לחזור לגרסה הישנה. התמונה משתנה רק דרך saveAvatar / deleteAvatar.
+     */
+    private void writeUser(User user, String oldEmail, DatabaseCallback<Void> callback) {
+        Map<String, Object> updates = new HashMap<>();
+        Map<String, Object> fields = SnapshotMappers.fromUser(user);
+        fields.remove("avatarHash");
+        fields.putIfAbsent("words", null); // רשימה ריקה לא נשמרת - מוחקים את הישנה
+        for (Map.Entry<String, Object> field : fields.entrySet()) {
+            updates.put(USERS_PATH + "/" + user.getId() + "/" + field.getKey(), field.getValue());
+        }
+
+        String oldKey = emailKey(oldEmail);
+        String newKey = emailKey(user.getEmail());
+        if (oldKey != null && !oldKey.equals(newKey)) {
+            updates.put(EMAIL_INDEX_PATH + "/" + oldKey, null);
+        }
+        if (newKey != null) {
+            updates.put(EMAIL_INDEX_PATH + "/" + newKey, user.getId());
+        }
+        updates.put(LEADERBOARD_PATH + "/" + user.getId() + "/userName", user.getUserName());
+
+        db.updateChildren(updates)
                 .addOnSuccessListener(v -> {
                     if (callback != null) callback.onCompleted(null);
                 })
@@ -148,9 +387,40 @@ public class DatabaseService {
      * מחיקת משתמש
      */
     public void deleteUser(String userId, DatabaseCallback<Void> callback) {
-        db.child(USERS_PATH).child(userId).removeValue()
-                .addOnSuccessListener(v -> {
-                    if (callback != null) callback.onCompleted(null);
+        db.child(USERS_PATH).child(userId).child("email").get()
+                .addOnSuccessListener(snapshot -> {
+                    String email = snapshot.getValue(String.class);
+
+                    db.child(LEADERBOARD_PATH).child(userId).child("score").get()
+                            .addOnSuccessListener(scoreSnapshot -> {
+                                Map<String, Object> updates = new HashMap<>();
+                                updates.put(USERS_PATH + "/" + userId, null);
+                                updates.put(AVATARS_PATH + "/" + userId, null);
+                                updates.put(AVATAR_THUMBNAILS_PATH + "/" + userId, null);
+                                updates.put(LEADERBOARD_PATH + "/" + userId, null);
+                                String key = emailKey(email);
+                                if (key != null) {
+                                    updates.put(EMAIL_INDEX_PATH + "/" + key, null);
+                                }
+
+                                Integer oldScore = scoreSnapshot.getValue(Integer.class);
+                                if (oldScore != null) {
+                                    StatsUpdates.addRemoval(updates, oldScore);
+                                }
+
+                                db.updateChildren(updates)
+                                        .addOnSuccessListener(v -> {
+                                            statsCache.remove(userId);
+                                            userCache.remove(userId);
+                                            if (callback != null) callback.onCompleted(null);
+                                        })
+                                        .addOnFailureListener(e -> {
+                                            if (callback != null) callback.onFailed(e);
+                                        });
+                            })
+                            .addOnFailureListener(e -> {
+                                if (callback != null) callback.onFailed(e);
+                            });
                 })
                 .addOnFailureListener(e -> {
                     if (callback != null) callback.onFailed(e);
@@ -158,21 +428,33 @@ public class DatabaseService {
     }
 
     /**
-     * התחברות למערכת
+     * התחברות למערכת - קריאה נקודתית מהאינדקס ואז קריאה של המשתמש עצמו
      */
     public void login(String email, String password, DatabaseCallback<User> callback) {
-        getUserList(new DatabaseCallback<>() {
+        findUserIdByEmail(email, new DatabaseCallback<>() {
             @Override
-            public void onCompleted(List<User> users) {
-                // חיפוש משתמש עם אימייל וסיסמה תואמים
-                for (User user : users) {
-                    if (user.getEmail().equals(email) &&
-                            user.getPassword().equals(password)) {
-                        callback.onCompleted(user);
-                        return;
-                    }
+            public void onCompleted(String userId) {
+                if (userId == null) {
+                    callback.onCompleted(null); // לא נמצא
+                    return;
                 }
-                callback.onCompleted(null); // לא נמצא
+
+                getUser(userId, new DatabaseCallback<>() {
+                    @Override
+                    public void onCompleted(User user) {
+                        if (user != null && user.getPassword() != null
+                                && user.getPassword().equals(password)) {
+                            callback.onCompleted(user);
+                        } else {
+                            callback.onCompleted(null);
+                        }
+                    }
+
+                    @Override
+                    public void onFailed(Exception e) {
+                        callback.onFailed(e);
+                    }
+                });
             }
 
             @Override
@@ -186,16 +468,10 @@ public class DatabaseService {
      * בדיקה אם אימייל קיים
      */
     public void checkIfEmailExists(String email, DatabaseCallback<Boolean> callback) {
-        getUserList(new DatabaseCallback<>() {
+        findUserIdByEmail(email, new DatabaseCallback<>() {
             @Override
-            public void onCompleted(List<User> users) {
-                for (User user : users) {
-                    if (user.getEmail().equals(email)) {
-                        callback.onCompleted(true);
-                        return;
-                    }
-                }
-                callback.onCompleted(false);
+            public void onCompleted(String userId) {
+                callback.onCompleted(userId != null);
             }
 
             @Override
@@ -205,40 +481,157 @@ public class DatabaseService {
         });
     }
 
-    // ========== מילים (Words) ==========
+    /**
+     * חיפוש מזהה משתמש לפי אימייל באינדקס - קריאה נקודתית אחת.
+     * אם לא נמצא וה-backfill של משתמשים ותיקים עוד לא רץ בתהליך הזה, מריצים אותו (או מחכים לו) וקוראים שוב
+     * פעם אחת - גם במכשיר שאף משתמש לא מחובר בו, ולכן runPendingMigrations לא רץ בו.
+     */
+    private void findUserIdByEmail(String email, DatabaseCallback<String> callback) {
+        String key = emailKey(email);
+        if (key == null) {
+            callback.onCompleted(null);
+            return;
+        }
+
+        DatabaseReference indexRef = db.child(EMAIL_INDEX_PATH).child(key);
+        indexRef.get()
+                .addOnSuccessListener(snapshot -> {
+                    String userId = snapshot.getValue(String.class);
+                    if (userId != null || emailIndexMigrated) {
+                        callback.onCompleted(userId);
+                        return;
+                    }
+
+                    emailIndexWaiters.add(() -> indexRef.get()
+                            .addOnSuccessListener(retry -> callback.onCompleted(retry.getValue(String.class)))
+                            .addOnFailureListener(callback::onFailed));
+                    if (!emailIndexMigrating) migrateEmailIndexIfNeeded(null);
+                })
+                .addOnFailureListener(callback::onFailed);
+    }
 
     /**
-     * יצירת סטטיסטיקה חדשה למשתמש
+     * מיגרציה חד-פעמית: בניית אינדקס האימיילים עבור משתמשים שנרשמו לפני שהאינדקס היה קיים
      */
-    public void createStats(Stats stats, DatabaseCallback<Void> callback) {
-        db.child(STATS_PATH).child(stats.getUserId()).setValue(stats)
-                .addOnSuccessListener(v -> {
-                    if (callback != null) callback.onCompleted(null);
+    public void migrateEmailIndexIfNeeded(DatabaseCallback<Void> callback) {
+        if (emailIndexMigrated) {
+            if (callback != null) callback.onCompleted(null);
+            return;
+        }
+        // כבר רץ (למשל בגלל חיפוש שלא מצא כלום) - מחכים לאותה ריצה
+        if (emailIndexMigrating) {
+            if (callback != null) emailIndexWaiters.add(() -> callback.onCompleted(null));
+            return;
+        }
+
+        emailIndexMigrating = true;
+        db.child(MIGRATIONS_PATH).child(EMAIL_INDEX_PATH).get()
+                .addOnSuccessListener(flag -> {
+                    if (Boolean.TRUE.equals(flag.getValue(Boolean.class))) {
+                        emailIndexMigrated = true;
+                        finishEmailIndexMigration();
+                        if (callback != null) callback.onCompleted(null);
+                        return;
+                    }
+
+                    backfillEmailIndex(new DatabaseCallback<>() {
+                        @Override
+                        public void onCompleted(Void unused) {
+                            emailIndexMigrated = true;
+                            finishEmailIndexMigration();
+                            if (callback != null) callback.onCompleted(null);
+                        }
+
+                        @Override
+                        public void onFailed(Exception e) {
+                            finishEmailIndexMigration();
+                            if (callback != null) callback.onFailed(e);
+                        }
+                    });
                 })
                 .addOnFailureListener(e -> {
+                    finishEmailIndexMigration();
                     if (callback != null) callback.onFailed(e);
                 });
     }
 
-    /**
-     * קבלת סטטיסטיקות של משתמש
-     */
-    public void getStats(String userId, DatabaseCallback<Stats> callback) {
-        db.child(STATS_PATH).child(userId).get()
-                .addOnSuccessListener(snapshot -> {
-                    Stats stats = snapshot.getValue(Stats.class);
-                    callback.onCompleted(stats);
-                })
-                .addOnFailureListener(callback::onFailed);
+    // חיפושים שלא מצאו כלום בזמן שהמיגרציה רצה - קוראים שוב עכשיו
+    private void finishEmailIndexMigration() {
+        emailIndexMigrating = false;
+        List<Runnable> waiters = new ArrayList<>(emailIndexWaiters);
+        emailIndexWaiters.clear();
+        for (Runnable waiter : waiters) waiter.run();
+    }
+
+    private void backfillEmailIndex(DatabaseCallback<Void> callback) {
+        getUserList(new DatabaseCallback<>() {
+            @Override
+            public void onCompleted(List<User> users) {
+                Map<String, Object> updates = new HashMap<>();
+                for (User user : users) {
+                    String key = emailKey(user.getEmail());
+                    if (user.getId() == null || key == null) continue;
+                    String path = EMAIL_INDEX_PATH + "/" + key;
+                    // במקרה של כפילות נשמר המשתמש הראשון, כמו בלולאת ההתחברות הישנה
+                    if (!updates.containsKey(path)) {
+                        updates.put(path, user.getId());
+                    }
+                }
+                updates.put(MIGRATIONS_PATH + "/" + EMAIL_INDEX_PATH, true);
+
+                db.updateChildren(updates)
+                        .addOnSuccessListener(v -> {
+                            if (callback != null) callback.onCompleted(null);
+                        })
+                        .addOnFailureListener(e -> {
+                            if (callback != null) callback.onFailed(e);
+                        });
+            }
+
+            @Override
+            public void onFailed(Exception e) {
+                if (callback != null) callback.onFailed(e);
+            }
+        });
     }
 
     /**
-     * עדכון סטטיסטיקות
+     * מיגרציה חד-פעמית: הוספת שדות החיפוש (USER_NAME_LOWER, EMAIL_LOWER) למשתמשים שנרשמו לפני שהיו קיימים
      */
-    public void updateStats(Stats stats, DatabaseCallback<Void> callback) {
-        db.child(STATS_PATH).child(stats.getUserId()).setValue(stats)
-                .addOnSuccessListener(v -> {
-                    if (callback != null) callback.onCompleted(null);
+    public void migrateUserSearchFieldsIfNeeded(DatabaseCallback<Void> callback) {
+        db.child(MIGRATIONS_PATH).child(USER_SEARCH_MIGRATION).get()
+                .addOnSuccessListener(flag -> {
+                    if (Boolean.TRUE.equals(flag.getValue(Boolean.class))) {
+                        if (callback != null) callback.onCompleted(null);
+                        return;
+                    }
+
+                    getUserList(new DatabaseCallback<>() {
+                        @Override
+                        public void onCompleted(List<User> users) {
+                            Map<String, Object> updates = new HashMap<>();
+                            for (User user : users) {
+                                if (user.getId() == null) continue;
+                                String base = USERS_PATH + "/" + user.getId() + "/";
+                                updates.put(base + USER_NAME_LOWER, SnapshotMappers.searchKey(user.getUserName()));
+                                updates.put(base + EMAIL_LOWER, SnapshotMappers.searchKey(user.getEmail()));
+                            }
+                            updates.put(MIGRATIONS_PATH + "/" + USER_SEARCH_MIGRATION, true);
+
+                            db.updateChildren(updates)
+                                    .addOnSuccessListener(v -> {
+                                        if (callback != null) callback.onCompleted(null);
+                                    })
+                                    .addOnFailureListener(e -> {
+                                        if (callback != null) callback.onFailed(e);
+                                    });
+                        }
+
+                        @Override
+                        public void onFailed(Exception e) {
+                            if (callback != null) callback.onFailed(e);
+                        }
+                    });
                 })
                 .addOnFailureListener(e -> {
                     if (callback != null) callback.onFailed(e);
@@ -246,24 +639,88 @@ public class DatabaseService {
     }
 
     /**
-     * יצירת מזהה חדש למילה
+     * המרת אימייל למפתח חוקי ב-Firebase: אותיות קטנות, נקודה מוחלפת בפסיק (כמו במפתחות הקיימים),
+     * ושאר התווים ש-Firebase אוסר במפתח (# $ [ ] /) - וגם % עצמו - נכתבים כ-%XX.
+     * מחזיר null לאימייל ריק, שאין לו רשומה באינדקס.
      */
-    public String generateWordId(int rank) {
-        return db.child(WORDS_PATH).child("level" + rank).push().getKey();
+    static String emailKey(String email) {
+        if (email == null) return null;
+        String normalized = email.trim().toLowerCase(Locale.ROOT);
+        if (normalized.isEmpty()) return null;
+
+        StringBuilder key = new StringBuilder(normalized.length());
+        for (int i = 0; i < normalized.length(); i++) {
+            char c = normalized.charAt(i);
+            switch (c) {
+                case '.':
+                    key.append(',');
+                    break;
+                case '%':
+                case '#':
+                case '$':
+                case '[':
+                case ']':
+                case '/':
+                    key.append('%').append(String.format(Locale.ROOT, "%02X", (int) c));
+                    break;
+                default:
+                    key.append(c);
+            }
+        }
+        return key.toString();
     }
 
+    // ========== מיגרציות (Migrations) ==========
+
     /**
-     * הוספת מילה חדשה
+     * הרצת כל המיגרציות החד-פעמיות שעוד לא רצו. כל אחת בודקת דגל תחת migrations/ ולכן זולה כשכבר רצה.
+     * טבלת המובילים נבנית לפני ההיסטוגרמה כי ההיסטוגרמה נבנית מתוכה.
      */
-    public void createWord(Word word, DatabaseCallback<Void> callback) {
-        HashMap<String, String> wordData = new HashMap<>();
-        wordData.put("en", word.getEnglish());
-        wordData.put("he", word.getHebrew());
+    public void runPendingMigrations() {
+        migrateEmailIndexIfNeeded(null);
+        migrateAvatarsIfNeeded(null);
+        migrateWordVersionsIfNeeded(null);
+        migrateWordOrdinalsIfNeeded(null);
+        migrateUserSearchFieldsIfNeeded(null);
+        migrateLeaderboardIfNeeded(new DatabaseCallback<>() {
+            @Override
+            public void onCompleted(Void unused) {
+                migrateLeaderboardBucketsIfNeeded(null);
+            }
+
+            @Override
+            public void onFailed(Exception e) {
+            }
+        });
+    }
+
+    // ========== תמונות פרופיל (Avatars) ==========
 
-        String path = WORDS_PATH + "/level" + word.getRank() + "/" + word.getId();
-        db.child(path).setValue(wordData)
+    /**
+     * שמירת תמונת פרופיל ב-avatars/{userId}, התמונה הקטנה ב-avatar_thumbnails/{userId},
+     * ועדכון ה-hash ברשומת המשתמש - הכל בפעולה אחת. מחזיר את ה-hash החדש.
+     */
+    public void saveAvatar(String userId, String base64Image, String base64Thumbnail, DatabaseCallback<String> callback) {
+        String hash = hashAvatar(base64Image);
+
+        Map<String, Object> avatar = new HashMap<>();
+        avatar.put("hash", hash);
+        avatar.put("data", base64Image);
+
+        Map<String, Object> thumbnail = new HashMap<>();
+        thumbnail.put("hash", hash);
+        thumbnail.put("data", base64Thumbnail);
+
+        Map<String, Object> updates = new HashMap<>();
+        updates.put(AVATARS_PATH + "/" + userId, avatar);
+        updates.put(AVATAR_THUMBNAILS_PATH + "/" + userId, thumbnail);
+        updates.put(USERS_PATH + "/" + userId + "/avatarHash", hash);
+
+        db.updateChildren(updates)
                 .addOnSuccessListener(v -> {
-                    if (callback != null) callback.onCompleted(null);
+                    avatarCache.put(userId, new String[]{hash, base64Image});
+                    thumbnailCache.put(userId, new String[]{hash, base64Thumbnail});
+                    if (callback != null) callback.onCompleted(hash);
                 })
                 .addOnFailureListener(e -> {
                     if (callback != null) callback.onFailed(e);
@@ -271,69 +728,60 @@ public class DatabaseService {
     }
 
     /**
-     * קבלת מילים לפי דרגה
+     * קבלת תמונת הפרופיל (base64) של משתמש.
+     * אם כבר הורדנו את אותה גרסה (לפי ה-hash) מחזיר אותה מהזיכרון בלי לפנות לשרת.
      */
-    public void getWordsByRank(int rank, DatabaseCallback<List<Word>> callback) {
-        db.child(WORDS_PATH).child("level" + rank).get()
-                .addOnSuccessListener(snapshot -> {
-                    List<Word> words = new ArrayList<>();
-                    for (DataSnapshot child : snapshot.getChildren()) {
-                        String id = child.getKey();
-                        String en = child.child("en").getValue(String.class);
-                        String he = child.child("he").getValue(String.class);
-
-                        if (id != null && en != null && he != null) {
-                            Word word = new Word(id, en, he, rank);
-                            words.add(word);
-                        }
-                    }
-                    callback.onCompleted(words);
-                })
-                .addOnFailureListener(callback::onFailed);
+    public void getAvatar(String userId, String hash, DatabaseCallback<String> callback) {
+        getAvatarVariant(AVATARS_PATH, avatarCache, userId, hash, false, callback);
     }
 
-    // ========== התקדמות בדרגות (Rank Progress) ==========
-
     /**
-     * קבלת כל המילים
+     * קבלת התמונה הקטנה של משתמש. מחזיר null אם אין כזו בגרסה המבוקשת
+     * (תמונות שנשמרו לפני שהתמונה הקטנה נוספה) - ואז צריך להשתמש ב-getAvatar.
      */
-    public void getAllWords(DatabaseCallback<List<Word>> callback) {
-        db.child(WORDS_PATH).get()
-                .addOnSuccessListener(snapshot -> {
-                    List<Word> allWords = new ArrayList<>();
-
-                    // עבור על כל הרמות (level1, level2, ...)
-                    for (DataSnapshot levelSnapshot : snapshot.getChildren()) {
-                        String levelKey = levelSnapshot.getKey();
-                        if (levelKey == null) continue;
+    public void getAvatarThumbnail(String userId, String hash, DatabaseCallback<String> callback) {
+        getAvatarVariant(AVATAR_THUMBNAILS_PATH, thumbnailCache, userId, hash, true, callback);
+    }
 
-                        // חילוץ מספר הדרגה
-                        int rank = Integer.parseInt(levelKey.replace("level", ""));
+    // exactHash: תמונה קטנה ישנה (מגרסה אחרת של התמונה) לא מוחזרת, כדי לא להציג תמונה אחרת מהגדולה
+    private void getAvatarVariant(String path, Map<String, String[]> cache, String userId, String hash,
+                                  boolean exactHash, DatabaseCallback<String> callback) {
+        if (hash == null) {
+            callback.onCompleted(null);
+            return;
+        }
 
-                        // עבור על כל המילים ברמה
-                        for (DataSnapshot wordSnapshot : levelSnapshot.getChildren()) {
-                            String id = wordSnapshot.getKey();
-                            String en = wordSnapshot.child("en").getValue(String.class);
-                            String he = wordSnapshot.child("he").getValue(String.class);
+        String[] cached = cache.get(userId);
+        if (cached != null && cached[0].equals(hash)) {
+            callback.onCompleted(cached[1]);
+            return;
+        }
 
-                            if (id != null && en != null && he != null) {
-                                Word word = new Word(id, en, he, rank);
-                                allWords.add(word);
-                            }
-                        }
+        db.child(path).child(userId).get()
+                .addOnSuccessListener(snapshot -> {
+                    String data = snapshot.child("data").getValue(String.class);
+                    String storedHash = snapshot.child("hash").getValue(String.class);
+                    if (data != null && storedHash != null) {
+                        cache.put(userId, new String[]{storedHash, data});
                     }
-                    callback.onCompleted(allWords);
+                    callback.onCompleted(!exactHash || hash.equals(storedHash) ? data : null);
                 })
                 .addOnFailureListener(callback::onFailed);
     }
 
     /**
-     * מחיקת מילה
+     * מחיקת תמונת הפרופיל של משתמש
      */
-    public void deleteWord(Word word, DatabaseCallback<Void> callback) {
-        String path = WORDS_PATH + "/level" + word.getRank() + "/" + word.getId();
-        db.child(path).removeValue()
+    public void deleteAvatar(String userId, DatabaseCallback<Void> callback) {
+        Map<String, Object> updates = new HashMap<>();
+        updates.put(AVATARS_PATH + "/" + userId, null);
+        updates.put(AVATAR_THUMBNAILS_PATH + "/" + userId, null);
+        updates.put(USERS_PATH + "/" + userId + "/avatarHash", null);
+
+        db.updateChildren(updates)
                 .addOnSuccessListener(v -> {
+                    avatarCache.remove(userId);
+                    thumbnailCache.remove(userId);
                     if (callback != null) callback.onCompleted(null);
                 })
                 .addOnFailureListener(e -> {
@@ -341,48 +789,52 @@ public class DatabaseService {
                 });
     }
 
-
     /**
-     * קבלת התקדמות לדרגה מסוימת
+     * מיגרציה חד-פעמית: העברת כל התמונות שנשמרו בתוך users/ אל avatars/
      */
-    public void getRankProgress(String userId, int rank, DatabaseCallback<RankProgressData> callback) {
-        String path = RANK_PROGRESS + "/" + userId + "/rank_" + rank;
-        db.child(path).get()
-                .addOnSuccessListener(snapshot -> {
-                    RankProgressData data = snapshot.getValue(RankProgressData.class);
-                    callback.onCompleted(data);
-                })
-                .addOnFailureListener(callback::onFailed);
-    }
+    public void migrateAvatarsIfNeeded(DatabaseCallback<Void> callback) {
+        db.child(MIGRATIONS_PATH).child(AVATARS_PATH).get()
+                .addOnSuccessListener(flag -> {
+                    if (Boolean.TRUE.equals(flag.getValue(Boolean.class))) {
+                        if (callback != null) callback.onCompleted(null);
+                        return;
+                    }
 
-    /**
-     * קבלת התקדמות בצורה בטוחה (יוצר אם לא קיים)
-     */
-    public void getRankProgressSafe(String userId, int rank, DatabaseCallback<RankProgressData> callback) {
-        getRankProgress(userId, rank, new DatabaseCallback<>() {
-            @Override
-            public void onCompleted(RankProgressData data) {
-                if (data == null) {
-                    data = new RankProgressData();
-                    updateRankProgress(userId, rank, data, null);
-                }
-                callback.onCompleted(data);
-            }
+                    db.child(USERS_PATH).get()
+                            .addOnSuccessListener(snapshot -> {
+                                Map<String, Object> updates = new HashMap<>();
+                                for (DataSnapshot child : snapshot.getChildren()) {
+                                    String picture = child.child(LEGACY_PICTURE_FIELD).getValue(String.class);
+                                    if (child.getKey() == null || picture == null) continue;
+                                    addLegacyAvatarMove(updates, child.getKey(), picture);
+                                }
+                                updates.put(MIGRATIONS_PATH + "/" + AVATARS_PATH, true);
 
-            @Override
-            public void onFailed(Exception e) {
-                // במקרה של שגיאה, החזר ערכים ברירת מחדל
-                callback.onCompleted(new RankProgressData());
-            }
-        });
+                                db.updateChildren(updates)
+                                        .addOnSuccessListener(v -> {
+                                            if (callback != null) callback.onCompleted(null);
+                                        })
+                                        .addOnFailureListener(e -> {
+                                            if (callback != null) callback.onFailed(e);
+                                        });
+                            })
+                            .addOnFailureListener(e -> {
+                                if (callback != null) callback.onFailed(e);
+                            });
+                })
+                .addOnFailureListener(e -> {
+                    if (callback != null) callback.onFailed(e);
+                });
     }
 
     /**
-     * עדכון התקדמות
+     * העברת התמונה הישנה של משתמש בודד אל avatars/
      */
-    public void updateRankProgress(String userId, int rank, RankProgressData data, DatabaseCallback<Void> callback) {
-        String path = RANK_PROGRESS + "/" + userId + "/rank_" + rank;
-        db.child(path).setValue(data)
+    private void moveLegacyAvatar(String userId, String picture, DatabaseCallback<Void> callback) {
+        Map<String, Object> updates = new HashMap<>();
+        addLegacyAvatarMove(updates, userId, picture);
+
+        db.updateChildren(updates)
                 .addOnSuccessListener(v -> {
                     if (callback != null) callback.onCompleted(null);
                 })
@@ -391,44 +843,1056 @@ public class DatabaseService {
                 });
     }
 
-    // ========== פונקציות עזר ==========
+    private void addLegacyAvatarMove(Map<String, Object> updates, String userId, String picture) {
+        if (picture.isEmpty()) {
+            updates.put(USERS_PATH + "/" + userId + "/" + LEGACY_PICTURE_FIELD, null);
+            return;
+        }
 
-    /**
-     * סימון שהמשתמש סקר את המילים
-     */
-    public void markWordsReviewedForRank(String userId, int rank, DatabaseCallback<Void> callback) {
-        getRankProgressSafe(userId, rank, new DatabaseCallback<>() {
-            @Override
-            public void onCompleted(RankProgressData data) {
-                data.hasReviewedWords = true;
-                updateRankProgress(userId, rank, data, callback);
-            }
+        String hash = hashAvatar(picture);
+        Map<String, Object> avatar = new HashMap<>();
+        avatar.put("hash", hash);
+        avatar.put("data", picture);
 
-            @Override
-            public void onFailed(Exception e) {
-                if (callback != null) callback.onFailed(e);
-            }
-        });
+        updates.put(AVATARS_PATH + "/" + userId, avatar);
+        updates.put(USERS_PATH + "/" + userId + "/avatarHash", hash);
+        updates.put(USERS_PATH + "/" + userId + "/" + LEGACY_PICTURE_FIELD, null);
     }
 
     /**
-     * הוספה למספר התרגולים
+     * hash קצר של תוכן התמונה - משמש כגרסה כדי לדעת מתי התמונה השתנתה
      */
-    public void incrementPracticeForRank(String userId, int rank, DatabaseCallback<Void> callback) {
-        getRankProgressSafe(userId, rank, new DatabaseCallback<>() {
-            @Override
-            public void onCompleted(RankProgressData data) {
-                data.practiceCount++;
-                updateRankProgress(userId, rank, data, callback);
+    static String hashAvatar(String base64Image) {
+        try {
+            MessageDigest digest = MessageDigest.getInstance("SHA-256");
+            byte[] bytes = digest.digest(base64Image.getBytes(StandardCharsets.UTF_8));
+            StringBuilder hex = new StringBuilder();
+            for (int i = 0; i < 8; i++) {
+                hex.append(String.format(Locale.ROOT, "%02x", bytes[i]));
             }
+            return hex.toString();
+        } catch (NoSuchAlgorithmException e) {
+            return Integer.toHexString(base64Image.hashCode());
+        }
+    }
 
-            @Override
-            public void onFailed(Exception e) {
+    // ========== מילים (Words) ==========
+
+    /**
+     * יצירת סטטיסטיקה חדשה למשתמש
+     */
+    public void createStats(Stats stats, DatabaseCallback<Void> callback) {
+        writeStats(stats, callback);
+    }
+
+    /**
+     * קבלת סטטיסטיקות של משתמש
+     */
+    public void getStats(String userId, DatabaseCallback<Stats> callback) {
+        db.child(STATS_PATH).child(userId).get()
+                .addOnSuccessListener(snapshot -> {
+                    Stats stats = SnapshotMappers.toStats(snapshot);
+                    rememberStats(userId, stats);
+                    callback.onCompleted(stats);
+                })
+                .addOnFailureListener(callback::onFailed);
+    }
+
+    /**
+     * עדכון סטטיסטיקות
+     */
+    public void updateStats(Stats stats, DatabaseCallback<Void> callback) {
+        writeStats(stats, callback);
+    }
+
+    /**
+     * כתיבת הסטטיסטיקות, יחד עם השורה שלהן בטבלת המובילים וההיסטוגרמות
+     */
+    private void writeStats(Stats stats, DatabaseCallback<Void> callback) {
+        Stats written = new Stats(stats.getUserId(), stats.getRank(), stats.getTotalScore());
+        changeStats(stats.getUserId(), (current, practiceCount) -> written, new DatabaseCallback<>() {
+            @Override
+            public void onCompleted(Stats result) {
+                if (callback != null) callback.onCompleted(null);
+            }
+
+            @Override
+            public void onFailed(Exception e) {
                 if (callback != null) callback.onFailed(e);
             }
         });
     }
 
+    /**
+     * שינוי של stats/{userId}: קריאה אחת, ואז כתיבה אחת (updateChildren) של הסטטיסטיקות יחד עם טבלת המובילים
+     * וההיסטוגרמות - כך שאף פעם לא נשמר אחד מהם בלי השני. אם מכשיר אחר כתב בין הקריאה לכתיבה,
+     * החוק על version דוחה את כל העדכון, וקוראים וכותבים שוב.
+     * מחזיר את הסטטיסטיקות כפי שנשמרו.
+     */
+    private void changeStats(String userId, StatsChange change, DatabaseCallback<Stats> callback) {
+        changeStats(userId, change, 0, 1, callback);
+    }
+
+    // practiceRank: דרגה שבה נספר תרגול שעבר באותה כתיבה, או 0
+    private void changeStats(String userId, StatsChange change, int practiceRank, int attempt,
+                             DatabaseCallback<Stats> callback) {
+        db.child(STATS_PATH).child(userId).get()
+                .addOnSuccessListener(statsSnapshot -> {
+                    if (practiceRank == 0) {
+                        commitStats(userId, statsSnapshot, change, 0, 0, attempt, callback);
+                        return;
+                    }
+
+                    db.child(StatsUpdates.practiceCountPath(userId, practiceRank)).get()
+                            .addOnSuccessListener(countSnapshot -> {
+                                Integer count = countSnapshot.getValue(Integer.class);
+                                int practiceCount = (count != null ? count : 0) + 1;
+                                commitStats(userId, statsSnapshot, change, practiceRank, practiceCount, attempt, callback);
+                            })
+                            .addOnFailureListener(e -> {
+                                if (callback != null) callback.onFailed(e);
+                            });
+                })
+                .addOnFailureListener(e -> {
+                    if (callback != null) callback.onFailed(e);
+                });
+    }
+
+    // practiceCount כולל את התרגול שנספר עכשיו
+    private void commitStats(String userId, DataSnapshot statsSnapshot, StatsChange change, int practiceRank,
+                             int practiceCount, int attempt, DatabaseCallback<Stats> callback) {
+        Stats before = SnapshotMappers.toStats(statsSnapshot);
+        Long version = statsSnapshot.child(StatsUpdates.VERSION).getValue(Long.class);
+        Stats after = change.apply(before, practiceCount);
+
+        Map<String, Object> updates = StatsUpdates.statsWrite(userId, before, version != null ? version : 0, after, practiceRank);
+        db.updateChildren(updates, (error, ref) -> {
+            if (error == null) {
+                rememberStats(userId, after);
+                RankProgressData cached = progressCache.get(progressKey(userId, practiceRank));
+                if (practiceRank > 0 && cached != null) cached.practiceCount = practiceCount;
+                if (callback != null) callback.onCompleted(after);
+            } else if (isWriteConflict(error) && attempt < MAX_WRITE_ATTEMPTS) {
+                changeStats(userId, change, practiceRank, attempt + 1, callback);
+            } else if (callback != null) {
+                callback.onFailed(error.toException());
+            }
+        });
+    }
+
+    // עדכון שנבנה מקריאה ישנה נדחה ב-validate של חוקי ה-Database, ו-Firebase מדווח על זה כ-PERMISSION_DENIED
+    private static boolean isWriteConflict(DatabaseError error) {
+        return error.getCode() == DatabaseError.PERMISSION_DENIED;
+    }
+
+    /**
+     * הערך החדש של הסטטיסטיקות מתוך הערך שנקרא מהשרת (null אם אין עדיין), ומספר התרגולים בדרגה
+     * כולל זה שנספר באותה כתיבה (0 אם לא נספר). רץ שוב אם הכתיבה נדחתה, ולכן בלי תופעות לוואי.
+     */
+    private interface StatsChange {
+        Stats apply(Stats current, int practiceCount);
+    }
+
+    // שמירת עותק - המסכים משנים את האובייקט שקיבלו לפני שהוא נכתב
+    private void rememberStats(String userId, Stats stats) {
+        if (stats == null) {
+            statsCache.remove(userId);
+        } else {
+            statsCache.put(userId, new Stats(userId, stats.getRank(), stats.getTotalScore()));
+        }
+    }
+
+    // ========== תוצאות משחק ==========
+
+    /**
+     * שמירת סבב שהסתיים ב-GameEngine (משמש כ-ResultSink של המשחקים).
+     * הניקוד, העלייה בדרגה, ספירת התרגול (אם עבר), טבלת המובילים וההיסטוגרמות נכתבים יחד בעדכון אחד,
+     * מהערכים שבשרת ולא מה-cache. מחזיר את הסטטיסטיקות החדשות.
+     */
+    public void submitGameResult(String userId, GameResult result, DatabaseCallback<Stats> callback) {
+        int rank = result.getRank();
+        int score = result.getScore();
+        changeStats(userId, (current, practiceCount) -> StatsUpdates.afterGameResult(userId, current, rank, score, practiceCount),
+                result.isPassed() ? rank : 0, 1, callback);
+    }
+
+    // ========== טבלת מובילים (Leaderboard) ==========
+
+    /**
+     * קבלת המובילים - שאילתה אחת ממוינת לפי ניקוד בשרת, מהגבוה לנמוך
+     */
+    public void getTopLeaderboard(int limit, DatabaseCallback<List<LeaderboardEntry>> callback) {
+        db.child(LEADERBOARD_PATH).orderByChild("score").limitToLast(limit).get()
+                .addOnSuccessListener(snapshot -> {
+                    List<LeaderboardEntry> entries = new ArrayList<>();
+                    for (DataSnapshot child : snapshot.getChildren()) {
+                        LeaderboardEntry entry = readLeaderboardEntry(child);
+                        if (entry != null) entries.add(entry);
+                    }
+
+                    // Firebase מחזיר בסדר עולה
+                    Collections.reverse(entries);
+                    for (int i = 0; i < entries.size(); i++) {
+                        // שווים בניקוד חולקים מקום (1, 2, 2, 4) - אותו כלל כמו ב-getLeaderboardPosition
+                        boolean tied = i > 0 && entries.get(i).getScore() == entries.get(i - 1).getScore();
+                        entries.get(i).setPosition(tied ? entries.get(i - 1).getPosition() : i + 1);
+                    }
+                    callback.onCompleted(entries);
+                })
+                .addOnFailureListener(callback::onFailed);
+    }
+
+    /**
+     * קבלת השורה של משתמש מסוים בטבלת המובילים
+     */
+    public void getLeaderboardEntry(String userId, DatabaseCallback<LeaderboardEntry> callback) {
+        db.child(LEADERBOARD_PATH).child(userId).get()
+                .addOnSuccessListener(snapshot -> callback.onCompleted(readLeaderboardEntry(snapshot)))
+                .addOnFailureListener(callback::onFailed);
+    }
+
+    /**
+     * חישוב המיקום של ניקוד מסוים בלי לקרוא שורות של משתמשים: 1 + כמה משתמשים עם ניקוד גבוה יותר,
+     * כך ששווים בניקוד חולקים מקום. סכום התאים הגבוהים בהיסטוגרמה + המונים של הניקודים הגבוהים
+     * בתוך התא של המשתמש (לכל היותר BUCKET_SIZE מספרים).
+     */
+    public void getLeaderboardPosition(int score, DatabaseCallback<Integer> callback) {
+        int myScore = Math.max(0, score);
+        String myBucket = String.valueOf(StatsUpdates.bucketOf(myScore));
+
+        // המפתחות הם מספרים, ו-Firebase ממיין אותם כמספרים - כך יורדים רק התאים שמעל
+        db.child(LEADERBOARD_BUCKETS_PATH).orderByKey().startAfter(myBucket).get()
+                .addOnSuccessListener(buckets -> {
+                    int above = sumCounts(buckets);
+                    db.child(LEADERBOARD_SCORE_COUNTS_PATH).child(myBucket)
+                            .orderByKey().startAfter(String.valueOf(myScore)).get()
+                            .addOnSuccessListener(scores -> callback.onCompleted(above + sumCounts(scores) + 1))
+                            .addOnFailureListener(callback::onFailed);
+                })
+                .addOnFailureListener(callback::onFailed);
+    }
+
+    private static int sumCounts(DataSnapshot counts) {
+        int sum = 0;
+        for (DataSnapshot child : counts.getChildren()) {
+            Integer count = child.getValue(Integer.class);
+            if (count != null) sum += Math.max(0, count);
+        }
+        return sum;
+    }
+
+    /**
+     * מיגרציה חד-פעמית: בניית שתי ההיסטוגרמות מתוך leaderboard/ הקיים
+     */
+    public void migrateLeaderboardBucketsIfNeeded(DatabaseCallback<Void> callback) {
+        db.child(MIGRATIONS_PATH).child(LEADERBOARD_SCORE_COUNTS_PATH).get()
+                .addOnSuccessListener(flag -> {
+                    if (Boolean.TRUE.equals(flag.getValue(Boolean.class))) {
+                        if (callback != null) callback.onCompleted(null);
+                        return;
+                    }
+
+                    db.child(LEADERBOARD_PATH).get()
+                            .addOnSuccessListener(snapshot -> {
+                                Map<String, Integer> buckets = new HashMap<>();
+                                Map<String, Map<String, Integer>> scoreCounts = new HashMap<>();
+                                for (DataSnapshot child : snapshot.getChildren()) {
+                                    Integer score = child.child("score").getValue(Integer.class);
+                                    if (score == null) continue;
+                                    String bucket = String.valueOf(StatsUpdates.bucketOf(score));
+                                    buckets.merge(bucket, 1, Integer::sum);
+                                    scoreCounts.computeIfAbsent(bucket, k -> new HashMap<>())
+                                            .merge(String.valueOf(Math.max(0, score)), 1, Integer::sum);
+                                }
+
+                                // החלפה של שני הצמתים, כדי שלא יישארו מונים ישנים
+                                Map<String, Object> updates = new HashMap<>();
+                                updates.put(LEADERBOARD_BUCKETS_PATH, buckets);
+                                updates.put(LEADERBOARD_SCORE_COUNTS_PATH, scoreCounts);
+                                updates.put(MIGRATIONS_PATH + "/" + LEADERBOARD_SCORE_COUNTS_PATH, true);
+
+                                db.updateChildren(updates)
+                                        .addOnSuccessListener(v -> {
+                                            if (callback != null) callback.onCompleted(null);
+                                        })
+                                        .addOnFailureListener(e -> {
+                                            if (callback != null) callback.onFailed(e);
+                                        });
+                            })
+                            .addOnFailureListener(e -> {
+                                if (callback != null) callback.onFailed(e);
+                            });
+                })
+                .addOnFailureListener(e -> {
+                    if (callback != null) callback.onFailed(e);
+                });
+    }
+
+    /**
+     * המרת snapshot לשורה. שורות בלי ניקוד (משתמש בלי סטטיסטיקות) לא מוצגות.
+     */
+    private LeaderboardEntry readLeaderboardEntry(DataSnapshot snapshot) {
+        Integer score = snapshot.child("score").getValue(Integer.class);
+        if (snapshot.getKey() == null || score == null) return null;
+
+        Integer rank = snapshot.child("rank").getValue(Integer.class);
+        String userName = snapshot.child("userName").getValue(String.class);
+        return new LeaderboardEntry(snapshot.getKey(), userName, score, rank != null ? rank : 1);
+    }
+
+    /**
+     * מיגרציה חד-פעמית: בניית leaderboard/ מתוך users/ ו-stats/ הקיימים
+     */
+    public void migrateLeaderboardIfNeeded(DatabaseCallback<Void> callback) {
+        db.child(MIGRATIONS_PATH).child(LEADERBOARD_PATH).get()
+                .addOnSuccessListener(flag -> {
+                    if (Boolean.TRUE.equals(flag.getValue(Boolean.class))) {
+                        if (callback != null) callback.onCompleted(null);
+                        return;
+                    }
+
+                    db.child(STATS_PATH).get()
+                            .addOnSuccessListener(statsSnapshot -> getUserList(new DatabaseCallback<>() {
+                                @Override
+                                public void onCompleted(List<User> users) {
+                                    Map<String, Object> updates = new HashMap<>();
+                                    for (User user : users) {
+                                        if (user.getId() == null) continue;
+                                        String base = LEADERBOARD_PATH + "/" + user.getId();
+                                        updates.put(base + "/userName", user.getUserName());
+
+                                        Stats stats = SnapshotMappers.toStats(statsSnapshot.child(user.getId()));
+                                        if (stats != null) {
+                                            updates.put(base + "/score", stats.getTotalScore());
+                                            updates.put(base + "/rank", stats.getRank());
+                                        }
+                                    }
+                                    updates.put(MIGRATIONS_PATH + "/" + LEADERBOARD_PATH, true);
+
+                                    db.updateChildren(updates)
+                                            .addOnSuccessListener(v -> {
+                                                if (callback != null) callback.onCompleted(null);
+                                            })
+                                            .addOnFailureListener(e -> {
+                                                if (callback != null) callback.onFailed(e);
+                                            });
+                                }
+
+                                @Override
+                                public void onFailed(Exception e) {
+                                    if (callback != null) callback.onFailed(e);
+                                }
+                            }))
+                            .addOnFailureListener(e -> {
+                                if (callback != null) callback.onFailed(e);
+                            });
+                })
+                .addOnFailureListener(e -> {
+                    if (callback != null) callback.onFailed(e);
+                });
+    }
+
+    /**
+     * יצירת מזהה חדש למילה
+     */
+    public String generateWordId(int rank) {
+        return db.child(WORDS_PATH).child("level" + rank).push().getKey();
+    }
+
+    /**
+     * הוספת מילה חדשה - יחד עם הגדלת הגרסה של הרמה, כדי שהעותקים המקומיים יתעדכנו.
+     * המילה נכנסת למקום האחרון באינדקס הרציף: המילה, המקום שלה, המונה והגרסה נכתבים בעדכון אחד,
+     * כך שכתיבה שנכשלה לא משאירה מקום ריק באינדקס.
+     */
+    public void createWord(Word word, DatabaseCallback<Void> callback) {
+        createWord(word, 1, callback);
+    }
+
+    private void createWord(Word word, int attempt, DatabaseCallback<Void> callback) {
+        String level = "level" + word.getRank();
+        readLevelIndex(level, new DatabaseCallback<>() {
+            @Override
+            public void onCompleted(LevelIndex index) {
+                int ordinal = index.count;
+
+                HashMap<String, Object> wordData = new HashMap<>();
+                wordData.put("en", word.getEnglish());
+                wordData.put("he", word.getHebrew());
+                wordData.put("ord", ordinal);
+
+                Map<String, Object> updates = new HashMap<>();
+                updates.put(WORDS_PATH + "/" + level + "/" + word.getId(), wordData);
+                updates.put(WORD_ORDINALS_PATH + "/" + level + "/" + ordinal, ordinalEntry(word));
+                updates.put(WORD_COUNTS_PATH + "/" + level, ordinal + 1);
+                updates.put(WORD_VERSIONS_PATH + "/" + level, index.version + 1);
+                commitWordChange(updates, attempt, () -> createWord(word, attempt + 1, callback), callback);
+            }
+
+            @Override
+            public void onFailed(Exception e) {
+                if (callback != null) callback.onFailed(e);
+            }
+        });
+    }
+
+    private static Map<String, Object> ordinalEntry(Word word) {
+        Map<String, Object> entry = new HashMap<>();
+        entry.put("id", word.getId());
+        entry.put("en", word.getEnglish());
+        entry.put("he", word.getHebrew());
+        return entry;
+    }
+
+    /**
+     * קבלת מילים לפי דרגה
+     */
+    public void getWordsByRank(int rank, DatabaseCallback<List<Word>> callback) {
+        db.child(WORD_VERSIONS_PATH).child("level" + rank).get()
+                .addOnSuccessListener(versionSnapshot -> {
+                    Long version = versionSnapshot.getValue(Long.class);
+                    loadLevel(rank, version, callback);
+                })
+                .addOnFailureListener(callback::onFailed);
+    }
+
+    /**
+     * הגרלת n מילים מרמה, בלי להוריד את כל הרמה.
+     * מגרילים מספרים סידוריים באינדקס הרציף וקוראים רק אותם, כך שכמות ההורדה תלויה במספר השאלות
+     * ולא בגודל הרמה. מילים שב-excludeIds (או מקומות ריקים באינדקס) מוחלפות בהגרלה נוספת.
+     */
+    public void getRandomWords(int rank, int n, Set<String> excludeIds, DatabaseCallback<List<Word>> callback) {
+        Set<String> excluded = excludeIds != null ? excludeIds : Collections.emptySet();
+        db.child(WORD_COUNTS_PATH).child("level" + rank).get()
+                .addOnSuccessListener(countSnapshot -> {
+                    Integer count = countSnapshot.getValue(Integer.class);
+                    if (count != null) {
+                        sampleOrdinals(rank, count, n, excluded, new HashSet<>(), new ArrayList<>(), callback);
+                        return;
+                    }
+
+                    // האינדקס עוד לא נבנה - הגרלה מתוך הרמה המלאה
+                    getWordsByRank(rank, new DatabaseCallback<>() {
+                        @Override
+                        public void onCompleted(List<Word> words) {
+                            List<Word> candidates = new ArrayList<>();
+                            for (Word word : words) {
+                                if (!excluded.contains(word.getId())) candidates.add(word);
+                            }
+                            Collections.shuffle(candidates, random);
+                            callback.onCompleted(new ArrayList<>(candidates.subList(0, Math.min(n, candidates.size()))));
+                        }
+
+                        @Override
+                        public void onFailed(Exception e) {
+                            callback.onFailed(e);
+                        }
+                    });
+                })
+                .addOnFailureListener(callback::onFailed);
+    }
+
+    private void sampleOrdinals(int rank, int count, int n, Set<String> excludeIds, Set<Integer> tried,
+                                List<Word> picked, DatabaseCallback<List<Word>> callback) {
+        int wanted = Math.min(n - picked.size(), count - tried.size());
+        if (wanted <= 0) {
+            Collections.shuffle(picked, random);
+            callback.onCompleted(picked);
+            return;
+        }
+
+        List<Integer> ordinals = new ArrayList<>();
+        while (ordinals.size() < wanted) {
+            int ordinal = random.nextInt(count);
+            if (tried.add(ordinal)) ordinals.add(ordinal);
+        }
+        Collections.sort(ordinals);
+
+        // מספרים צמודים נקראים בשאילתת טווח אחת
+        List<int[]> ranges = new ArrayList<>();
+        for (int ordinal : ordinals) {
+            int[] last = ranges.isEmpty() ? null : ranges.get(ranges.size() - 1);
+            if (last != null && last[1] + 1 == ordinal) {
+                last[1] = ordinal;
+            } else {
+                ranges.add(new int[]{ordinal, ordinal});
+            }
+        }
+
+        DatabaseReference levelRef = db.child(WORD_ORDINALS_PATH).child("level" + rank);
+        int[] pending = {ranges.size()};
+        boolean[] failed = {false};
+        for (int[] range : ranges) {
+            levelRef.orderByKey().startAt(String.valueOf(range[0])).endAt(String.valueOf(range[1])).get()
+                    .addOnSuccessListener(snapshot -> {
+                        if (failed[0]) return;
+                        for (DataSnapshot child : snapshot.getChildren()) {
+                            String id = child.child("id").getValue(String.class);
+                            String en = child.child("en").getValue(String.class);
+                            String he = child.child("he").getValue(String.class);
+                            if (id == null || en == null || he == null || excludeIds.contains(id)) continue;
+                            if (picked.size() < n) picked.add(new Word(id, en, he, rank));
+                        }
+
+                        if (--pending[0] == 0) {
+                            sampleOrdinals(rank, count, n, excludeIds, tried, picked, callback);
+                        }
+                    })
+                    .addOnFailureListener(e -> {
+                        if (failed[0]) return;
+                        failed[0] = true;
+                        callback.onFailed(e);
+                    });
+        }
+    }
+
+    // ========== התקדמות בדרגות (Rank Progress) ==========
+
+    /**
+     * קבלת כל המילים.
+     * קוראת רק את מספרי הגרסאות של הרמות, ומורידה רק רמות שהשתנו מאז הפעם האחרונה.
+     */
+    public void getAllWords(DatabaseCallback<List<Word>> callback) {
+        db.child(WORD_VERSIONS_PATH).get()
+                .addOnSuccessListener(versionsSnapshot -> {
+                    List<Integer> ranks = new ArrayList<>();
+                    List<Long> versions = new ArrayList<>();
+                    for (DataSnapshot child : versionsSnapshot.getChildren()) {
+                        String levelKey = child.getKey();
+                        Long version = child.getValue(Long.class);
+                        if (levelKey == null || version == null) continue;
+                        ranks.add(Integer.parseInt(levelKey.replace("level", "")));
+                        versions.add(version);
+                    }
+
+                    // עוד לא רצה המיגרציה של הגרסאות - הורדה מלאה כמו קודם
+                    if (ranks.isEmpty()) {
+                        downloadAllWords(callback);
+                        return;
+                    }
+
+                    List<List<Word>> results = new ArrayList<>();
+                    for (int i = 0; i < ranks.size(); i++) results.add(null);
+                    int[] pending = {ranks.size()};
+                    boolean[] failed = {false};
+
+                    for (int i = 0; i < ranks.size(); i++) {
+                        int index = i;
+                        loadLevel(ranks.get(i), versions.get(i), new DatabaseCallback<>() {
+                            @Override
+                            public void onCompleted(List<Word> words) {
+                                results.set(index, words);
+                                if (--pending[0] > 0 || failed[0]) return;
+
+                                List<Word> allWords = new ArrayList<>();
+                                for (List<Word> levelWords : results) allWords.addAll(levelWords);
+                                callback.onCompleted(allWords);
+                            }
+
+                            @Override
+                            public void onFailed(Exception e) {
+                                if (failed[0]) return;
+                                failed[0] = true;
+                                callback.onFailed(e);
+                            }
+                        });
+                    }
+                })
+                .addOnFailureListener(callback::onFailed);
+    }
+
+    /**
+     * רמה אחת: מהעותק המקומי אם הגרסה שלו עדכנית, אחרת מהשרת (ושמירה מקומית).
+     * רמה בלי גרסה בשרת לא נשמרת, כי אי אפשר לדעת מתי היא משתנה.
+     */
+    private void loadLevel(int rank, Long version, DatabaseCallback<List<Word>> callback) {
+        WordCache cache = WordCache.getInstance();
+        if (cache == null || version == null) {
+            downloadLevel(rank, null, callback);
+            return;
+        }
+
+        cache.get(rank, version, new DatabaseCallback<>() {
+            @Override
+            public void onCompleted(List<Word> cachedWords) {
+                if (cachedWords != null) {
+                    // עותק, כי המשחקים מערבבים את הרשימה שהם מקבלים
+                    callback.onCompleted(new ArrayList<>(cachedWords));
+                } else {
+                    downloadLevel(rank, version, callback);
+                }
+            }
+
+            @Override
+            public void onFailed(Exception e) {
+                downloadLevel(rank, version, callback);
+            }
+        });
+    }
+
+    private void downloadLevel(int rank, Long version, DatabaseCallback<List<Word>> callback) {
+        db.child(WORDS_PATH).child("level" + rank).get()
+                .addOnSuccessListener(snapshot -> parseInBackground("level" + rank, snapshot,
+                        levelSnapshot -> parseLevel(levelSnapshot, rank), new DatabaseCallback<>() {
+                            @Override
+                            public void onCompleted(List<Word> words) {
+                                WordCache cache = WordCache.getInstance();
+                                if (cache != null && version != null) {
+                                    cache.put(rank, version, new ArrayList<>(words));
+                                }
+                                callback.onCompleted(words);
+                            }
+
+                            @Override
+                            public void onFailed(Exception e) {
+                                callback.onFailed(e);
+                            }
+                        }))
+                .addOnFailureListener(callback::onFailed);
+    }
+
+    private void downloadAllWords(DatabaseCallback<List<Word>> callback) {
+        db.child(WORDS_PATH).get()
+                .addOnSuccessListener(snapshot -> parseInBackground(WORDS_PATH, snapshot, vocabulary -> {
+                    List<Word> allWords = new ArrayList<>();
+
+                    // עבור על כל הרמות (level1, level2, ...)
+                    for (DataSnapshot levelSnapshot : vocabulary.getChildren()) {
+                        String levelKey = levelSnapshot.getKey();
+                        if (levelKey == null) continue;
+
+                        // חילוץ מספר הדרגה
+                        int rank = Integer.parseInt(levelKey.replace("level", ""));
+                        allWords.addAll(parseLevel(levelSnapshot, rank));
+                    }
+                    return allWords;
+                }, callback))
+                .addOnFailureListener(callback::onFailed);
+    }
+
+    private static List<Word> parseLevel(DataSnapshot levelSnapshot, int rank) {
+        List<Word> words = new ArrayList<>();
+        for (DataSnapshot wordSnapshot : levelSnapshot.getChildren()) {
+            String id = wordSnapshot.getKey();
+            String en = wordSnapshot.child("en").getValue(String.class);
+            String he = wordSnapshot.child("he").getValue(String.class);
+
+            if (id != null && en != null && he != null) {
+                words.add(new Word(id, en, he, rank));
+            }
+        }
+        return words;
+    }
+
+    /**
+     * מחיקת מילה - יחד עם הגדלת הגרסה של הרמה.
+     * כדי שהאינדקס הרציף יישאר בלי חורים, המילה האחרונה באינדקס עוברת למקום של המילה שנמחקה.
+     * המחיקה, ההזזה, המונה והגרסה נכתבים בעדכון אחד, מערכים שנקראו אחרי הגרסה - אם מילה נוספה או נמחקה
+     * בינתיים, הגרסה כבר השתנתה והעדכון כולו נדחה, וקוראים שוב.
+     */
+    public void deleteWord(Word word, DatabaseCallback<Void> callback) {
+        deleteWord(word, 1, callback);
+    }
+
+    private void deleteWord(Word word, int attempt, DatabaseCallback<Void> callback) {
+        String level = "level" + word.getRank();
+        String wordPath = WORDS_PATH + "/" + level + "/" + word.getId();
+        Runnable retry = () -> deleteWord(word, attempt + 1, callback);
+
+        readLevelIndex(level, new DatabaseCallback<>() {
+            @Override
+            public void onCompleted(LevelIndex index) {
+                db.child(wordPath).child("ord").get()
+                        .addOnSuccessListener(ordSnapshot -> {
+                            Integer ordinal = ordSnapshot.getValue(Integer.class);
+
+                            Map<String, Object> updates = new HashMap<>();
+                            updates.put(wordPath, null);
+                            updates.put(WORD_VERSIONS_PATH + "/" + level, index.version + 1);
+
+                            // מילה שלא נכנסה לאינדקס (לפני המיגרציה) - מחיקה פשוטה
+                            if (ordinal == null || ordinal >= index.count) {
+                                commitWordChange(updates, attempt, retry, callback);
+                                return;
+                            }
+
+                            int last = index.count - 1;
+                            String ordinalsPath = WORD_ORDINALS_PATH + "/" + level;
+                            updates.put(WORD_COUNTS_PATH + "/" + level, last);
+                            updates.put(ordinalsPath + "/" + last, null);
+                            if (last == ordinal) {
+                                commitWordChange(updates, attempt, retry, callback);
+                                return;
+                            }
+                            moveLastOrdinal(level, last, ordinal, updates, attempt, retry, callback);
+                        })
+                        .addOnFailureListener(e -> {
+                            if (callback != null) callback.onFailed(e);
+                        });
+            }
+
+            @Override
+            public void onFailed(Exception e) {
+                if (callback != null) callback.onFailed(e);
+            }
+        });
+    }
+
+    // הרשומה מהמקום האחרון עוברת לחור; מקום אחרון ריק (לא אמור לקרות) משאיר חור, ש-sampleOrdinals מדלג עליו
+    private void moveLastOrdinal(String level, int last, int hole, Map<String, Object> updates, int attempt,
+                                 Runnable retry, DatabaseCallback<Void> callback) {
+        String ordinalsPath = WORD_ORDINALS_PATH + "/" + level;
+        db.child(ordinalsPath).child(String.valueOf(last)).get()
+                .addOnSuccessListener(lastSnapshot -> {
+                    Object moved = lastSnapshot.getValue();
+                    Object lastId = moved instanceof Map ? ((Map<?, ?>) moved).get("id") : null;
+                    if (lastId instanceof String) {
+                        updates.put(ordinalsPath + "/" + hole, moved);
+                        updates.put(WORDS_PATH + "/" + level + "/" + lastId + "/ord", hole);
+                    } else {
+                        updates.put(ordinalsPath + "/" + hole, null);
+                    }
+                    commitWordChange(updates, attempt, retry, callback);
+                })
+                .addOnFailureListener(e -> {
+                    if (callback != null) callback.onFailed(e);
+                });
+    }
+
+    /**
+     * הגרסה והמונה של האינדקס הרציף של רמה. הגרסה נקראת ראשונה: כל שינוי באינדקס אחרי הקריאה שלה מעלה אותה,
+     * והעדכון שנבנה מהקריאה נדחה.
+     */
+    private void readLevelIndex(String level, DatabaseCallback<LevelIndex> callback) {
+        db.child(WORD_VERSIONS_PATH).child(level).get()
+                .addOnSuccessListener(versionSnapshot -> db.child(WORD_COUNTS_PATH).child(level).get()
+                        .addOnSuccessListener(countSnapshot -> {
+                            Long version = versionSnapshot.getValue(Long.class);
+                            Integer count = countSnapshot.getValue(Integer.class);
+                            callback.onCompleted(new LevelIndex(version != null ? version : 0, count != null ? count : 0));
+                        })
+                        .addOnFailureListener(callback::onFailed))
+                .addOnFailureListener(callback::onFailed);
+    }
+
+    // עדכון שנדחה בגלל הגרסה (מילה נוספה או נמחקה בינתיים) - retry קורא הכל מחדש
+    private void commitWordChange(Map<String, Object> updates, int attempt, Runnable retry, DatabaseCallback<Void> callback) {
+        db.updateChildren(updates, (error, ref) -> {
+            if (error == null) {
+                if (callback != null) callback.onCompleted(null);
+            } else if (isWriteConflict(error) && attempt < MAX_WRITE_ATTEMPTS) {
+                retry.run();
+            } else if (callback != null) {
+                callback.onFailed(error.toException());
+            }
+        });
+    }
+
+    /**
+     * מיגרציה חד-פעמית: מספר גרסה לכל רמה קיימת, כדי שאפשר יהיה לשמור אותן מקומית
+     */
+    public void migrateWordVersionsIfNeeded(DatabaseCallback<Void> callback) {
+        db.child(MIGRATIONS_PATH).child(WORD_VERSIONS_PATH).get()
+                .addOnSuccessListener(flag -> {
+                    if (Boolean.TRUE.equals(flag.getValue(Boolean.class))) {
+                        if (callback != null) callback.onCompleted(null);
+                        return;
+                    }
+
+                    Map<String, Object> updates = new HashMap<>();
+                    for (int rank : RANK_REQUIREMENTS.keySet()) {
+                        updates.put(WORD_VERSIONS_PATH + "/level" + rank, ServerValue.increment(1));
+                    }
+                    updates.put(MIGRATIONS_PATH + "/" + WORD_VERSIONS_PATH, true);
+
+                    db.updateChildren(updates)
+                            .addOnSuccessListener(v -> {
+                                if (callback != null) callback.onCompleted(null);
+                            })
+                            .addOnFailureListener(e -> {
+                                if (callback != null) callback.onFailed(e);
+                            });
+                })
+                .addOnFailureListener(e -> {
+                    if (callback != null) callback.onFailed(e);
+                });
+    }
+
+    /**
+     * מיגרציה חד-פעמית: בניית האינדקס הרציף מכל המילים הקיימות
+     */
+    public void migrateWordOrdinalsIfNeeded(DatabaseCallback<Void> callback) {
+        db.child(MIGRATIONS_PATH).child(WORD_ORDINALS_PATH).get()
+                .addOnSuccessListener(flag -> {
+                    if (Boolean.TRUE.equals(flag.getValue(Boolean.class))) {
+                        if (callback != null) callback.onCompleted(null);
+                        return;
+                    }
+                    rebuildWordOrdinals(callback);
+                })
+                .addOnFailureListener(e -> {
+                    if (callback != null) callback.onFailed(e);
+                });
+    }
+
+    /**
+     * בנייה מחדש של האינדקס הרציף מכל המילים שבשרת
+     */
+    private void rebuildWordOrdinals(DatabaseCallback<Void> callback) {
+        db.child(WORDS_PATH).get()
+                .addOnSuccessListener(snapshot -> {
+                    Map<String, Object> ordinals = new HashMap<>();
+                    Map<String, Object> counts = new HashMap<>();
+                    Map<String, Object> updates = new HashMap<>();
+
+                    for (DataSnapshot levelSnapshot : snapshot.getChildren()) {
+                        String levelKey = levelSnapshot.getKey();
+                        if (levelKey == null) continue;
+                        int rank = Integer.parseInt(levelKey.replace("level", ""));
+
+                        Map<String, Object> levelOrdinals = new HashMap<>();
+                        List<Word> words = parseLevel(levelSnapshot, rank);
+                        for (int i = 0; i < words.size(); i++) {
+                            Word word = words.get(i);
+                            levelOrdinals.put(String.valueOf(i), ordinalEntry(word));
+                            updates.put(WORDS_PATH + "/" + levelKey + "/" + word.getId() + "/ord", i);
+                        }
+                        ordinals.put(levelKey, levelOrdinals);
+                        counts.put(levelKey, words.size());
+                    }
+
+                    // החלפה של הצמתים כולם, כדי שלא יישארו רשומות ישנות
+                    updates.put(WORD_ORDINALS_PATH, ordinals);
+                    updates.put(WORD_COUNTS_PATH, counts);
+                    updates.put(MIGRATIONS_PATH + "/" + WORD_ORDINALS_PATH, true);
+
+                    db.updateChildren(updates)
+                            .addOnSuccessListener(v -> {
+                                if (callback != null) callback.onCompleted(null);
+                            })
+                            .addOnFailureListener(e -> {
+                                if (callback != null) callback.onFailed(e);
+                            });
+                })
+                .addOnFailureListener(e -> {
+                    if (callback != null) callback.onFailed(e);
+                });
+    }
+
+    // ========== ייבוא אוצר המילים ==========
+
+    /**
+     * האם הייבוא הראשוני כבר הסתיים (בכל מכשיר שהוא)
+     */
+    public void isVocabularyImportDone(DatabaseCallback<Boolean> callback) {
+        db.child(MIGRATIONS_PATH).child(VOCABULARY_IMPORT_PATH).child("done").get()
+                .addOnSuccessListener(snapshot -> callback.onCompleted(Boolean.TRUE.equals(snapshot.getValue(Boolean.class))))
+                .addOnFailureListener(callback::onFailed);
+    }
+
+    /**
+     * אילו חלקים של הייבוא כבר נכתבו - כדי שייבוא שנקטע ימשיך מאותה נקודה
+     */
+    public void getImportedVocabularyChunks(DatabaseCallback<Set<Integer>> callback) {
+        db.child(MIGRATIONS_PATH).child(VOCABULARY_IMPORT_PATH).child("chunks").get()
+                .addOnSuccessListener(snapshot -> {
+                    Set<Integer> chunks = new HashSet<>();
+                    for (DataSnapshot child : snapshot.getChildren()) {
+                        String key = child.getKey();
+                        if (key != null) chunks.add(Integer.parseInt(key));
+                    }
+                    callback.onCompleted(chunks);
+                })
+                .addOnFailureListener(callback::onFailed);
+    }
+
+    /**
+     * כתיבת חלק אחד של הייבוא בעדכון אחד, יחד עם הסימון שהחלק נכתב.
+     * השדות נכתבים אחד-אחד כדי לא למחוק את המספר הסידורי של מילה שכבר קיימת.
+     * אפשר לקרוא מכל thread.
+     */
+    public void importVocabularyChunk(int chunkIndex, List<Word> words, DatabaseCallback<Void> callback) {
+        Map<String, Object> updates = new HashMap<>();
+        Set<Integer> ranks = new HashSet<>();
+        for (Word word : words) {
+            String path = WORDS_PATH + "/level" + word.getRank() + "/" + word.getId();
+            updates.put(path + "/en", word.getEnglish());
+            updates.put(path + "/he", word.getHebrew());
+            ranks.add(word.getRank());
+        }
+        for (int rank : ranks) {
+            updates.put(WORD_VERSIONS_PATH + "/level" + rank, ServerValue.increment(1));
+        }
+        updates.put(MIGRATIONS_PATH + "/" + VOCABULARY_IMPORT_PATH + "/chunks/" + chunkIndex, true);
+
+        db.updateChildren(updates)
+                .addOnSuccessListener(v -> {
+                    if (callback != null) callback.onCompleted(null);
+                })
+                .addOnFailureListener(e -> {
+                    if (callback != null) callback.onFailed(e);
+                });
+    }
+
+    /**
+     * סיום הייבוא: סימון שהסתיים ובניית האינדקס הרציף כך שיכלול את המילים החדשות
+     */
+    public void finishVocabularyImport(DatabaseCallback<Void> callback) {
+        Map<String, Object> updates = new HashMap<>();
+        updates.put(MIGRATIONS_PATH + "/" + VOCABULARY_IMPORT_PATH + "/done", true);
+        updates.put(MIGRATIONS_PATH + "/" + VOCABULARY_IMPORT_PATH + "/chunks", null);
+
+        db.updateChildren(updates)
+                .addOnSuccessListener(v -> rebuildWordOrdinals(callback))
+                .addOnFailureListener(e -> {
+                    if (callback != null) callback.onFailed(e);
+                });
+    }
+
+    /**
+     * קבלת התקדמות לדרגה מסוימת
+     */
+    public void getRankProgress(String userId, int rank, DatabaseCallback<RankProgressData> callback) {
+        String path = RANK_PROGRESS + "/" + userId + "/rank_" + rank;
+        db.child(path).get()
+                .addOnSuccessListener(snapshot -> {
+                    RankProgressData data = SnapshotMappers.toRankProgress(snapshot);
+                    rememberProgress(userId, rank, data != null ? data : new RankProgressData());
+                    callback.onCompleted(data);
+                })
+                .addOnFailureListener(callback::onFailed);
+    }
+
+    /**
+     * קבלת התקדמות בצורה בטוחה (יוצר אם לא קיים)
+     */
+    public void getRankProgressSafe(String userId, int rank, DatabaseCallback<RankProgressData> callback) {
+        getRankProgress(userId, rank, new DatabaseCallback<>() {
+            @Override
+            public void onCompleted(RankProgressData data) {
+                // אין צורך לכתוב ברירת מחדל לשרת - כתיבה של כל האובייקט הייתה דורסת הגדלה מקבילה ממכשיר אחר
+                if (data == null) {
+                    data = new RankProgressData();
+                }
+                callback.onCompleted(data);
+            }
+
+            @Override
+            public void onFailed(Exception e) {
+                // במקרה של שגיאה, החזר ערכים ברירת מחדל
+                callback.onCompleted(new RankProgressData());
+            }
+        });
+    }
+
+    /**
+     * עדכון התקדמות
+     */
+    public void updateRankProgress(String userId, int rank, RankProgressData data, DatabaseCallback<Void> callback) {
+        String path = RANK_PROGRESS + "/" + userId + "/rank_" + rank;
+        db.child(path).setValue(SnapshotMappers.fromRankProgress(data))
+                .addOnSuccessListener(v -> {
+                    rememberProgress(userId, rank, data);
+                    if (callback != null) callback.onCompleted(null);
+                })
+                .addOnFailureListener(e -> {
+                    if (callback != null) callback.onFailed(e);
+                });
+    }
+
+    // ========== פונקציות עזר ==========
+
+    /**
+     * סימון שהמשתמש סקר את המילים - כתיבה של השדה הבודד בלבד, בלי לקרוא קודם
+     */
+    public void markWordsReviewedForRank(String userId, int rank, DatabaseCallback<Void> callback) {
+        String path = RANK_PROGRESS + "/" + userId + "/rank_" + rank + "/hasReviewedWords";
+        db.child(path).setValue(true)
+                .addOnSuccessListener(v -> {
+                    RankProgressData cached = progressCache.get(progressKey(userId, rank));
+                    if (cached != null) cached.hasReviewedWords = true;
+                    if (callback != null) callback.onCompleted(null);
+                })
+                .addOnFailureListener(e -> {
+                    if (callback != null) callback.onFailed(e);
+                });
+    }
+
+    /**
+     * הוספה למספר התרגולים - הגדלה אטומית בשרת, כך ששני מכשירים שמסיימים יחד לא מאבדים עדכון.
+     * אותה הגדלה (StatsUpdates.practiceIncrement) נשלחת גם בסוף משחק שעבר, יחד עם הניקוד.
+     */
+    public void incrementPracticeForRank(String userId, int rank, DatabaseCallback<Void> callback) {
+        db.updateChildren(StatsUpdates.practiceIncrement(userId, rank))
+                .addOnSuccessListener(v -> {
+                    RankProgressData cached = progressCache.get(progressKey(userId, rank));
+                    if (cached != null) cached.practiceCount++;
+                    if (callback != null) callback.onCompleted(null);
+                })
+                .addOnFailureListener(e -> {
+                    if (callback != null) callback.onFailed(e);
+                });
+    }
+
+    private static String progressKey(String userId, int rank) {
+        return userId + "/rank_" + rank;
+    }
+
+    private void rememberProgress(String userId, int rank, RankProgressData data) {
+        RankProgressData copy = new RankProgressData();
+        copy.practiceCount = data.practiceCount;
+        copy.hasReviewedWords = data.hasReviewedWords;
+        progressCache.put(progressKey(userId, rank), copy);
+    }
+
+    // ========== פענוח ברקע ==========
+
+    /**
+     * הפיכת snapshot גדול לרשימת מודלים על thread ברקע, והחזרת התוצאה המוכנה ל-main thread.
+     * ה-listeners של Firebase רצים על ה-main thread, ופענוח של רמה שלמה או של כל המשתמשים שם
+     * גורם לקפיצות בדיוק כשמסך המשחק נפתח. DataSnapshot הוא immutable ולכן בטוח לקריאה מכל thread.
+     */
+    private <T> void parseInBackground(String label, DataSnapshot snapshot, SnapshotParser<T> parser,
+                                       DatabaseCallback<T> callback) {
+        parseExecutor.execute(() -> {
+            long start = SystemClock.elapsedRealtimeNanos();
+            T result;
+            try {
+                result = parser.parse(snapshot);
+            } catch (RuntimeException e) {
+                mainHandler.post(() -> callback.onFailed(e));
+                return;
+            }
+            long micros = (SystemClock.elapsedRealtimeNanos() - start) / 1000;
+            long children = snapshot.getChildrenCount();
+
+            mainHandler.post(() -> {
+                if (parseTimingListener != null) parseTimingListener.onParsed(label, children, micros);
+                callback.onCompleted(result);
+            });
+        });
+    }
+
+    /**
+     * מדידת זמן הפענוח של כל קריאה (למשל לבדיקות ביצועים). null כדי להפסיק.
+     */
+    public void setParseTimingListener(ParseTimingListener listener) {
+        parseTimingListener = listener;
+    }
+
+    /**
+     * פענוח snapshot למודל - רץ על thread ברקע
+     */
+    private interface SnapshotParser<T> {
+        T parse(DataSnapshot snapshot);
+    }
+
+    /**
+     * מקבל את זמן הפענוח של כל קריאה, על ה-main thread
+     */
+    public interface ParseTimingListener {
+        void onParsed(String label, long children, long micros);
+    }
+
     /**
      * ממשק לטיפול בתגובות מהדאטהבייס
      */
@@ -438,6 +1902,17 @@ public class DatabaseService {
         void onFailed(Exception e);   // כשל
     }
 
+    // הגרסה והמונה של האינדקס הרציף של רמה, כפי שנקראו
+    private static class LevelIndex {
+        final long version;
+        final int count;
+
+        LevelIndex(long version, int count) {
+            this.version = version;
+            this.count = count;
+        }
+    }
+
     /**
      * מחלקה לנתוני התקדמות
      */
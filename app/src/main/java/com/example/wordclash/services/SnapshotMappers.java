@@ -0,0 +1,158 @@
+package com.example.wordclash.services;
+
+import com.example.wordclash.models.Stats;
+import com.example.wordclash.models.User;
+import com.example.wordclash.models.Word;
+import com.google.firebase.database.DataSnapshot;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * המרה ידנית בין snapshots של Firebase למודלים, שדה אחרי שדה.
+ * מחליפה את getValue(Class) / setValue(Object), שעוברים על המחלקה ב-reflection עבור כל אובייקט -
+ * איטי ומקצה הרבה זיכרון כשממפים מאות משתמשים בבת אחת.
+ * כל רשומה נקראת פעם אחת כ-Map (getValue()) ולא דרך child() לכל שדה - child() בונה snapshot, reference
+ * ו-path חדשים לכל שדה, וזה עולה בערך כמו ה-reflection עצמו.
+ * שמות השדות זהים למה ש-Firebase כתב עד עכשיו, כך שהנתונים הקיימים נקראים כרגיל.
+ */
+final class SnapshotMappers {
+
+    private SnapshotMappers() {
+    }
+
+    // ========== User ==========
+
+    static User toUser(DataSnapshot snapshot) {
+        Map<?, ?> map = mapOf(snapshot.getValue());
+        if (map == null) return null;
+
+        User user = new User();
+        user.setId(stringOf(map.get("id")));
+        user.setEmail(stringOf(map.get("email")));
+        user.setPassword(stringOf(map.get("password")));
+        user.setUserName(stringOf(map.get("userName")));
+        user.setGender(stringOf(map.get("gender")));
+        user.setAdmin(booleanOf(map.get("admin"), false));
+        user.setAvatarHash(stringOf(map.get("avatarHash")));
+
+        String learningLanguage = stringOf(map.get("learningLanguage"));
+        if (learningLanguage != null) user.setLearningLanguage(learningLanguage);
+
+        // Firebase מחזיר רשימה כ-List כשהמפתחות הם 0..n-1, ואחרת כ-Map
+        Object wordsValue = map.get("words");
+        Iterable<?> wordValues = wordsValue instanceof List ? (List<?>) wordsValue
+                : wordsValue instanceof Map ? ((Map<?, ?>) wordsValue).values() : null;
+        if (wordValues != null) {
+            ArrayList<Word> words = new ArrayList<>();
+            for (Object value : wordValues) {
+                Word word = wordOf(value);
+                if (word != null) words.add(word);
+            }
+            user.setWords(words);
+        }
+        return user;
+    }
+
+    static Map<String, Object> fromUser(User user) {
+        Map<String, Object> map = new HashMap<>();
+        map.put("id", user.getId());
+        map.put("email", user.getEmail());
+        map.put("password", user.getPassword());
+        map.put("userName", user.getUserName());
+        map.put("gender", user.getGender());
+        map.put("admin", user.isAdmin());
+        map.put("avatarHash", user.getAvatarHash());
+        map.put("learningLanguage", user.getLearningLanguage());
+        // עותקים באותיות קטנות, לחיפוש לפי תחילית בשרת (orderByChild) במסך רשימת המשתמשים
+        map.put(DatabaseService.USER_NAME_LOWER, searchKey(user.getUserName()));
+        map.put(DatabaseService.EMAIL_LOWER, searchKey(user.getEmail()));
+
+        if (user.getWords() != null && !user.getWords().isEmpty()) {
+            List<Object> words = new ArrayList<>();
+            for (Word word : user.getWords()) words.add(fromWord(word));
+            map.put("words", words);
+        }
+        return map;
+    }
+
+    static String searchKey(String value) {
+        return value == null ? null : value.trim().toLowerCase(Locale.ROOT);
+    }
+
+    // ========== Stats ==========
+
+    static Stats toStats(DataSnapshot snapshot) {
+        return statsOf(snapshot.getValue());
+    }
+
+    private static Stats statsOf(Object value) {
+        Map<?, ?> map = mapOf(value);
+        if (map == null) return null;
+        return new Stats(stringOf(map.get("userId")), intOf(map.get("rank"), 0), intOf(map.get("totalScore"), 0));
+    }
+
+    // ========== Word (כפי שנשמרת בתוך משתמש) ==========
+
+    static Word toWord(DataSnapshot snapshot) {
+        return wordOf(snapshot.getValue());
+    }
+
+    private static Word wordOf(Object value) {
+        Map<?, ?> map = mapOf(value);
+        if (map == null) return null;
+        return new Word(stringOf(map.get("id")), stringOf(map.get("english")),
+                stringOf(map.get("hebrew")), intOf(map.get("rank"), 0));
+    }
+
+    static Map<String, Object> fromWord(Word word) {
+        Map<String, Object> map = new HashMap<>();
+        map.put("id", word.getId());
+        map.put("english", word.getEnglish());
+        map.put("hebrew", word.getHebrew());
+        map.put("rank", word.getRank());
+        return map;
+    }
+
+    // ========== RankProgressData ==========
+
+    static DatabaseService.RankProgressData toRankProgress(DataSnapshot snapshot) {
+        Map<?, ?> map = mapOf(snapshot.getValue());
+        if (map == null) return null;
+
+        DatabaseService.RankProgressData data = new DatabaseService.RankProgressData();
+        data.practiceCount = intOf(map.get("practiceCount"), 0);
+        data.hasReviewedWords = booleanOf(map.get("hasReviewedWords"), false);
+        return data;
+    }
+
+    static Map<String, Object> fromRankProgress(DatabaseService.RankProgressData data) {
+        Map<String, Object> map = new HashMap<>();
+        map.put("practiceCount", data.practiceCount);
+        map.put("hasReviewedWords", data.hasReviewedWords);
+        return map;
+    }
+
+    // ========== קריאת שדה בודד ==========
+
+    // רשומה שאינה אובייקט (או שלא קיימת) נחשבת כחסרה
+    private static Map<?, ?> mapOf(Object value) {
+        return value instanceof Map ? (Map<?, ?>) value : null;
+    }
+
+    private static String stringOf(Object value) {
+        return value instanceof String ? (String) value : null;
+    }
+
+    // Firebase מחזיר מספרים שלמים כ-Long (ולפעמים כ-Double)
+    private static int intOf(Object value, int defaultValue) {
+        return value instanceof Number ? ((Number) value).intValue() : defaultValue;
+    }
+
+    private static boolean booleanOf(Object value, boolean defaultValue) {
+        return value instanceof Boolean ? (Boolean) value : defaultValue;
+    }
+}
@@ -0,0 +1,115 @@
+package com.example.wordclash.services;
+
+import java.io.File;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * קבצי שמע מוכנים של מילים, בתיקיית ה-cache של האפליקציה.
+ * כל קובץ נשמר לפי מפתח של מזהה מילה + שפה + קול, והגודל הכולל מוגבל ל-maxBytes:
+ * כשעוברים אותו נמחקים הקבצים שלא הושמעו הכי הרבה זמן (LRU).
+ * הסדר נשמר בזיכרון, ובעליית האפליקציה נבנה מחדש לפי זמן השינוי של הקבצים.
+ */
+class SpeechAudioCache {
+
+    private static final String EXTENSION = ".wav";
+
+    private final File dir;
+    private final long maxBytes;
+    private final LinkedHashMap<String, Long> sizes = new LinkedHashMap<>(16, 0.75f, true); // מפתח -> גודל, לפי סדר שימוש
+    private long totalBytes;
+    private boolean loaded;
+
+    SpeechAudioCache(File dir, long maxBytes) {
+        this.dir = dir;
+        this.maxBytes = maxBytes;
+    }
+
+    /**
+     * Build the index from the files on disk. Does disk IO; call off the main thread.
+     */
+    synchronized void load() {
+        if (loaded) return;
+        loaded = true;
+
+        File[] files = dir.listFiles();
+        if (files == null) {
+            dir.mkdirs();
+            return;
+        }
+
+        // הקבצים הישנים נכנסים ראשונים, כך שהם גם הראשונים למחיקה
+        Arrays.sort(files, (a, b) -> Long.compare(a.lastModified(), b.lastModified()));
+        for (File file : files) {
+            String name = file.getName();
+            if (!name.endsWith(EXTENSION)) {
+                file.delete(); // קובץ זמני של סינתזה שנקטעה
+                continue;
+            }
+            long size = file.length();
+            sizes.put(name.substring(0, name.length() - EXTENSION.length()), size);
+            totalBytes += size;
+        }
+        trim();
+    }
+
+    /**
+     * The audio file for a key, or null if it isn't cached. Marks it as recently used.
+     */
+    synchronized File get(String key) {
+        if (sizes.get(key) == null) return null;
+        return fileFor(key);
+    }
+
+    synchronized boolean contains(String key) {
+        return sizes.containsKey(key);
+    }
+
+    /**
+     * Where the synthesizer should write, before the file is committed
+     */
+    File tempFileFor(String key) {
+        return new File(dir, key + ".tmp");
+    }
+
+    /**
+     * Move a finished temp file into the cache, evicting old files if the cache is over its size
+     */
+    synchronized void commit(String key) {
+        File temp = tempFileFor(key);
+        File file = fileFor(key);
+        if (!temp.exists() || !temp.renameTo(file)) {
+            temp.delete();
+            return;
+        }
+
+        Long previous = sizes.put(key, file.length());
+        if (previous != null) totalBytes -= previous;
+        totalBytes += file.length();
+        trim();
+    }
+
+    private void trim() {
+        Iterator<Map.Entry<String, Long>> iterator = sizes.entrySet().iterator();
+        while (totalBytes > maxBytes && iterator.hasNext()) {
+            Map.Entry<String, Long> oldest = iterator.next();
+            fileFor(oldest.getKey()).delete();
+            totalBytes -= oldest.getValue();
+            iterator.remove();
+        }
+    }
+
+    private File fileFor(String key) {
+        return new File(dir, key + EXTENSION);
+    }
+
+    /**
+     * A file-name-safe key for a word in a given language and voice
+     */
+    static String keyOf(String wordId, String languageTag, String voiceName) {
+        String raw = wordId + "_" + languageTag + "_" + (voiceName != null ? voiceName : "default");
+        return raw.replaceAll("[^A-Za-z0-9._-]", "_");
+    }
+}
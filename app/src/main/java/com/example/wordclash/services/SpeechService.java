@@ -0,0 +1,385 @@
+package com.example.wordclash.services;
+
+import android.content.Context;
+import android.content.SharedPreferences;
+import android.media.AudioAttributes;
+import android.media.MediaPlayer;
+import android.os.Handler;
+import android.os.Looper;
+import android.speech.tts.TextToSpeech;
+import android.speech.tts.UtteranceProgressListener;
+import android.speech.tts.Voice;
+import android.util.Log;
+
+import com.example.wordclash.models.Word;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+/**
+ * מנוע דיבור (TextToSpeech) אחד לכל האפליקציה.
+ * המנוע עולה פעם אחת (כבר במסך בחירת המשחקים - warmUp), והשפה שנמצאה לכל שפת לימוד נשמרת,
+ * כך שמשחק שנפתח שוב מקבל מנוע מוכן בלי לחפש קול עברי מחדש.
+ * השפות שנמצאו נשמרות גם ב-SharedPreferences, לפי מנוע הדיבור, כדי לחסוך את החיפוש גם בהפעלה הבאה.
+ * מילים של סבב מוקלטות מראש לקבצים (synthesizeToFile) ברקע, ומושמעות מהקובץ - כך שהשמעה חוזרת
+ * ומילה שכבר הופיעה בסבב קודם מתחילות מיד, בלי לחכות לסינתזה.
+ */
+public class SpeechService {
+
+    private static final String TAG = "SpeechService";
+    private static final String PREF_NAME = "speech";
+    private static final String AUDIO_DIR = "speech";
+    private static final long AUDIO_CACHE_BYTES = 20L * 1024 * 1024; // כ-20MB - מאות מילים
+    private static final String RENDER_PREFIX = "render:";
+    private static SpeechService instance;
+
+    /**
+     * Called on the main thread when the engine is ready for the requested language, or can't be
+     */
+    public interface EngineListener {
+        void onReady(TextToSpeech tts);
+
+        /**
+         * @param engineFailed true if the engine itself failed to start, false if only the language is missing
+         */
+        void onUnavailable(boolean engineFailed);
+    }
+
+    private enum State {NOT_STARTED, INITIALIZING, READY, FAILED}
+
+    private final Context appContext;
+    private final SharedPreferences preferences;
+    private final ExecutorService worker = Executors.newSingleThreadExecutor(); // קריאות למנוע הן IPC - לא על ה-main thread
+    private final Handler mainHandler = new Handler(Looper.getMainLooper());
+    private final SpeechAudioCache audioCache;
+
+    // נגישים רק מה-main thread
+    private final List<Runnable> waiting = new ArrayList<>();
+    private final ArrayDeque<Render> renderQueue = new ArrayDeque<>();
+    private Render rendering;   // הקובץ שהמנוע מקליט עכשיו - אחד בכל פעם
+    private MediaPlayer player;
+    private TextToSpeech tts;
+    private State state = State.NOT_STARTED;
+
+    // נגישים רק מה-worker thread
+    private final Map<String, Locale> resolved = new HashMap<>(); // שפת לימוד -> Locale שהמנוע תומך בו
+    private Locale currentLocale;
+    private String currentVoice;
+
+    private SpeechService(Context context) {
+        appContext = context.getApplicationContext();
+        preferences = appContext.getSharedPreferences(PREF_NAME, Context.MODE_PRIVATE);
+        audioCache = new SpeechAudioCache(new File(appContext.getCacheDir(), AUDIO_DIR), AUDIO_CACHE_BYTES);
+        worker.execute(audioCache::load);
+    }
+
+    /**
+     * נקרא פעם אחת בעליית האפליקציה
+     */
+    public static void init(Context context) {
+        if (instance == null) {
+            instance = new SpeechService(context);
+        }
+    }
+
+    public static SpeechService getInstance() {
+        return instance;
+    }
+
+    /**
+     * Start the engine in the background if it isn't running yet. Cheap to call repeatedly.
+     */
+    public void warmUp() {
+        if (state != State.NOT_STARTED) return;
+
+        state = State.INITIALIZING;
+        tts = new TextToSpeech(appContext, status -> mainHandler.post(() -> {
+            state = status == TextToSpeech.SUCCESS ? State.READY : State.FAILED;
+            if (state == State.FAILED) {
+                Log.e(TAG, "TextToSpeech failed to initialize: " + status);
+                tts.shutdown();
+                tts = null;
+            } else {
+                tts.setOnUtteranceProgressListener(new RenderListener());
+            }
+
+            List<Runnable> pending = new ArrayList<>(waiting);
+            waiting.clear();
+            for (Runnable runnable : pending) runnable.run();
+        }));
+    }
+
+    /**
+     * Get the shared engine, set to the language being learned
+     * Don't call shutdown() on it; stop() is enough when the screen closes
+     *
+     * @param learningLanguage "english" or "hebrew", as in User.getLearningLanguage
+     */
+    public void acquire(String learningLanguage, EngineListener listener) {
+        warmUp();
+        if (state == State.INITIALIZING) {
+            waiting.add(() -> acquire(learningLanguage, listener));
+            return;
+        }
+        if (state == State.FAILED) {
+            // ננסה שוב בפעם הבאה שמסך יבקש מנוע
+            state = State.NOT_STARTED;
+            listener.onUnavailable(true);
+            return;
+        }
+
+        TextToSpeech engine = tts;
+        worker.execute(() -> {
+            boolean languageSet = useLanguage(engine, learningLanguage);
+            mainHandler.post(() -> {
+                if (engine != tts) {
+                    listener.onUnavailable(true);
+                } else if (languageSet) {
+                    listener.onReady(engine);
+                } else {
+                    listener.onUnavailable(false);
+                }
+            });
+        });
+    }
+
+    /**
+     * The locale the engine currently speaks, e.g. for keying cached audio. Null before the first acquire.
+     */
+    public synchronized Locale getCurrentLocale() {
+        return currentLocale;
+    }
+
+    // ========== השמעה מקבצים מוכנים ==========
+
+    /**
+     * Render the words of a round to audio files in the background, so speak() can play them at once.
+     * Call after acquire() succeeded for the same language; words that are already cached are skipped.
+     */
+    public void prerender(List<Word> words, String learningLanguage) {
+        if (tts == null) return;
+        for (Word word : words) {
+            enqueueRender(word, learningLanguage, false);
+        }
+        renderNext();
+    }
+
+    /**
+     * Say a word: from its cached file if it was rendered already, otherwise live
+     * (and it's rendered right after, so saying it again is instant)
+     */
+    public void speak(Word word, String learningLanguage) {
+        if (tts == null) return;
+        stopPlayer();
+
+        String key = keyFor(word);
+        File file = audioCache.get(key);
+        if (file != null && play(file)) return;
+
+        // QUEUE_FLUSH עוצר גם הקלטה שבאמצע - היא חוזרת לתור (onStop) וממשיכה אחרי הדיבור
+        tts.speak(textOf(word, learningLanguage), TextToSpeech.QUEUE_FLUSH, null, null);
+        enqueueRender(word, learningLanguage, true);
+        renderNext();
+    }
+
+    /**
+     * Stop speaking and drop the pending renders; call when the screen closes
+     */
+    public void stop() {
+        renderQueue.clear();
+        rendering = null;
+        stopPlayer();
+        if (tts != null) tts.stop();
+    }
+
+    private void enqueueRender(Word word, String learningLanguage, boolean first) {
+        String key = keyFor(word);
+        if (audioCache.contains(key) || (rendering != null && rendering.key.equals(key))) return;
+        for (Render queued : renderQueue) {
+            if (queued.key.equals(key)) return;
+        }
+
+        Render render = new Render(key, textOf(word, learningLanguage));
+        if (first) renderQueue.addFirst(render);
+        else renderQueue.addLast(render);
+    }
+
+    private void renderNext() {
+        while (rendering == null && tts != null && !renderQueue.isEmpty()) {
+            Render next = renderQueue.pollFirst();
+            int result = tts.synthesizeToFile(next.text, null, audioCache.tempFileFor(next.key), RENDER_PREFIX + next.key);
+            if (result == TextToSpeech.SUCCESS) rendering = next;
+        }
+    }
+
+    // נקרא על ה-main thread כשהמנוע סיים (או נכשל/נעצר) להקליט קובץ
+    private void onRenderFinished(String utteranceId, boolean success, boolean interrupted) {
+        if (rendering == null || !utteranceId.equals(RENDER_PREFIX + rendering.key)) return;
+        Render finished = rendering;
+        rendering = null;
+
+        if (success) {
+            worker.execute(() -> audioCache.commit(finished.key));
+        } else if (interrupted) {
+            renderQueue.addFirst(finished);
+        } else {
+            worker.execute(() -> audioCache.tempFileFor(finished.key).delete());
+        }
+        renderNext();
+    }
+
+    private boolean play(File file) {
+        try {
+            if (player == null) player = new MediaPlayer();
+            player.reset();
+            player.setAudioAttributes(new AudioAttributes.Builder()
+                    .setUsage(AudioAttributes.USAGE_MEDIA)
+                    .setContentType(AudioAttributes.CONTENT_TYPE_SPEECH)
+                    .build());
+            player.setDataSource(file.getPath());
+            player.prepare(); // קובץ מקומי וקצר - לוקח מילישניות
+            player.start();
+            return true;
+        } catch (IOException | IllegalStateException e) {
+            // הקובץ נמחק בינתיים (LRU) או פגום - נדבר בזמן אמת
+            Log.w(TAG, "Could not play cached speech", e);
+            player.release();
+            player = null;
+            return false;
+        }
+    }
+
+    private void stopPlayer() {
+        if (player != null && player.isPlaying()) player.stop();
+    }
+
+    // מפתח לפי מזהה המילה, השפה והקול - קול אחר (או מנוע אחר) מקליט קובץ חדש
+    private synchronized String keyFor(Word word) {
+        String language = currentLocale != null ? currentLocale.toLanguageTag() : "und";
+        return SpeechAudioCache.keyOf(word.getId(), language, currentVoice);
+    }
+
+    private static String textOf(Word word, String learningLanguage) {
+        return "hebrew".equals(learningLanguage) ? word.getHebrew() : word.getEnglish();
+    }
+
+    private static class Render {
+        final String key;
+        final String text;
+
+        Render(String key, String text) {
+            this.key = key;
+            this.text = text;
+        }
+    }
+
+    // הקריאות מגיעות מ-thread של המנוע - מעבירים ל-main thread
+    private class RenderListener extends UtteranceProgressListener {
+        @Override
+        public void onStart(String utteranceId) {
+        }
+
+        @Override
+        public void onDone(String utteranceId) {
+            if (utteranceId != null) mainHandler.post(() -> onRenderFinished(utteranceId, true, false));
+        }
+
+        @Override
+        public void onError(String utteranceId) {
+            if (utteranceId != null) mainHandler.post(() -> onRenderFinished(utteranceId, false, false));
+        }
+
+        @Override
+        public void onStop(String utteranceId, boolean interrupted) {
+            if (utteranceId != null) mainHandler.post(() -> onRenderFinished(utteranceId, false, true));
+        }
+    }
+
+    // ========== בחירת שפה (על ה-worker thread) ==========
+
+    private boolean useLanguage(TextToSpeech engine, String learningLanguage) {
+        String key = "hebrew".equals(learningLanguage) ? "hebrew" : "english";
+
+        Locale locale = resolved.get(key);
+        if (locale == null) {
+            locale = loadSaved(engine, key);
+            if (locale == null) locale = resolve(engine, key);
+            if (locale == null) return false; // לא נשמר - קול שחסר עכשיו עשוי להיות מותקן אחר כך
+            resolved.put(key, locale);
+            save(engine, key, locale);
+        }
+
+        synchronized (this) {
+            if (locale.equals(currentLocale)) return true;
+        }
+        if (!isSupported(engine.setLanguage(locale))) {
+            resolved.remove(key); // הקול הוסר מאז שנשמר - נחפש מחדש בפעם הבאה
+            return false;
+        }
+        Voice voice = engine.getVoice();
+        synchronized (this) {
+            currentLocale = locale;
+            currentVoice = voice != null ? voice.getName() : null;
+        }
+        return true;
+    }
+
+    // אותו חיפוש שהמשחק עשה בכל פתיחה: Locale.US לאנגלית, ולעברית כמה צורות של הקוד ואז כל השפות של המנוע.
+    // isLanguageAvailable לא משנה את השפה של המנוע, כך שהחיפוש לא משפיע על דיבור שכבר מתנגן.
+    private static Locale resolve(TextToSpeech engine, String key) {
+        if (key.equals("english")) {
+            return isSupported(engine.isLanguageAvailable(Locale.US)) ? Locale.US : null;
+        }
+
+        Locale[] hebrewLocales = {
+                new Locale("iw", "IL"), new Locale("iw"),
+                new Locale("he", "IL"), new Locale("he")
+        };
+        for (Locale locale : hebrewLocales) {
+            if (isSupported(engine.isLanguageAvailable(locale))) return locale;
+        }
+
+        try {
+            Set<Locale> available = engine.getAvailableLanguages();
+            if (available == null) return null;
+            for (Locale locale : available) {
+                String lang = locale.getLanguage();
+                if ((lang.equals("iw") || lang.equals("he")) && isSupported(engine.isLanguageAvailable(locale))) {
+                    return locale;
+                }
+            }
+        } catch (Exception e) {
+            Log.w(TAG, "Could not list TTS languages", e);
+        }
+        return null;
+    }
+
+    // LANG_MISSING_DATA - השפה נתמכת אך קבצי הקול חסרים; LANG_NOT_SUPPORTED - המנוע לא תומך בה כלל
+    private static boolean isSupported(int result) {
+        return result != TextToSpeech.LANG_MISSING_DATA && result != TextToSpeech.LANG_NOT_SUPPORTED;
+    }
+
+    private Locale loadSaved(TextToSpeech engine, String key) {
+        String tag = preferences.getString(prefKey(engine, key), null);
+        if (tag == null) return null;
+        Locale locale = Locale.forLanguageTag(tag);
+        return isSupported(engine.isLanguageAvailable(locale)) ? locale : null;
+    }
+
+    private void save(TextToSpeech engine, String key, Locale locale) {
+        preferences.edit().putString(prefKey(engine, key), locale.toLanguageTag()).apply();
+    }
+
+    private static String prefKey(TextToSpeech engine, String key) {
+        return engine.getDefaultEngine() + "/" + key;
+    }
+}
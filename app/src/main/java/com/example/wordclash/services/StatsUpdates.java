@@ -0,0 +1,125 @@
+package com.example.wordclash.services;
+
+import com.example.wordclash.models.Stats;
+import com.google.firebase.database.ServerValue;
+
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * העדכונים שכותבים שינוי של stats/{userId} יחד עם השורה בטבלת המובילים, ההיסטוגרמות ומוני התרגול -
+ * כולם במפה אחת ל-updateChildren, כך שהשרת מקבל את כולם או אף אחד מהם.
+ */
+// כל שינוי מחושב מהערך שנקרא (before) ומעלה את stats/{userId}/version ב-1. חוק ה-validate על version
+// (ראו STATS_PATH ב-DatabaseService) דוחה עדכון שנבנה מקריאה ישנה - ואז כל המפה נדחית, גם ההיסטוגרמות,
+// וקוראים שוב. כך שני מכשירים שכותבים יחד לא מזיזים את אותו משתמש פעמיים בהיסטוגרמה.
+final class StatsUpdates {
+
+    // leaderboard_buckets/{score / BUCKET_SIZE} = כמה משתמשים בטווח הזה
+    // leaderboard_score_counts/{bucket}/{score} = כמה משתמשים עם הניקוד הזה בדיוק
+    static final int BUCKET_SIZE = 100;
+    static final String VERSION = "version";  // stats/{userId}/version - עולה ב-1 בכל כתיבה
+
+    private StatsUpdates() {
+    }
+
+    static int bucketOf(int score) {
+        return Math.max(0, score) / BUCKET_SIZE;
+    }
+
+    /**
+     * כתיבה של after ל-stats/{userId}, יחד עם השורה בטבלת המובילים וההזזה בהיסטוגרמות
+     *
+     * @param before  הערך שנקרא מהשרת, או null אם למשתמש אין עדיין סטטיסטיקות
+     * @param version stats/{userId}/version כפי שנקרא (0 אם חסר)
+     */
+    static Map<String, Object> statsWrite(String userId, Stats before, long version, Stats after) {
+        return statsWrite(userId, before, version, after, 0);
+    }
+
+    /**
+     * כמו statsWrite, ובאותה כתיבה גם עוד תרגול שעבר (סוף משחק)
+     *
+     * @param practiceRank הדרגה שבה נספר התרגול, או 0 אם לא עבר
+     */
+    static Map<String, Object> statsWrite(String userId, Stats before, long version, Stats after, int practiceRank) {
+        Map<String, Object> updates = new HashMap<>();
+        if (practiceRank > 0) updates.putAll(practiceIncrement(userId, practiceRank));
+
+        String stats = DatabaseService.STATS_PATH + "/" + userId;
+        updates.put(stats + "/userId", userId);
+        updates.put(stats + "/rank", after.getRank());
+        updates.put(stats + "/totalScore", after.getTotalScore());
+        updates.put(stats + "/" + VERSION, version + 1);
+
+        String row = DatabaseService.LEADERBOARD_PATH + "/" + userId;
+        updates.put(row + "/score", after.getTotalScore());
+        updates.put(row + "/rank", after.getRank());
+
+        if (before == null) {
+            addScore(updates, after.getTotalScore(), 1);
+        } else if (before.getTotalScore() != after.getTotalScore()) {
+            moveScore(updates, before.getTotalScore(), after.getTotalScore());
+        }
+        return updates;
+    }
+
+    /**
+     * הסטטיסטיקות אחרי משחק אחד, מהערך שנקרא מהשרת
+     *
+     * @param current       הסטטיסטיקות בשרת, או null אם אין עדיין
+     * @param practiceCount מספר התרגולים בדרגה כולל המשחק הזה, או 0 אם לא עבר
+     */
+    static Stats afterGameResult(String userId, Stats current, int rank, int score, int practiceCount) {
+        int oldRank = current != null ? current.getRank() : 1;
+        int newRank = oldRank;
+        // תרגול בדרגה נמוכה מהנוכחית לא מוריד את המשתמש אחורה
+        if (practiceCount >= DatabaseService.getRequiredPracticeCount(rank) && rank < 5 && rank + 1 > oldRank) {
+            newRank = rank + 1;
+        }
+        return new Stats(userId, newRank, (current != null ? current.getTotalScore() : 0) + score);
+    }
+
+    /**
+     * הוצאת הניקוד של משתמש שנמחק מההיסטוגרמות
+     */
+    static void addRemoval(Map<String, Object> updates, int score) {
+        addScore(updates, score, -1);
+    }
+
+    /**
+     * עוד תרגול שעבר בדרגה. השרת מוסיף אותו למה שיש שם באותו רגע,
+     * כך שתרגולים שהסתיימו יחד בשני מכשירים נספרים כולם.
+     */
+    static Map<String, Object> practiceIncrement(String userId, int rank) {
+        Map<String, Object> updates = new HashMap<>();
+        updates.put(practiceCountPath(userId, rank), ServerValue.increment(1));
+        return updates;
+    }
+
+    static String practiceCountPath(String userId, int rank) {
+        return DatabaseService.RANK_PROGRESS + "/" + userId + "/rank_" + rank + "/practiceCount";
+    }
+
+    private static void moveScore(Map<String, Object> updates, int oldScore, int newScore) {
+        updates.put(scoreCountPath(oldScore), ServerValue.increment(-1));
+        updates.put(scoreCountPath(newScore), ServerValue.increment(1));
+        if (bucketOf(oldScore) != bucketOf(newScore)) {
+            updates.put(bucketPath(oldScore), ServerValue.increment(-1));
+            updates.put(bucketPath(newScore), ServerValue.increment(1));
+        }
+    }
+
+    private static void addScore(Map<String, Object> updates, int score, int change) {
+        updates.put(bucketPath(score), ServerValue.increment(change));
+        updates.put(scoreCountPath(score), ServerValue.increment(change));
+    }
+
+    private static String bucketPath(int score) {
+        return DatabaseService.LEADERBOARD_BUCKETS_PATH + "/" + bucketOf(score);
+    }
+
+    private static String scoreCountPath(int score) {
+        return DatabaseService.LEADERBOARD_SCORE_COUNTS_PATH + "/" + bucketOf(score) + "/" + Math.max(0, score);
+    }
+}
@@ -0,0 +1,136 @@
+package com.example.wordclash.services;
+
+import android.content.Context;
+import android.os.Handler;
+import android.os.Looper;
+import android.util.Log;
+
+import com.example.wordclash.models.Word;
+import com.google.gson.Gson;
+
+import java.io.File;
+import java.io.FileReader;
+import java.io.FileWriter;
+import java.io.IOException;
+import java.io.Reader;
+import java.io.Writer;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+/**
+ * עותק מקומי של אוצר המילים, רמה אחרי רמה.
+ * כל רמה נשמרת עם מספר הגרסה שלה מהשרת (vocabulary_versions/levelN), כך שרק רמה שהמנהל שינה
+ * צריכה לרדת מחדש. הרמות נשמרות גם בזיכרון וגם בקבצים, כדי שיישארו בין הפעלות של האפליקציה.
+ */
+public class WordCache {
+
+    private static final String TAG = "WordCache";
+    private static final String DIR_NAME = "vocabulary";
+    private static WordCache instance;
+
+    private final File dir;
+    private final Gson gson = new Gson();
+    private final Map<Integer, Level> levels = new HashMap<>();   // נגיש רק מה-main thread
+    private final ExecutorService io = Executors.newSingleThreadExecutor();
+    private final Handler mainHandler = new Handler(Looper.getMainLooper());
+
+    private WordCache(Context context) {
+        dir = new File(context.getFilesDir(), DIR_NAME);
+    }
+
+    /**
+     * נקרא פעם אחת בעליית האפליקציה
+     */
+    public static void init(Context context) {
+        if (instance == null) {
+            instance = new WordCache(context.getApplicationContext());
+        }
+    }
+
+    /**
+     * מחזיר null אם init עוד לא נקרא
+     */
+    public static WordCache getInstance() {
+        return instance;
+    }
+
+    /**
+     * קבלת המילים של רמה, רק אם הגרסה השמורה זהה לגרסה בשרת. אחרת מחזיר null.
+     */
+    public void get(int rank, long version, DatabaseService.DatabaseCallback<List<Word>> callback) {
+        Level cached = levels.get(rank);
+        if (cached != null) {
+            callback.onCompleted(cached.version == version ? cached.words : null);
+            return;
+        }
+
+        io.execute(() -> {
+            Level loaded = readLevel(rank);
+            mainHandler.post(() -> {
+                if (loaded != null && !levels.containsKey(rank)) {
+                    levels.put(rank, loaded);
+                }
+                Level current = levels.get(rank);
+                callback.onCompleted(current != null && current.version == version ? current.words : null);
+            });
+        });
+    }
+
+    /**
+     * שמירת רמה שירדה מהשרת - בזיכרון מיד, ובקובץ ברקע
+     */
+    public void put(int rank, long version, List<Word> words) {
+        Level level = new Level(version, words);
+        levels.put(rank, level);
+        io.execute(() -> writeLevel(rank, level));
+    }
+
+    private File fileFor(int rank) {
+        return new File(dir, "level" + rank + ".json");
+    }
+
+    private Level readLevel(int rank) {
+        File file = fileFor(rank);
+        if (!file.exists()) return null;
+
+        try (Reader reader = new FileReader(file)) {
+            return gson.fromJson(reader, Level.class);
+        } catch (IOException | RuntimeException e) {
+            Log.w(TAG, "Could not read cached level " + rank, e);
+            return null;
+        }
+    }
+
+    private void writeLevel(int rank, Level level) {
+        if (!dir.exists() && !dir.mkdirs()) return;
+
+        // כתיבה לקובץ זמני והחלפה, כדי שקריסה באמצע לא תשאיר קובץ חלקי
+        File target = fileFor(rank);
+        File temp = new File(dir, target.getName() + ".tmp");
+        try (Writer writer = new FileWriter(temp)) {
+            gson.toJson(level, writer);
+        } catch (IOException e) {
+            Log.w(TAG, "Could not write cached level " + rank, e);
+            return;
+        }
+        if (!temp.renameTo(target)) {
+            Log.w(TAG, "Could not replace cached level " + rank);
+        }
+    }
+
+    /**
+     * רמה אחת כפי שהיא נשמרת בקובץ
+     */
+    private static class Level {
+        long version;
+        List<Word> words;
+
+        Level(long version, List<Word> words) {
+            this.version = version;
+            this.words = words;
+        }
+    }
+}
@@ -0,0 +1,326 @@
+package com.example.wordclash.utils;
+
+import android.graphics.Bitmap;
+import android.graphics.BitmapFactory;
+import android.os.Handler;
+import android.os.Looper;
+import android.util.Base64;
+import android.util.Log;
+import android.util.LruCache;
+import android.view.View;
+import android.view.ViewGroup;
+
+import com.example.wordclash.services.DatabaseService;
+
+import java.io.ByteArrayOutputStream;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+/**
+ * Loads profile pictures: fetches the base64 image, decodes it off the main thread,
+ * downsamples it to the size of the view and keeps the result in memory
+ * Also encodes new pictures, in a full and a thumbnail variant, before they are uploaded
+ */
+// תמונה מפוענחת נשמרת ב-LruCache לפי userId + hash, כך שחזרה למסך הראשי או פתיחת המגירה
+// מציגות את אותו Bitmap בלי לפענח שוב. hash חדש (המשתמש החליף תמונה) הוא פשוט מפתח אחר.
+// ביטמאפ שיצא מה-cache לא משמש שוב לפענוח (inBitmap): ImageView עדיין יכול להציג אותו, ופענוח לתוכו היה מחליף לו את התמונה.
+// תצוגה שאינה גדולה מ-THUMBNAIL_SIZE מורידה רק את התמונה הקטנה (avatar_thumbnails/).
+public class AvatarLoader {
+
+    private static final String TAG = "AvatarLoader";
+    public static final int FULL_SIZE = 512;       // התמונה המלאה נשמרת בשרת בגודל של עד 512 פיקסלים
+    public static final int THUMBNAIL_SIZE = 192;  // מספיקה לאווטאר של 64dp גם במסך בצפיפות 3x
+    private static final int WEBP_QUALITY = 80;
+    private static AvatarLoader instance;
+
+    private final LruCache<String, Entry> cache;
+    private final Map<String, List<Request>> pending = new HashMap<>(); // נגיש רק מה-main thread
+    private final ExecutorService worker = Executors.newSingleThreadExecutor();
+    private final Handler mainHandler = new Handler(Looper.getMainLooper());
+
+    private AvatarLoader() {
+        // שמינית מהזיכרון שמותר לאפליקציה, בקילובייטים
+        int maxKb = (int) (Runtime.getRuntime().maxMemory() / 1024 / 8);
+        cache = new LruCache<>(maxKb) {
+            @Override
+            protected int sizeOf(String key, Entry entry) {
+                return entry.bitmap.getAllocationByteCount() / 1024;
+            }
+        };
+    }
+
+    public static AvatarLoader getInstance() {
+        if (instance == null) {
+            instance = new AvatarLoader();
+        }
+        return instance;
+    }
+
+    /**
+     * Load the avatar of a user at (at least) the size of the target view
+     * The callback runs on the main thread, with null if the user has no picture
+     */
+    public void load(String userId, String hash, View target, DatabaseService.DatabaseCallback<Bitmap> callback) {
+        load(userId, hash, targetSize(target, true), targetSize(target, false), callback);
+    }
+
+    public void load(String userId, String hash, int reqWidth, int reqHeight, DatabaseService.DatabaseCallback<Bitmap> callback) {
+        load(userId, hash, reqWidth, reqHeight, callback, false);
+    }
+
+    // again: בקשה שחיכתה לפענוח קטן מדי וחוזרת בגודל שלה - מקבלת את התוצאה כמו שהיא, בלי לחזור שוב
+    private void load(String userId, String hash, int reqWidth, int reqHeight,
+                      DatabaseService.DatabaseCallback<Bitmap> callback, boolean again) {
+        if (userId == null || hash == null || hash.isEmpty()) {
+            callback.onCompleted(null);
+            return;
+        }
+
+        boolean thumbnail = Math.max(reqWidth, reqHeight) <= THUMBNAIL_SIZE;
+        String key = keyOf(userId, hash, thumbnail);
+        Entry cached = cache.get(key);
+        if (cached != null && cached.covers(reqWidth, reqHeight)) {
+            callback.onCompleted(cached.bitmap);
+            return;
+        }
+
+        // כבר מפענחים את אותה תמונה - מצטרפים לבקשה הקיימת; deliver בודק שהתוצאה מספיקה גם לגודל שלנו
+        Request request = new Request(userId, hash, reqWidth, reqHeight, callback, again);
+        List<Request> waiting = pending.get(key);
+        if (waiting != null) {
+            waiting.add(request);
+            return;
+        }
+        waiting = new ArrayList<>();
+        waiting.add(request);
+        pending.put(key, waiting);
+
+        DatabaseService.DatabaseCallback<String> onData = new DatabaseService.DatabaseCallback<>() {
+            @Override
+            public void onCompleted(String base64Image) {
+                if (base64Image == null || base64Image.isEmpty()) {
+                    deliver(key, null);
+                    return;
+                }
+
+                worker.execute(() -> {
+                    Entry decoded = decode(base64Image, reqWidth, reqHeight);
+                    mainHandler.post(() -> {
+                        if (decoded != null) cache.put(key, decoded);
+                        deliver(key, decoded);
+                    });
+                });
+            }
+
+            @Override
+            public void onFailed(Exception e) {
+                List<Request> requests = pending.remove(key);
+                if (requests == null) return;
+                for (Request waiting : requests) waiting.callback.onFailed(e);
+            }
+        };
+
+        DatabaseService databaseService = DatabaseService.getInstance();
+        if (!thumbnail) {
+            databaseService.getAvatar(userId, hash, onData);
+            return;
+        }
+
+        // לתמונות שנשמרו לפני שהייתה תמונה קטנה - מורידים את המלאה ומקטינים בפענוח
+        databaseService.getAvatarThumbnail(userId, hash, new DatabaseService.DatabaseCallback<>() {
+            @Override
+            public void onCompleted(String base64Thumbnail) {
+                if (base64Thumbnail != null) {
+                    onData.onCompleted(base64Thumbnail);
+                } else {
+                    databaseService.getAvatar(userId, hash, onData);
+                }
+            }
+
+            @Override
+            public void onFailed(Exception e) {
+                onData.onFailed(e);
+            }
+        });
+    }
+
+    /**
+     * Encode a picture for upload, on the worker thread: the picture itself (up to FULL_SIZE)
+     * and a THUMBNAIL_SIZE copy, both as base64 WebP. The callback runs on the main thread.
+     * The caller must not recycle the bitmap before the callback.
+     */
+    public void encode(Bitmap bitmap, DatabaseService.DatabaseCallback<EncodedAvatar> callback) {
+        worker.execute(() -> {
+            try {
+                Bitmap small = scaleToFit(bitmap, THUMBNAIL_SIZE);
+                EncodedAvatar encoded = new EncodedAvatar(toBase64(bitmap), toBase64(small), small);
+                mainHandler.post(() -> callback.onCompleted(encoded));
+            } catch (RuntimeException | OutOfMemoryError e) {
+                Log.e(TAG, "Failed to encode avatar", e);
+                Exception error = e instanceof Exception ? (Exception) e : new RuntimeException(e);
+                mainHandler.post(() -> callback.onFailed(error));
+            }
+        });
+    }
+
+    /**
+     * Keep a picture that was just uploaded, so the next screen shows it without downloading or decoding
+     */
+    public void put(String userId, String hash, Bitmap bitmap, EncodedAvatar encoded) {
+        if (userId == null || hash == null || bitmap == null) return;
+        cache.put(keyOf(userId, hash, false), new Entry(bitmap, 1));
+        if (encoded != null && encoded.thumbnailBitmap != null && encoded.thumbnailBitmap != bitmap) {
+            cache.put(keyOf(userId, hash, true), new Entry(encoded.thumbnailBitmap, 1));
+        }
+    }
+
+    /**
+     * Whether the bitmap is held by the cache (and so must not be recycled by the caller)
+     */
+    public boolean isCached(Bitmap bitmap) {
+        if (bitmap == null) return false;
+        for (Entry entry : cache.snapshot().values()) {
+            if (entry.bitmap == bitmap) return true;
+        }
+        return false;
+    }
+
+    // ========== פענוח ==========
+
+    // רץ על ה-worker thread
+    private Entry decode(String base64Image, int reqWidth, int reqHeight) {
+        try {
+            byte[] bytes = Base64.decode(base64Image, Base64.DEFAULT);
+
+            BitmapFactory.Options options = new BitmapFactory.Options();
+            options.inJustDecodeBounds = true;
+            BitmapFactory.decodeByteArray(bytes, 0, bytes.length, options);
+            if (options.outWidth <= 0 || options.outHeight <= 0) return null;
+
+            options.inSampleSize = calculateInSampleSize(options.outWidth, options.outHeight, reqWidth, reqHeight);
+            options.inJustDecodeBounds = false;
+
+            Bitmap bitmap = BitmapFactory.decodeByteArray(bytes, 0, bytes.length, options);
+            return bitmap != null ? new Entry(bitmap, options.inSampleSize) : null;
+        } catch (IllegalArgumentException | OutOfMemoryError e) {
+            Log.e(TAG, "Failed to decode avatar", e);
+            return null;
+        }
+    }
+
+    // לפני ה-layout הראשון (או כשה-View מוסתר) הגודל הוא 0, אז מחפשים גודל קבוע ב-layout של ה-View או של מי שמכיל אותו
+    private static int targetSize(View view, boolean width) {
+        while (view != null) {
+            int measured = width ? view.getWidth() : view.getHeight();
+            if (measured > 0) return measured;
+
+            ViewGroup.LayoutParams params = view.getLayoutParams();
+            int fixed = params == null ? 0 : (width ? params.width : params.height);
+            if (fixed > 0) return fixed;
+
+            view = view.getParent() instanceof View ? (View) view.getParent() : null;
+        }
+        return FULL_SIZE;
+    }
+
+    // ========== קידוד ==========
+
+    private static Bitmap scaleToFit(Bitmap bitmap, int maxSize) {
+        int width = bitmap.getWidth();
+        int height = bitmap.getHeight();
+        float scale = Math.min((float) maxSize / width, (float) maxSize / height);
+        if (scale >= 1.0f) return bitmap;
+        return Bitmap.createScaledBitmap(bitmap, Math.round(width * scale), Math.round(height * scale), true);
+    }
+
+    private static String toBase64(Bitmap bitmap) {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        bitmap.compress(Bitmap.CompressFormat.WEBP_LOSSY, WEBP_QUALITY, out);
+        return Base64.encodeToString(out.toByteArray(), Base64.DEFAULT);
+    }
+
+    private static int calculateInSampleSize(int width, int height, int reqWidth, int reqHeight) {
+        int inSampleSize = 1;
+        if (height > reqHeight || width > reqWidth) {
+            int halfHeight = height / 2;
+            int halfWidth = width / 2;
+            while ((halfHeight / inSampleSize) >= reqHeight
+                    && (halfWidth / inSampleSize) >= reqWidth) {
+                inSampleSize *= 2;
+            }
+        }
+        return inSampleSize;
+    }
+
+    // בקשה שהצטרפה לפענוח של תצוגה קטנה יותר מקבלת פענוח משלה, כמו בבדיקת ה-cache ב-load
+    private void deliver(String key, Entry decoded) {
+        List<Request> requests = pending.remove(key);
+        if (requests == null) return;
+        for (Request request : requests) {
+            if (decoded == null || request.again || decoded.covers(request.reqWidth, request.reqHeight)) {
+                request.callback.onCompleted(decoded != null ? decoded.bitmap : null);
+            } else {
+                load(request.userId, request.hash, request.reqWidth, request.reqHeight, request.callback, true);
+            }
+        }
+    }
+
+    private static String keyOf(String userId, String hash, boolean thumbnail) {
+        return userId + ":" + hash + (thumbnail ? ":thumb" : "");
+    }
+
+    /**
+     * A picture ready for DatabaseService.saveAvatar
+     */
+    public static class EncodedAvatar {
+        public final String full;
+        public final String thumbnail;
+        final Bitmap thumbnailBitmap;
+
+        EncodedAvatar(String full, String thumbnail, Bitmap thumbnailBitmap) {
+            this.full = full;
+            this.thumbnail = thumbnail;
+            this.thumbnailBitmap = thumbnailBitmap;
+        }
+    }
+
+    // מי שמחכה לפענוח, ובאיזה גודל
+    private static class Request {
+        final String userId;
+        final String hash;
+        final int reqWidth;
+        final int reqHeight;
+        final DatabaseService.DatabaseCallback<Bitmap> callback;
+        final boolean again;
+
+        Request(String userId, String hash, int reqWidth, int reqHeight,
+                DatabaseService.DatabaseCallback<Bitmap> callback, boolean again) {
+            this.userId = userId;
+            this.hash = hash;
+            this.reqWidth = reqWidth;
+            this.reqHeight = reqHeight;
+            this.callback = callback;
+            this.again = again;
+        }
+    }
+
+    // ביטמאפ מפוענח, יחד עם היחס שבו הוקטן
+    private static class Entry {
+        final Bitmap bitmap;
+        final int sampleSize;
+
+        Entry(Bitmap bitmap, int sampleSize) {
+            this.bitmap = bitmap;
+            this.sampleSize = sampleSize;
+        }
+
+        // תמונה בגודל מלא תמיד מספיקה; תמונה מוקטנת מספיקה רק לתצוגה שאינה גדולה ממנה
+        boolean covers(int reqWidth, int reqHeight) {
+            return sampleSize == 1 || (bitmap.getWidth() >= reqWidth && bitmap.getHeight() >= reqHeight);
+        }
+    }
+}
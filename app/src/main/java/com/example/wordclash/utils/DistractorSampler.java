@@ -0,0 +1,91 @@
+package com.example.wordclash.utils;
+
+import java.util.List;
+import java.util.Random;
+
+/**
+ * Picks k distinct random items from a pool, optionally excluding one index (the correct answer)
+ * Used by the multiple-choice games to choose wrong answers
+ */
+// במקום להעתיק את כל רשימת המילים, להוציא ממנה את התשובה ולערבב את כולה בכל שאלה,
+// המחלקה מחזיקה מערך אינדקסים קבוע ומבצעת ערבוב Fisher-Yates חלקי רק על k המקומות הראשונים.
+// העבודה בכל שאלה היא O(k), והמערכים מוקצים פעם אחת לכל גודל רשימה.
+public class DistractorSampler {
+
+    private final Random random;
+    private int[] order = new int[0];      // תמורה של 0..size-1
+    private int[] positionOf = new int[0]; // positionOf[index] = המקום של index בתוך order
+    private int[] picked = new int[0];
+    private int size;
+
+    public DistractorSampler() {
+        this(new Random());
+    }
+
+    public DistractorSampler(Random random) {
+        this.random = random;
+    }
+
+    /**
+     * Write up to k distinct indices from [0, poolSize), other than exclude, into out
+     *
+     * @param exclude index to leave out, or -1
+     * @return how many indices were written
+     */
+    public int sample(int poolSize, int exclude, int k, int[] out) {
+        resize(poolSize);
+
+        // התשובה עוברת לסוף המערך, וההגרלה נעשית רק על מה שלפניה
+        int limit = poolSize;
+        if (exclude >= 0 && exclude < poolSize) {
+            swap(positionOf[exclude], poolSize - 1);
+            limit = poolSize - 1;
+        }
+
+        int count = Math.min(k, Math.min(limit, out.length));
+        for (int i = 0; i < count; i++) {
+            swap(i, i + random.nextInt(limit - i));
+            out[i] = order[i];
+        }
+        return count;
+    }
+
+    /**
+     * Add up to k distinct items of pool, other than pool.get(exclude), to out
+     *
+     * @param exclude index of the correct answer, or -1
+     * @return how many items were added
+     */
+    public <T> int sample(List<T> pool, int exclude, int k, List<? super T> out) {
+        if (picked.length < k) picked = new int[k];
+
+        int count = sample(pool.size(), exclude, k, picked);
+        for (int i = 0; i < count; i++) {
+            out.add(pool.get(picked[i]));
+        }
+        return count;
+    }
+
+    private void resize(int poolSize) {
+        if (poolSize == size) return;
+
+        if (order.length < poolSize) {
+            order = new int[poolSize];
+            positionOf = new int[poolSize];
+        }
+        for (int i = 0; i < poolSize; i++) {
+            order[i] = i;
+            positionOf[i] = i;
+        }
+        size = poolSize;
+    }
+
+    private void swap(int a, int b) {
+        int first = order[a];
+        int second = order[b];
+        order[a] = second;
+        order[b] = first;
+        positionOf[second] = a;
+        positionOf[first] = b;
+    }
+}
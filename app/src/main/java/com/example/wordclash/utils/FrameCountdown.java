@@ -0,0 +1,121 @@
+package com.example.wordclash.utils;
+
+import android.view.Choreographer;
+import android.widget.ProgressBar;
+import android.widget.TextView;
+
+/**
+ * A countdown drawn once per display frame: the progress bar moves smoothly,
+ * and the seconds label changes only when the whole second changes
+ * Nothing is allocated per frame. Use it from the main thread.
+ */
+// במקום CountDownTimer שמתקתק כל 100ms: Choreographer קורא ל-doFrame פעם בפריים, עם זמן הפריים עצמו.
+// הטקסטים של השניות מוכנים מראש, והפס מחולק ל-PROGRESS_MAX צעדים כדי שיזוז ברציפות.
+// pause/resume שומרים את הזמן שנשאר, כך שהשעון לא רץ כשהמסך ברקע.
+public class FrameCountdown implements Choreographer.FrameCallback {
+
+    /**
+     * Called once, on the frame the time runs out
+     */
+    public interface Listener {
+        void onFinish();
+    }
+
+    private static final int PROGRESS_MAX = 1000;
+    private static final long NANOS_PER_MILLI = 1_000_000L;
+
+    private final Choreographer choreographer = Choreographer.getInstance();
+    private final ProgressBar progressBar;
+    private final TextView label;
+    private final Listener listener;
+    private final String[] secondLabels;
+
+    private long durationMs;
+    private long remainingMs;
+    private long deadlineNanos;     // 0 עד הפריים הראשון אחרי start/resume
+    private int shownSecond = -1;
+    private boolean running;
+    private boolean paused;
+
+    public FrameCountdown(ProgressBar progressBar, TextView label, int maxSeconds, Listener listener) {
+        this.progressBar = progressBar;
+        this.label = label;
+        this.listener = listener;
+
+        secondLabels = new String[maxSeconds + 1];
+        for (int i = 0; i <= maxSeconds; i++) secondLabels[i] = String.valueOf(i);
+        progressBar.setMax(PROGRESS_MAX);
+    }
+
+    /**
+     * Count down from remainingMs, on a bar that is full at durationMs
+     * (remainingMs is shorter when a question continues after the screen was recreated)
+     */
+    public void start(long durationMs, long remainingMs) {
+        cancel();
+        this.durationMs = durationMs;
+        this.remainingMs = Math.min(remainingMs, durationMs);
+        running = true;
+        draw();
+        if (!paused) schedule();
+    }
+
+    /**
+     * Stop counting; the time left is kept until resume
+     */
+    public void pause() {
+        paused = true;
+        choreographer.removeFrameCallback(this);
+    }
+
+    public void resume() {
+        paused = false;
+        if (running) schedule();
+    }
+
+    public void cancel() {
+        running = false;
+        choreographer.removeFrameCallback(this);
+    }
+
+    public boolean isRunning() {
+        return running;
+    }
+
+    public long getRemainingMs() {
+        return remainingMs;
+    }
+
+    private void schedule() {
+        deadlineNanos = 0;
+        choreographer.removeFrameCallback(this);
+        choreographer.postFrameCallback(this);
+    }
+
+    @Override
+    public void doFrame(long frameTimeNanos) {
+        if (!running || paused) return;
+
+        if (deadlineNanos == 0) deadlineNanos = frameTimeNanos + remainingMs * NANOS_PER_MILLI;
+        remainingMs = Math.max(0, (deadlineNanos - frameTimeNanos) / NANOS_PER_MILLI);
+        draw();
+
+        if (remainingMs == 0) {
+            running = false;
+            listener.onFinish();
+            return;
+        }
+        choreographer.postFrameCallback(this);
+    }
+
+    private void draw() {
+        progressBar.setProgress((int) (remainingMs * PROGRESS_MAX / durationMs));
+
+        // מעגלים כלפי מעלה: 9.2 שניות שנשארו מוצגות כ-10, ורק 0 בדיוק מוצג כ-0
+        int second = (int) Math.min(secondLabels.length - 1, (remainingMs + 999) / 1000);
+        if (second != shownSecond) {
+            shownSecond = second;
+            label.setText(secondLabels[second]);
+        }
+    }
+}
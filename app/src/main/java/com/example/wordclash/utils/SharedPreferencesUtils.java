@@ -6,7 +6,6 @@ import android.content.SharedPreferences;
 import androidx.annotation.Nullable;
 
 import com.example.wordclash.models.User;
-import com.google.gson.Gson;
 
 /// Utility class for shared preferences operations
 /// Contains methods for saving and retrieving data from shared preferences
@@ -18,7 +17,7 @@ public class SharedPreferencesUtils {
     /// The name of the shared preferences file
     ///
     /// @see Context#getSharedPreferences(String, int)
-    private static final String PREF_NAME = "com.example.testapp.PREFERENCE_FILE_KEY";
+    static final String PREF_NAME = "com.example.testapp.PREFERENCE_FILE_KEY";
 
     /// Save a string to shared preferences
     ///
@@ -107,8 +106,7 @@ public class SharedPreferencesUtils {
     }
 
     private static <T> void saveObject(Context context, String key, T object) {
-        Gson gson = new Gson();
-        String json = gson.toJson(object);
+        String json = UserSession.GSON.toJson(object);
         saveString(context, key, json);
     }
 
@@ -117,45 +115,46 @@ public class SharedPreferencesUtils {
         if (json == null) {
             return null;
         }
-        Gson gson = new Gson();
-        return gson.fromJson(json, type);
+        return UserSession.GSON.fromJson(json, type);
     }
 
     // Add more utility methods as needed
 
     /// Save a user object to shared preferences
+    /// The in-memory session is updated right away; the disk write happens in the background
     ///
     /// @param context The context to use
     /// @param user    The user object to save
     /// @see User
+    /// @see UserSession#saveUser(Context, User)
     public static void saveUser(Context context, User user) {
-        saveObject(context, "user", user);
+        UserSession.saveUser(context, user);
     }
 
     /// Get the user object from shared preferences
+    /// Served from memory - the stored JSON is decoded once per process
     ///
     /// @param context The context to use
-    /// @return The user object stored in shared preferences
+    /// @return A copy of the logged in user, or null
     /// @see User
     /// @see #isUserLoggedIn(Context)
     public static User getUser(Context context) {
-        return getObject(context, "user", User.class);
+        return UserSession.getUser(context);
     }
 
     /// Sign out the user by removing user data from shared preferences
     ///
     /// @param context The context to use
     public static void signOutUser(Context context) {
-        remove(context, "user");
+        UserSession.signOut(context);
     }
 
-    /// Check if a user is logged in by checking if the user id is present in shared preferences
+    /// Check if a user is logged in
     ///
     /// @param context The context to use
     /// @return true if the user is logged in, false otherwise
-    /// @see #contains(Context, String)
     public static boolean isUserLoggedIn(Context context) {
-        return contains(context, "user");
+        return UserSession.isLoggedIn(context);
     }
 
     /// Get the user id of the logged in user
@@ -164,11 +163,7 @@ public class SharedPreferencesUtils {
     /// @return The user id of the logged in user, or null if no user is logged in
     @Nullable
     public static String getUserId(Context context) {
-        User user = getUser(context);
-        if (user != null) {
-            return user.getId();
-        }
-        return null;
+        return UserSession.getUserId(context);
     }
 
 
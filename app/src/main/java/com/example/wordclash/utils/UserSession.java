@@ -0,0 +1,215 @@
+package com.example.wordclash.utils;
+
+import android.content.Context;
+import android.content.SharedPreferences;
+
+import androidx.annotation.Nullable;
+
+import com.example.wordclash.models.User;
+import com.example.wordclash.models.Word;
+import com.google.gson.Gson;
+import com.google.gson.GsonBuilder;
+import com.google.gson.TypeAdapter;
+import com.google.gson.stream.JsonReader;
+import com.google.gson.stream.JsonToken;
+import com.google.gson.stream.JsonWriter;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+/// Process-wide holder for the logged-in user
+/// The stored JSON is decoded once per process; after that every screen gets the user from memory
+/// Changes are written through to shared preferences on a background thread
+///
+/// @see SharedPreferencesUtils
+// המשתמש המחובר נשמר בזיכרון במשך כל חיי התהליך, כך שפתיחת מסך לא מפענחת JSON.
+// כל קריאה מקבלת עותק - מסך שמשנה את המשתמש ולא שומר אותו לא משנה את מה שהמסכים האחרים רואים.
+public final class UserSession {
+
+    private static final String KEY_USER = "user";
+
+    /// One Gson for the whole app, with a hand-written adapter for User (no reflection)
+    public static final Gson GSON = new GsonBuilder()
+            .registerTypeAdapter(User.class, new UserTypeAdapter().nullSafe())
+            .create();
+
+    private static final ExecutorService writer = Executors.newSingleThreadExecutor();
+
+    private static SharedPreferences preferences;
+    private static User current;
+
+    private UserSession() {
+    }
+
+    /// Load the stored user once. Called from the Application, before any screen is created.
+    ///
+    /// @param context Any context; the application context is kept
+    public static synchronized void init(Context context) {
+        if (preferences != null) return;
+
+        preferences = context.getApplicationContext().getSharedPreferences(SharedPreferencesUtils.PREF_NAME, Context.MODE_PRIVATE);
+        String json = preferences.getString(KEY_USER, null);
+        current = json != null ? GSON.fromJson(json, User.class) : null;
+    }
+
+    /// Get a copy of the logged-in user
+    ///
+    /// @return The user, or null if no user is logged in
+    @Nullable
+    public static synchronized User getUser(Context context) {
+        init(context);
+        return current != null ? copyOf(current) : null;
+    }
+
+    /// Get the id of the logged-in user without copying it
+    @Nullable
+    public static synchronized String getUserId(Context context) {
+        init(context);
+        return current != null ? current.getId() : null;
+    }
+
+    public static synchronized boolean isLoggedIn(Context context) {
+        init(context);
+        return current != null;
+    }
+
+    /// Replace the logged-in user in memory, and write it to disk in the background
+    public static synchronized void saveUser(Context context, User user) {
+        init(context);
+        current = copyOf(user);
+
+        User snapshot = current;
+        writer.execute(() -> preferences.edit().putString(KEY_USER, GSON.toJson(snapshot, User.class)).apply());
+    }
+
+    public static synchronized void signOut(Context context) {
+        init(context);
+        current = null;
+        writer.execute(() -> preferences.edit().remove(KEY_USER).apply());
+    }
+
+    private static User copyOf(User user) {
+        ArrayList<Word> words = user.getWords() != null ? new ArrayList<>(user.getWords()) : new ArrayList<>();
+        User copy = new User(user.getId(), user.getEmail(), user.getPassword(), user.getUserName(),
+                user.getGender(), user.isAdmin(), user.getLearningLanguage(), words);
+        copy.setAvatarHash(user.getAvatarHash());
+        return copy;
+    }
+
+    /// Reads and writes User with the same field names the default Gson mapping used,
+    /// so users saved by older versions still load
+    // שדות לא מוכרים (למשל התמונה הישנה profilePictureUrl) מדולגים בלי לבנות אותם בזיכרון
+    private static class UserTypeAdapter extends TypeAdapter<User> {
+
+        @Override
+        public void write(JsonWriter out, User user) throws IOException {
+            out.beginObject();
+            out.name("id").value(user.getId());
+            out.name("email").value(user.getEmail());
+            out.name("password").value(user.getPassword());
+            out.name("userName").value(user.getUserName());
+            out.name("gender").value(user.getGender());
+            out.name("isAdmin").value(user.isAdmin());
+            out.name("avatarHash").value(user.getAvatarHash());
+            out.name("learningLanguage").value(user.getLearningLanguage());
+
+            out.name("words").beginArray();
+            if (user.getWords() != null) {
+                for (Word word : user.getWords()) {
+                    out.beginObject();
+                    out.name("id").value(word.getId());
+                    out.name("english").value(word.getEnglish());
+                    out.name("hebrew").value(word.getHebrew());
+                    out.name("rank").value(word.getRank());
+                    out.endObject();
+                }
+            }
+            out.endArray();
+            out.endObject();
+        }
+
+        @Override
+        public User read(JsonReader in) throws IOException {
+            User user = new User();
+            in.beginObject();
+            while (in.hasNext()) {
+                String name = in.nextName();
+                if (in.peek() == JsonToken.NULL) {
+                    in.nextNull();
+                    continue;
+                }
+                switch (name) {
+                    case "id":
+                        user.setId(in.nextString());
+                        break;
+                    case "email":
+                        user.setEmail(in.nextString());
+                        break;
+                    case "password":
+                        user.setPassword(in.nextString());
+                        break;
+                    case "userName":
+                        user.setUserName(in.nextString());
+                        break;
+                    case "gender":
+                        user.setGender(in.nextString());
+                        break;
+                    case "isAdmin":
+                        user.setAdmin(in.nextBoolean());
+                        break;
+                    case "avatarHash":
+                        user.setAvatarHash(in.nextString());
+                        break;
+                    case "learningLanguage":
+                        user.setLearningLanguage(in.nextString());
+                        break;
+                    case "words":
+                        user.setWords(readWords(in));
+                        break;
+                    default:
+                        in.skipValue();
+                }
+            }
+            in.endObject();
+            return user;
+        }
+
+        private ArrayList<Word> readWords(JsonReader in) throws IOException {
+            ArrayList<Word> words = new ArrayList<>();
+            in.beginArray();
+            while (in.hasNext()) {
+                Word word = new Word();
+                in.beginObject();
+                while (in.hasNext()) {
+                    String name = in.nextName();
+                    if (in.peek() == JsonToken.NULL) {
+                        in.nextNull();
+                        continue;
+                    }
+                    switch (name) {
+                        case "id":
+                            word.setId(in.nextString());
+                            break;
+                        case "english":
+                            word.setEnglish(in.nextString());
+                            break;
+                        case "hebrew":
+                            word.setHebrew(in.nextString());
+                            break;
+                        case "rank":
+                            word.setRank(in.nextInt());
+                            break;
+                        default:
+                            in.skipValue();
+                    }
+                }
+                in.endObject();
+                words.add(word);
+            }
+            in.endArray();
+            return words;
+        }
+    }
+}
@@ -1,17 +1,25 @@
 package com.example.wordclash.utils;
 
 import android.content.Context;
+import android.os.Handler;
+import android.os.Looper;
+import android.util.JsonReader;
 import android.util.Log;
 
 import com.example.wordclash.models.Word;
 import com.example.wordclash.services.DatabaseService;
-import com.google.gson.Gson;
-import com.google.gson.JsonObject;
 
-import java.io.BufferedReader;
+import java.io.IOException;
 import java.io.InputStream;
 import java.io.InputStreamReader;
-import java.util.Map;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
 
 /**
  * Utility class to import vocabulary from JSON file to Firebase
@@ -19,80 +27,240 @@ import java.util.Map;
  */
 // מחלקת עזר שתפקידה לקרוא קובץ JSON מקומי מתיקיית ה-assets של האפליקציה
 // ולהעלות את כל מילון המילים הראשוני ל-Firebase באופן אוטומטי כשהאפליקציה מופעלת לראשונה.
+// הקובץ נקרא בזרימה (JsonReader) ונשלח בחלקים של CHUNK_SIZE מילים, כל חלק בעדכון אחד.
+// כל חלק שנכתב מסומן בשרת, כך שייבוא שנקטע ממשיך מאותה נקודה בהפעלה הבאה.
 public class VocabularyImporter {
 
     private static final String TAG = "VocabularyImporter";
+    private static final String ASSET_NAME = "vocabulary_realtime_db.json";
+    private static final int CHUNK_SIZE = 250;      // מילים בכל עדכון
+    private static final int MAX_IN_FLIGHT = 3;     // כמה עדכונים יכולים לחכות לשרת בו-זמנית
+    // בלי רשת Firebase שומר את הכתיבות בתור ולא מחזיר תשובה - אחרי הזמן הזה מוותרים וממשיכים בהפעלה הבאה
+    private static final long WRITE_TIMEOUT_SECONDS = 30;
+
+    private static final AtomicBoolean running = new AtomicBoolean(false);
+
+    /**
+     * Progress and result of an import. All methods are called on the main thread.
+     */
+    public interface ImportListener {
+        void onProgress(int committedWords);
+
+        void onComplete(int totalWords);
+
+        void onFailed(Exception e);
+    }
 
     /**
      * Import all vocabulary from JSON file to Firebase
-     * This should be called once to populate the database
+     * Skips chunks that an earlier, interrupted import already wrote
      */
-    // הפונקציה קוראת את קובץ ה-JSON שורה אחר שורה באמצעות InputStream ו-BufferedReader,
-    // ואז מפרסרת (הופכת) אותו לאובייקטי תצוגה ומחלקת אותם לפי דרגות ליבוא לענן.
-    public static void importVocabularyFromAssets(Context context) {
-        try {
-            // read JSON file from assets
-            InputStream is = context.getAssets().open("vocabulary_realtime_db.json");
-            BufferedReader reader = new BufferedReader(new InputStreamReader(is));
-            StringBuilder jsonString = new StringBuilder();
-            String line;
-            while ((line = reader.readLine()) != null) {
-                jsonString.append(line);
+    public static void importVocabularyFromAssets(Context context, ImportListener listener) {
+        if (!running.compareAndSet(false, true)) return;
+
+        Context appContext = context.getApplicationContext();
+        Handler mainHandler = new Handler(Looper.getMainLooper());
+        DatabaseService databaseService = DatabaseService.getInstance();
+
+        databaseService.isVocabularyImportDone(new DatabaseService.DatabaseCallback<>() {
+            @Override
+            public void onCompleted(Boolean done) {
+                if (done) {
+                    running.set(false);
+                    listener.onComplete(0);
+                    return;
+                }
+
+                databaseService.getImportedVocabularyChunks(new DatabaseService.DatabaseCallback<>() {
+                    @Override
+                    public void onCompleted(Set<Integer> doneChunks) {
+                        new Thread(() -> runImport(appContext, doneChunks, mainHandler, listener),
+                                "vocabulary-import").start();
+                    }
+
+                    @Override
+                    public void onFailed(Exception e) {
+                        running.set(false);
+                        listener.onFailed(e);
+                    }
+                });
             }
-            reader.close();
 
+            @Override
+            public void onFailed(Exception e) {
+                running.set(false);
+                listener.onFailed(e);
+            }
+        });
+    }
 
-            // Parse JSON
-            // שימוש בספריית Gson החיצונית של גוגל כדי להפוך את מחרוזת הטקסט הגולמית של הקובץ לאובייקט קוד מסוג JsonObject,
-            // המאפשר לשלוף רמות ומילים בקלות לפי מפתחות.
-            Gson gson = new Gson();
-            JsonObject root = gson.fromJson(jsonString.toString(), JsonObject.class);
-            JsonObject vocabulary = root.getAsJsonObject("vocabulary");
+    // רץ על thread נפרד: קורא את הקובץ בזרימה ושולח חלק אחרי חלק, עם לכל היותר MAX_IN_FLIGHT חלקים שמחכים לשרת
+    private static void runImport(Context context, Set<Integer> doneChunks, Handler mainHandler, ImportListener listener) {
+        Semaphore inFlight = new Semaphore(MAX_IN_FLIGHT);
+        AtomicBoolean failed = new AtomicBoolean(false);
+        AtomicInteger committedWords = new AtomicInteger();
 
-            // Import each level
-            importLevel(vocabulary.getAsJsonObject("level1"), 1);
-            importLevel(vocabulary.getAsJsonObject("level2"), 2);
-            importLevel(vocabulary.getAsJsonObject("level3"), 3);
-            importLevel(vocabulary.getAsJsonObject("level4"), 4);
-            importLevel(vocabulary.getAsJsonObject("level5"), 5);
+        ChunkSink sink = (chunkIndex, words) -> {
+            if (doneChunks.contains(chunkIndex)) {
+                mainHandler.post(() -> listener.onProgress(committedWords.addAndGet(words.size())));
+                return true;
+            }
 
-            Log.d(TAG, "Vocabulary import completed successfully");
+            if (!acquire(inFlight, 1)) {
+                failed.set(true);
+                return false;
+            }
+            if (failed.get()) {
+                inFlight.release();
+                return false;
+            }
+
+            DatabaseService.getInstance().importVocabularyChunk(chunkIndex, words, new DatabaseService.DatabaseCallback<>() {
+                @Override
+                public void onCompleted(Void unused) {
+                    inFlight.release();
+                    int committed = committedWords.addAndGet(words.size());
+                    Log.d(TAG, "Imported chunk " + chunkIndex + " (" + committed + " words)");
+                    listener.onProgress(committed);
+                }
 
-        } catch (Exception e) {
+                @Override
+                public void onFailed(Exception e) {
+                    failed.set(true);
+                    inFlight.release();
+                    Log.e(TAG, "Failed to import chunk " + chunkIndex, e);
+                }
+            });
+            return true;
+        };
+
+        int totalWords;
+        try (InputStream is = context.getAssets().open(ASSET_NAME)) {
+            totalWords = readVocabulary(new JsonReader(new InputStreamReader(is, StandardCharsets.UTF_8)), sink);
+        } catch (IOException | RuntimeException e) {
             Log.e(TAG, "Error importing vocabulary", e);
+            failed.set(true);
+            totalWords = -1;
+        }
+
+        // מחכים שכל החלקים שנשלחו יסתיימו לפני שמחליטים אם הייבוא הצליח
+        if (acquire(inFlight, MAX_IN_FLIGHT)) {
+            inFlight.release(MAX_IN_FLIGHT);
+        } else {
+            failed.set(true);
         }
+
+        if (failed.get() || totalWords < 0) {
+            running.set(false);
+            mainHandler.post(() -> listener.onFailed(new IOException("Vocabulary import interrupted")));
+            return;
+        }
+
+        int total = totalWords;
+        mainHandler.post(() -> DatabaseService.getInstance().finishVocabularyImport(new DatabaseService.DatabaseCallback<>() {
+            @Override
+            public void onCompleted(Void unused) {
+                running.set(false);
+                Log.d(TAG, "Vocabulary import completed successfully (" + total + " words)");
+                listener.onComplete(total);
+            }
+
+            @Override
+            public void onFailed(Exception e) {
+                running.set(false);
+                listener.onFailed(e);
+            }
+        }));
     }
 
-    // הפונקציה מקבלת את נתוני המילים של רמה ספציפית, רצה בלולאה על כל המילים, מחלצת את השדות באנגלית ובעברית, ומייצרת מכל שורה אובייקט מסוג Word.
-    private static void importLevel(JsonObject levelData, int rank) {
-        if (levelData == null) return;
+    // false אם השרת לא ענה בזמן (למשל אין רשת)
+    private static boolean acquire(Semaphore inFlight, int permits) {
+        try {
+            if (inFlight.tryAcquire(permits, WRITE_TIMEOUT_SECONDS, TimeUnit.SECONDS)) return true;
+            Log.w(TAG, "No answer from the server for " + WRITE_TIMEOUT_SECONDS + "s, stopping the import");
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        return false;
+    }
 
-        //  לולאה מורחבת (For-Each) שרצה על כל זוג של מפתח וערך ב-JSON (המפתח הוא ה-ID והערך הוא נתוני המילה)
-        for (Map.Entry<String, com.google.gson.JsonElement> entry : levelData.entrySet()) {
-            try {
-                JsonObject wordData = entry.getValue().getAsJsonObject();
-                String english = wordData.get("en").getAsString();
-                String hebrew = wordData.get("he").getAsString();
+    /**
+     * Stream {"vocabulary": {"levelN": {id: {"en", "he"}}}} and hand the words over in chunks
+     *
+     * @return how many words were read, or -1 if the sink asked to stop
+     */
+    // הקובץ לא נטען לזיכרון בשלמותו - בכל רגע מוחזק רק החלק הנוכחי
+    private static int readVocabulary(JsonReader reader, ChunkSink sink) throws IOException {
+        List<Word> chunk = new ArrayList<>(CHUNK_SIZE);
+        int chunkIndex = 0;
+        int total = 0;
 
-                // שליחת אובייקט המילה שנוצר אל ה-DatabaseService לשמירה אסינכרונית ב-Firebase,
-                // ושימוש ב-Log כדי להדפיס ב-Logcat של אנדרואיד סטודיו חיווי אם המילה עלתה בהצלחה או נכשלה.
-                Word word = new Word(entry.getKey(), english, hebrew, rank);
+        reader.beginObject();
+        while (reader.hasNext()) {
+            if (!reader.nextName().equals("vocabulary")) {
+                reader.skipValue();
+                continue;
+            }
 
-                DatabaseService.getInstance().createWord(word, new DatabaseService.DatabaseCallback<>() {
-                    @Override
-                    public void onCompleted(Void unused) {
-                        Log.d(TAG, "Imported word: " + english + " (Level " + rank + ")");
-                    }
+            reader.beginObject();
+            while (reader.hasNext()) {
+                String levelKey = reader.nextName();
+                int rank;
+                try {
+                    rank = Integer.parseInt(levelKey.replace("level", ""));
+                } catch (NumberFormatException e) {
+                    reader.skipValue();
+                    continue;
+                }
 
-                    @Override
-                    public void onFailed(Exception e) {
-                        Log.e(TAG, "Failed to import word: " + english, e);
+                reader.beginObject();
+                while (reader.hasNext()) {
+                    Word word = readWord(reader, reader.nextName(), rank);
+                    if (word == null) continue;
+
+                    chunk.add(word);
+                    total++;
+                    if (chunk.size() == CHUNK_SIZE) {
+                        if (!sink.accept(chunkIndex++, chunk)) return -1;
+                        chunk = new ArrayList<>(CHUNK_SIZE);
                     }
-                });
+                }
+                reader.endObject();
+            }
+            reader.endObject();
+        }
+        reader.endObject();
 
-            } catch (Exception e) {
-                Log.e(TAG, "Error importing word from level " + rank, e);
+        if (!chunk.isEmpty() && !sink.accept(chunkIndex, chunk)) return -1;
+        return total;
+    }
+
+    private static Word readWord(JsonReader reader, String id, int rank) throws IOException {
+        String english = null;
+        String hebrew = null;
+
+        reader.beginObject();
+        while (reader.hasNext()) {
+            String field = reader.nextName();
+            if (field.equals("en")) {
+                english = reader.nextString();
+            } else if (field.equals("he")) {
+                hebrew = reader.nextString();
+            } else {
+                reader.skipValue();
             }
         }
+        reader.endObject();
+
+        if (english == null || hebrew == null) {
+            Log.w(TAG, "Skipping incomplete word " + id + " in level " + rank);
+            return null;
+        }
+        return new Word(id, english, hebrew, rank);
+    }
+
+    // מקבל חלק מוכן לשליחה; מחזיר false כדי לעצור את הקריאה
+    private interface ChunkSink {
+        boolean accept(int chunkIndex, List<Word> words);
     }
-}
\ No newline at end of file
+}
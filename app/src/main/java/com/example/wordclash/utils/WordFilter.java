@@ -0,0 +1,200 @@
+package com.example.wordclash.utils;
+
+import android.os.Handler;
+import android.os.Looper;
+
+import com.example.wordclash.models.Word;
+
+import java.text.CollationKey;
+import java.text.Collator;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Search and sort for the word list screens, off the main thread
+ * Keys are computed once when the words are loaded; each query only compares them
+ */
+// כל מילה נשמרת יחד עם CollationKey מוכן למיון לפי א"ב, והחיפוש עצמו נעשה ב-WordSearchIndex
+// (שלשות אותיות, בלי ניקוד ובלי הבדל בין אותיות סופיות - כך שגם שגיאת הקלדה מוצאת את המילה).
+// הקלדה נדחית ב-DEBOUNCE_MS, והחיפוש רץ על thread נפרד. כל שאילתה חדשה מבטלת את הקודמת:
+// שאילתה שכבר לא עדכנית מפסיקה באמצע, והתוצאה שלה לא מגיעה למסך.
+public class WordFilter {
+
+    public static final long DEBOUNCE_MS = 150;
+    private static final int CANCEL_CHECK_INTERVAL = 256; // כל כמה מילים בודקים אם השאילתה בוטלה
+
+    public enum Sort {
+        RANDOM, ENGLISH, HEBREW, RANK
+    }
+
+    /**
+     * Receives the filtered, sorted words on the main thread
+     */
+    public interface ResultListener {
+        void onResult(List<Word> words);
+    }
+
+    private final ExecutorService worker = Executors.newSingleThreadExecutor();
+    private final Handler mainHandler = new Handler(Looper.getMainLooper());
+    private final AtomicInteger generation = new AtomicInteger();
+    private final Random random = new Random();
+
+    // נגישים רק מה-worker thread
+    private WordSearchIndex index = new WordSearchIndex();
+    private Map<Word, Entry> entries = new HashMap<>();
+    private Runnable pendingQuery;                    // נגיש רק מה-main thread
+
+    /**
+     * Replace the words to search in. The keys are built on the worker thread,
+     * before any query submitted after this call runs.
+     */
+    public void setWords(List<Word> words) {
+        if (worker.isShutdown()) return;
+        List<Word> copy = new ArrayList<>(words);
+        worker.execute(() -> buildEntries(copy));
+    }
+
+    /**
+     * Drop a word (e.g. after it was deleted) so later queries don't bring it back
+     */
+    public void remove(Word word) {
+        if (worker.isShutdown()) return;
+        worker.execute(() -> {
+            entries.remove(word);
+            index.remove(word);
+        });
+    }
+
+    /**
+     * Run a query after DEBOUNCE_MS, unless another query is submitted first
+     *
+     * @param rank only words of this rank, or 0 for all ranks
+     */
+    public void filterDebounced(String query, int rank, Sort sort, ResultListener listener) {
+        submit(query, rank, sort, DEBOUNCE_MS, listener);
+    }
+
+    /**
+     * Run a query now (for spinner changes and the first load), cancelling any pending one
+     */
+    public void filter(String query, int rank, Sort sort, ResultListener listener) {
+        submit(query, rank, sort, 0, listener);
+    }
+
+    /**
+     * Cancel pending work; call from onDestroy
+     */
+    public void shutdown() {
+        generation.incrementAndGet();
+        if (pendingQuery != null) mainHandler.removeCallbacks(pendingQuery);
+        worker.shutdownNow();
+    }
+
+    private void submit(String query, int rank, Sort sort, long delayMs, ResultListener listener) {
+        int current = generation.incrementAndGet();
+        if (pendingQuery != null) mainHandler.removeCallbacks(pendingQuery);
+
+        String normalized = WordSearchIndex.normalize(query);
+        pendingQuery = () -> {
+            pendingQuery = null;
+            if (worker.isShutdown()) return;
+            worker.execute(() -> {
+                List<Word> result = run(normalized, rank, sort, current);
+                if (result == null) return;
+                mainHandler.post(() -> {
+                    if (generation.get() == current) listener.onResult(result);
+                });
+            });
+        };
+        mainHandler.postDelayed(pendingQuery, delayMs);
+    }
+
+    // רץ על ה-worker thread. מחזיר null אם בזמן הריצה נשלחה שאילתה חדשה יותר.
+    private List<Word> run(String query, int rank, Sort sort, int current) {
+        List<Word> found = index.search(query); // לפי רלוונטיות, או כל המילים אם השאילתה ריקה
+        if (generation.get() != current) return null;
+
+        List<Entry> matches = new ArrayList<>(found.size());
+        for (int i = 0; i < found.size(); i++) {
+            if (i % CANCEL_CHECK_INTERVAL == 0 && generation.get() != current) return null;
+
+            Entry entry = entries.get(found.get(i));
+            if (entry == null || (rank != 0 && entry.word.getRank() != rank)) continue;
+            matches.add(entry);
+        }
+
+        // בחיפוש, "אקראי" פירושו לפי רלוונטיות - ההתאמות הטובות למעלה
+        if (query.isEmpty() || sort != Sort.RANDOM) {
+            Collections.sort(matches, comparatorFor(sort));
+        }
+
+        List<Word> words = new ArrayList<>(matches.size());
+        for (Entry entry : matches) words.add(entry.word);
+        return words;
+    }
+
+    private static Comparator<Entry> comparatorFor(Sort sort) {
+        switch (sort) {
+            case ENGLISH:
+                return (a, b) -> a.englishSortKey.compareTo(b.englishSortKey);
+            case HEBREW:
+                return (a, b) -> a.hebrewSortKey.compareTo(b.hebrewSortKey);
+            case RANK:
+                return (a, b) -> a.word.getRank() != b.word.getRank()
+                        ? Integer.compare(a.word.getRank(), b.word.getRank())
+                        : Integer.compare(a.index, b.index);
+            case RANDOM:
+            default:
+                return (a, b) -> Integer.compare(a.shuffleOrder, b.shuffleOrder);
+        }
+    }
+
+    // ========== בניית המפתחות ==========
+
+    private void buildEntries(List<Word> words) {
+        Collator english = Collator.getInstance(Locale.ENGLISH);
+        Collator hebrew = Collator.getInstance(new Locale("he"));
+
+        // סדר "אקראי" אחד לכל טעינה - הקלדה לא מערבבת את הרשימה מחדש בכל אות
+        List<Integer> shuffle = new ArrayList<>(words.size());
+        for (int i = 0; i < words.size(); i++) shuffle.add(i);
+        Collections.shuffle(shuffle, random);
+
+        WordSearchIndex built = new WordSearchIndex();
+        Map<Word, Entry> byWord = new HashMap<>(words.size() * 2);
+        for (int i = 0; i < words.size(); i++) {
+            Word word = words.get(i);
+            String en = word.getEnglish() != null ? word.getEnglish() : "";
+            String he = word.getHebrew() != null ? word.getHebrew() : "";
+            byWord.put(word, new Entry(word, i, shuffle.get(i), english.getCollationKey(en), hebrew.getCollationKey(he)));
+            built.add(word);
+        }
+        index = built;
+        entries = byWord;
+    }
+
+    private static class Entry {
+        final Word word;
+        final int index;         // המקום המקורי ברשימה
+        final int shuffleOrder;
+        final CollationKey englishSortKey;
+        final CollationKey hebrewSortKey;
+
+        Entry(Word word, int index, int shuffleOrder, CollationKey englishSortKey, CollationKey hebrewSortKey) {
+            this.word = word;
+            this.index = index;
+            this.shuffleOrder = shuffleOrder;
+            this.englishSortKey = englishSortKey;
+            this.hebrewSortKey = hebrewSortKey;
+        }
+    }
+}
@@ -0,0 +1,306 @@
+package com.example.wordclash.utils;
+
+import com.example.wordclash.models.Word;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * Fuzzy search over words: a trigram index of the English and Hebrew text
+ * Hebrew is matched without niqqud and with final letters folded into regular ones (ם = מ),
+ * and a query with a typo still finds words that share most of its trigrams
+ * Not thread-safe; WordFilter uses it from its worker thread only
+ */
+// כל מילה מפורקת לשלשות אותיות (trigrams), ולכל שלשה נשמרת רשימת המילים שמכילות אותה.
+// חיפוש עובר רק על הרשימות של השלשות שבשאילתה, ולא על כל אוצר המילים.
+// האנגלית והעברית של כל מילה נספרות כשני "מסמכים" נפרדים: doc = slot * 2 + שדה.
+public class WordSearchIndex {
+
+    private static final int ENGLISH = 0;
+    private static final int HEBREW = 1;
+    private static final float MIN_SIMILARITY = 0.5f; // לפחות חצי מהשלשות של השאילתה צריכות להופיע במילה
+
+    private final TrigramMap postings = new TrigramMap();
+    private final Map<Word, Integer> slots = new HashMap<>();   // Word.equals משווה לפי id
+    private final List<Word> words = new ArrayList<>();         // slot -> מילה (null אחרי מחיקה)
+    private final List<String> keys = new ArrayList<>();        // doc -> טקסט מנורמל
+    private int[] trigramCounts = new int[0];                   // doc -> כמה שלשות שונות יש בו
+    private int[] matchCounts = new int[0];                     // doc -> כמה שלשות של השאילתה נמצאו (לשימוש חוזר בין חיפושים)
+    private int removed;
+
+    // ========== עדכון ==========
+
+    public void add(Word word) {
+        if (slots.containsKey(word)) remove(word);
+
+        int slot = words.size();
+        words.add(word);
+        slots.put(word, slot);
+        ensureCapacity((slot + 1) * 2);
+
+        indexDoc(slot * 2 + ENGLISH, normalize(word.getEnglish()));
+        indexDoc(slot * 2 + HEBREW, normalize(word.getHebrew()));
+    }
+
+    // המילה מסומנת כמחוקה; הרשימות מתנקות בבנייה מחדש כשהמחוקות הן יותר מחצי
+    public void remove(Word word) {
+        Integer slot = slots.remove(word);
+        if (slot == null) return;
+
+        words.set(slot, null);
+        removed++;
+        if (removed > slots.size()) rebuild();
+    }
+
+    public int size() {
+        return slots.size();
+    }
+
+    // ========== חיפוש ==========
+
+    /**
+     * Words that match the query, best match first:
+     * text that starts with the query, then text that contains it, then similar text
+     */
+    public List<Word> search(String query) {
+        String normalized = normalize(query);
+        if (normalized.isEmpty()) return liveWords();
+        if (normalized.length() < 3) return scan(normalized);
+
+        long[] queryTrigrams = trigramsOf(normalized);
+        List<Integer> touched = new ArrayList<>();
+        for (long trigram : queryTrigrams) {
+            IntList docs = postings.get(trigram);
+            if (docs == null) continue;
+            for (int i = 0; i < docs.size; i++) {
+                int doc = docs.values[i];
+                if (matchCounts[doc]++ == 0) touched.add(doc);
+            }
+        }
+
+        Map<Integer, Float> best = new HashMap<>(); // slot -> הציון הגבוה מבין שני השדות
+        for (int doc : touched) {
+            int shared = matchCounts[doc];
+            matchCounts[doc] = 0;
+
+            int slot = doc / 2;
+            if (words.get(slot) == null) continue;
+
+            float score = score(keys.get(doc), normalized, shared, queryTrigrams.length, trigramCounts[doc]);
+            if (score <= 0) continue;
+
+            Float previous = best.get(slot);
+            if (previous == null || score > previous) best.put(slot, score);
+        }
+
+        List<Integer> ranked = new ArrayList<>(best.keySet());
+        ranked.sort((a, b) -> {
+            int byScore = Float.compare(best.get(b), best.get(a));
+            return byScore != 0 ? byScore : Integer.compare(a, b);
+        });
+
+        List<Word> result = new ArrayList<>(ranked.size());
+        for (int slot : ranked) result.add(words.get(slot));
+        return result;
+    }
+
+    // ציון: התאמה מלאה בתחילת הטקסט > התאמה מלאה באמצע > דמיון (Jaccard של השלשות)
+    private static float score(String key, String query, int shared, int queryTrigrams, int docTrigrams) {
+        if (key.startsWith(query)) return 3f;
+        if (key.contains(query)) return 2f;
+        if (shared < queryTrigrams * MIN_SIMILARITY) return 0f;
+        return (float) shared / (queryTrigrams + docTrigrams - shared);
+    }
+
+    // שאילתה של אות או שתיים קצרה מדי לשלשות - עוברים על כל המילים
+    private List<Word> scan(String query) {
+        List<Word> starts = new ArrayList<>();
+        List<Word> contains = new ArrayList<>();
+        for (int slot = 0; slot < words.size(); slot++) {
+            Word word = words.get(slot);
+            if (word == null) continue;
+
+            String english = keys.get(slot * 2 + ENGLISH);
+            String hebrew = keys.get(slot * 2 + HEBREW);
+            if (english.startsWith(query) || hebrew.startsWith(query)) {
+                starts.add(word);
+            } else if (english.contains(query) || hebrew.contains(query)) {
+                contains.add(word);
+            }
+        }
+        starts.addAll(contains);
+        return starts;
+    }
+
+    private List<Word> liveWords() {
+        List<Word> live = new ArrayList<>(slots.size());
+        for (Word word : words) {
+            if (word != null) live.add(word);
+        }
+        return live;
+    }
+
+    // ========== נרמול ==========
+
+    /**
+     * Lowercase, strip niqqud and cantillation marks, fold Hebrew final letters and collapse whitespace
+     */
+    public static String normalize(String text) {
+        if (text == null) return "";
+
+        String lower = text.toLowerCase(Locale.ROOT);
+        StringBuilder out = new StringBuilder(lower.length());
+        boolean space = false;
+        for (int i = 0; i < lower.length(); i++) {
+            char c = lower.charAt(i);
+            if (c >= '\u0591' && c <= '\u05C7' && c != '\u05BE') continue; // ניקוד וטעמים (מקף נשאר)
+
+            if (Character.isWhitespace(c) || c == '\u05BE' || c == '-') { // רווח, מקף עברי או מקף
+                space = out.length() > 0;
+                continue;
+            }
+            if (space) {
+                out.append(' ');
+                space = false;
+            }
+            out.append(foldFinal(c));
+        }
+        return out.toString();
+    }
+
+    private static char foldFinal(char c) {
+        switch (c) {
+            case 'ך':
+                return 'כ';
+            case 'ם':
+                return 'מ';
+            case 'ן':
+                return 'נ';
+            case 'ף':
+                return 'פ';
+            case 'ץ':
+                return 'צ';
+            default:
+                return c;
+        }
+    }
+
+    // השלשות השונות של טקסט, עם ריפוד: שני רווחים בהתחלה ואחד בסוף, כדי שגם תחילת המילה וסופה ייספרו.
+    // כל שלשה נארזת ל-long (16 ביט לכל תו), בלי ליצור מחרוזות.
+    private static long[] trigramsOf(String text) {
+        String padded = "  " + text + " ";
+        long[] trigrams = new long[padded.length() - 2];
+        for (int i = 0; i < trigrams.length; i++) {
+            trigrams[i] = ((long) padded.charAt(i) << 32) | ((long) padded.charAt(i + 1) << 16) | padded.charAt(i + 2);
+        }
+
+        Arrays.sort(trigrams);
+        int distinct = 0;
+        for (int i = 0; i < trigrams.length; i++) {
+            if (i == 0 || trigrams[i] != trigrams[i - 1]) trigrams[distinct++] = trigrams[i];
+        }
+        return Arrays.copyOf(trigrams, distinct);
+    }
+
+    // ========== פנימי ==========
+
+    private void indexDoc(int doc, String key) {
+        keys.add(key);
+        if (key.isEmpty()) {
+            trigramCounts[doc] = 0;
+            return;
+        }
+
+        long[] trigrams = trigramsOf(key);
+        trigramCounts[doc] = trigrams.length;
+        for (long trigram : trigrams) {
+            postings.getOrCreate(trigram).add(doc);
+        }
+    }
+
+    private void ensureCapacity(int docs) {
+        if (trigramCounts.length >= docs) return;
+        int capacity = Math.max(docs, trigramCounts.length * 2);
+        trigramCounts = Arrays.copyOf(trigramCounts, capacity);
+        matchCounts = Arrays.copyOf(matchCounts, capacity);
+    }
+
+    private void rebuild() {
+        List<Word> live = liveWords();
+        postings.clear();
+        slots.clear();
+        words.clear();
+        keys.clear();
+        removed = 0;
+        for (Word word : live) add(word);
+    }
+
+    // טבלת hash פתוחה משלשה (long) לרשימת המסמכים שלה, בלי boxing
+    private static class TrigramMap {
+        private long[] keys = new long[1024];
+        private IntList[] values = new IntList[1024];
+        private int size;
+
+        IntList get(long key) {
+            int mask = keys.length - 1;
+            for (int i = indexFor(key, mask); values[i] != null; i = (i + 1) & mask) {
+                if (keys[i] == key) return values[i];
+            }
+            return null;
+        }
+
+        IntList getOrCreate(long key) {
+            IntList existing = get(key);
+            if (existing != null) return existing;
+
+            if ((size + 1) * 2 > keys.length) grow();
+            IntList created = new IntList();
+            insert(key, created);
+            size++;
+            return created;
+        }
+
+        void clear() {
+            Arrays.fill(values, null);
+            size = 0;
+        }
+
+        private void insert(long key, IntList value) {
+            int mask = keys.length - 1;
+            int i = indexFor(key, mask);
+            while (values[i] != null) i = (i + 1) & mask;
+            keys[i] = key;
+            values[i] = value;
+        }
+
+        private void grow() {
+            long[] oldKeys = keys;
+            IntList[] oldValues = values;
+            keys = new long[oldKeys.length * 2];
+            values = new IntList[oldValues.length * 2];
+            for (int i = 0; i < oldKeys.length; i++) {
+                if (oldValues[i] != null) insert(oldKeys[i], oldValues[i]);
+            }
+        }
+
+        private static int indexFor(long key, int mask) {
+            long h = key * 0x9E3779B97F4A7C15L;
+            return (int) (h >>> 40) & mask;
+        }
+    }
+
+    // רשימת int בלי boxing - רשימה כזו לכל שלשה
+    private static class IntList {
+        int[] values = new int[4];
+        int size;
+
+        void add(int value) {
+            if (size == values.length) values = Arrays.copyOf(values, size * 2);
+            values[size++] = value;
+        }
+    }
+}
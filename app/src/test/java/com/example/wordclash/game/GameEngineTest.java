@@ -0,0 +1,340 @@
+package com.example.wordclash.game;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assume.assumeTrue;
+
+import com.example.wordclash.models.Word;
+
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Random;
+import java.util.logging.Logger;
+
+public class GameEngineTest {
+
+    // ========== גודל הסבב ==========
+
+    @Test
+    public void speedQuizDeckGrowsWithRank() {
+        int[] expected = {10, 13, 16, 20, 25};
+        for (int rank = 1; rank <= 5; rank++) {
+            GameEngine engine = engine(GameType.SPEED_QUIZ, rank, 1);
+            assertTrue(engine.start(words(40)));
+
+            assertEquals(expected[rank - 1], engine.getSize());
+            assertEquals(expected[rank - 1], engine.getDeckWords().size());
+            assertEquals(expected[rank - 1], new HashSet<>(engine.getDeckWords()).size());
+        }
+    }
+
+    @Test
+    public void choiceQuestionsHaveFourDistinctOptionsWithTheAnswer() {
+        GameEngine engine = engine(GameType.SPEED_QUIZ, 3, 2);
+        assertTrue(engine.start(words(40)));
+
+        for (int i = 0; i < engine.getSize(); i++) {
+            Question question = engine.current();
+            assertEquals(Question.Kind.CHOICE, question.getKind());
+            assertEquals(4, question.getOptions().length);
+            assertEquals(4, new HashSet<>(List.of(question.getOptions())).size());
+            // לומדים אנגלית: השאלה בעברית והתשובות באנגלית
+            assertEquals(question.getWord().getHebrew(), question.getPrompt());
+            assertEquals(question.getWord().getEnglish(), question.getOptions()[question.getCorrectOption()]);
+            engine.next();
+        }
+    }
+
+    @Test
+    public void tooFewSuitableWordsDoNotStart() {
+        assertFalse(engine(GameType.TRUE_FALSE, 1, 3).start(words(9)));
+        // בבניית מילים רק מילים של 4-8 אותיות מתאימות
+        List<Word> tooLong = new ArrayList<>();
+        for (int i = 0; i < 5; i++) tooLong.add(new Word("w" + i, "international" + i, "בינלאומי" + i, 1));
+        assertFalse(engine(GameType.WORD_BUILDER, 1, 3).start(tooLong));
+    }
+
+    // ========== חידון מהיר ==========
+
+    @Test
+    public void speedQuizPassesAtEighty() {
+        assertEquals(80, playSpeedQuiz(8).getScore());
+        assertTrue(playSpeedQuiz(8).isPassed());
+
+        GameResult failed = playSpeedQuiz(7);
+        assertEquals(70, failed.getScore());
+        assertFalse(failed.isPassed());
+        assertEquals(100, failed.getMaxScore());
+    }
+
+    @Test
+    public void aQuestionIsScoredOnlyOnce() {
+        GameEngine engine = engine(GameType.SPEED_QUIZ, 1, 4);
+        assertTrue(engine.start(words(40)));
+        int correct = engine.current().getCorrectOption();
+
+        assertTrue(engine.answerChoice(correct));
+        assertFalse(engine.answerChoice(correct));
+        assertEquals(10, engine.getScore());
+    }
+
+    @Test
+    public void timeoutEndsTheQuestionWithoutPoints() {
+        GameEngine engine = engine(GameType.SPEED_QUIZ, 1, 5);
+        assertTrue(engine.start(words(40)));
+
+        engine.timeout();
+        assertFalse(engine.answerChoice(engine.current().getCorrectOption()));
+        engine.next();
+
+        assertEquals(1, engine.getIndex());
+        assertEquals(0, engine.getScore());
+    }
+
+    private static GameResult playSpeedQuiz(int correctAnswers) {
+        GameEngine engine = engine(GameType.SPEED_QUIZ, 1, 6);
+        assertTrue(engine.start(words(40)));
+        for (int i = 0; !engine.isFinished(); i++) {
+            int correct = engine.current().getCorrectOption();
+            engine.answerChoice(i < correctAnswers ? correct : (correct + 1) % 4);
+            engine.next();
+        }
+        return engine.finish(null);
+    }
+
+    // ========== נכון/לא נכון ==========
+
+    @Test
+    public void trueFalseRepeatsWordsWhenThereAreFewerThanQuestions() {
+        List<Word> words = words(10);
+        GameEngine engine = engine(GameType.TRUE_FALSE, 2, 7);
+        assertTrue(engine.start(words));
+
+        assertEquals(15, engine.getSize());
+        assertEquals(10, new HashSet<>(engine.getDeckWords()).size());
+
+        while (!engine.isFinished()) {
+            Question question = engine.current();
+            Word word = question.getWord();
+            String shown = question.getPrompt().substring(question.getPrompt().indexOf(" = ") + 3);
+            assertTrue(question.getPrompt().startsWith(word.getHebrew() + " = "));
+            // הצד הימני הוא התרגום של המילה עצמה רק כשהמשפט נכון
+            assertEquals(question.isStatementTrue(), shown.equals(word.getEnglish()));
+
+            assertTrue(engine.answerTrueFalse(question.isStatementTrue()));
+            engine.next();
+        }
+        assertEquals(15 * 20, engine.getScore());
+    }
+
+    // ========== זוגות ==========
+
+    @Test
+    public void matchingEveryPairFinishesTheBoard() {
+        GameEngine engine = engine(GameType.MATCH, 2, 8);
+        assertTrue(engine.start(words(20)));
+        Question board = engine.current();
+
+        assertEquals(Question.Kind.PAIRS, board.getKind());
+        assertEquals(6, engine.getSize());
+        assertEquals(12, board.getOptions().length);
+
+        int[][] pairs = tilesByPair(board);
+        assertFalse(engine.matchTiles(pairs[0][0], pairs[1][0]));
+        for (int[] pair : pairs) {
+            assertFalse(engine.isFinished());
+            assertTrue(engine.matchTiles(pair[0], pair[1]));
+            assertFalse(engine.matchTiles(pair[0], pair[1]));
+        }
+
+        assertTrue(engine.isFinished());
+        assertEquals(6, engine.getPairsFound());
+        assertEquals(engine.getMaxScore(), engine.getScore());
+    }
+
+    @Test
+    public void matchBoardKeepsTheNativeSideInOrder() {
+        GameEngine engine = engine(GameType.MATCH, 1, 9);
+        assertTrue(engine.start(words(20)));
+        Question board = engine.current();
+
+        // הצד השמאלי (קלפים 0..5) הוא המילים של הסבב, לפי הסדר
+        for (int tile = 0; tile < 6; tile++) {
+            assertEquals(tile, board.pairOf(tile));
+            assertEquals(engine.getDeckWords().get(tile).getHebrew(), board.getOptions()[tile]);
+        }
+    }
+
+    @Test
+    public void restoredPairsBoardKeepsTheFoundPairs() {
+        List<Word> words = words(20);
+        GameEngine played = engine(GameType.MEMORY_CARDS, 1, 10);
+        assertTrue(played.start(words));
+        int[][] pairs = tilesByPair(played.current());
+        played.matchTiles(pairs[1][0], pairs[1][1]);
+        played.matchTiles(pairs[4][0], pairs[4][1]);
+        GameSnapshot snapshot = played.snapshot();
+
+        // מנוע חדש, כמו אחרי מוות של התהליך: הקלפים מעורבבים מחדש, אבל אותם זוגות מסומנים
+        GameEngine restored = engine(GameType.MEMORY_CARDS, 1, 11);
+        assertTrue(restored.restore(words, snapshot));
+        Question board = restored.current();
+
+        assertEquals(played.getDeckWords(), restored.getDeckWords());
+        assertEquals(2, restored.getPairsFound());
+        assertEquals(played.getScore(), restored.getScore());
+        for (int tile = 0; tile < board.getOptions().length; tile++) {
+            int pair = board.pairOf(tile);
+            assertEquals(pair == 1 || pair == 4, restored.isTileMatched(tile));
+        }
+
+        for (int[] pair : tilesByPair(board)) {
+            if (!restored.isTileMatched(pair[0])) assertTrue(restored.matchTiles(pair[0], pair[1]));
+        }
+        assertTrue(restored.isFinished());
+        assertEquals(restored.getMaxScore(), restored.getScore());
+    }
+
+    @Test
+    public void restoreFailsWhenAWordIsGone() {
+        List<Word> words = words(40);
+        GameEngine played = engine(GameType.SPEED_QUIZ, 1, 12);
+        assertTrue(played.start(words));
+        GameSnapshot snapshot = played.snapshot();
+
+        List<Word> withoutFirst = new ArrayList<>(words);
+        withoutFirst.remove(played.getDeckWords().get(0));
+
+        assertFalse(engine(GameType.SPEED_QUIZ, 1, 13).restore(withoutFirst, snapshot));
+    }
+
+    @Test
+    public void answeredQuestionIsSavedAsDone() {
+        GameEngine engine = engine(GameType.SPEED_QUIZ, 1, 14);
+        assertTrue(engine.start(words(40)));
+        engine.answerChoice(engine.current().getCorrectOption());
+
+        GameSnapshot snapshot = engine.snapshot();
+
+        assertEquals(1, snapshot.getIndex());
+        assertEquals(10, snapshot.getScore());
+    }
+
+    // ========== תוצאה ==========
+
+    @Test
+    public void finishSubmitsOnlyOnce() {
+        GameEngine engine = engine(GameType.SPEED_QUIZ, 1, 15);
+        assertTrue(engine.start(words(40)));
+        while (!engine.isFinished()) {
+            engine.answerChoice(engine.current().getCorrectOption());
+            engine.next();
+        }
+        List<GameResult> submitted = new ArrayList<>();
+
+        GameResult first = engine.finish(submitted::add);
+        GameResult second = engine.finish(submitted::add);
+
+        assertEquals(1, submitted.size());
+        assertSame(first, submitted.get(0));
+        assertEquals(first.getScore(), second.getScore());
+        assertTrue(engine.isSubmitted());
+    }
+
+    @Test
+    public void restoredSubmittedRoundIsNotSubmittedAgain() {
+        List<Word> words = words(40);
+        GameEngine played = engine(GameType.SPEED_QUIZ, 1, 16);
+        assertTrue(played.start(words));
+        played.finish(result -> { });
+
+        GameEngine restored = engine(GameType.SPEED_QUIZ, 1, 17);
+        assertTrue(restored.restore(words, played.snapshot()));
+        List<GameResult> submitted = new ArrayList<>();
+        restored.finish(submitted::add);
+
+        assertTrue(submitted.isEmpty());
+    }
+
+    @Test
+    public void playAgainDealsAFreshRound() {
+        GameEngine engine = engine(GameType.SPEED_QUIZ, 1, 18);
+        assertTrue(engine.start(words(40)));
+        engine.answerChoice(engine.current().getCorrectOption());
+        engine.finish(result -> { });
+
+        engine.restart();
+
+        assertEquals(0, engine.getIndex());
+        assertEquals(0, engine.getScore());
+        assertFalse(engine.isSubmitted());
+        assertNotNull(engine.current());
+    }
+
+    // ========== מדידה ==========
+
+    /**
+     * How long dealing a whole round takes, for each game at rank 5, from pools of 1k and 10k words
+     * Logs microseconds per round. Runs only with -Pbenchmarks.
+     */
+    @Test
+    public void benchmarkDeckBuild() {
+        assumeTrue(Boolean.getBoolean("benchmarks"));
+        int rounds = 5_000;
+        for (int size : new int[]{1_000, 10_000}) {
+            List<Word> pool = words(size);
+            StringBuilder line = new StringBuilder(String.format(Locale.ROOT, "Deck build, %,6d words:", size));
+            for (GameType type : GameType.values()) {
+                GameEngine engine = engine(type, 5, 19);
+                assertTrue(engine.start(pool));
+
+                // חימום, כדי שה-JIT יקמפל את הבנייה לפני המדידה
+                for (int i = 0; i < rounds; i++) engine.restart();
+                long start = System.nanoTime();
+                for (int i = 0; i < rounds; i++) engine.restart();
+                long elapsed = System.nanoTime() - start;
+
+                assertTrue(engine.getSize() > 0);
+                line.append(String.format(Locale.ROOT, " %s %.2f us", type.getKey(), elapsed / 1e3 / rounds));
+            }
+            Logger.getLogger(GameEngineTest.class.getName()).info(line.toString());
+        }
+    }
+
+    // ========== עזר ==========
+
+    private static GameEngine engine(GameType type, int rank, long seed) {
+        return new GameEngine(type, rank, true, new Random(seed));
+    }
+
+    // מילים של 5-7 אותיות, כדי שיתאימו גם למשחקי האיות
+    private static List<Word> words(int count) {
+        List<Word> words = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            words.add(new Word("w" + i, "word" + (char) ('a' + i % 26) + (i / 26 > 0 ? String.valueOf(i / 26 % 100) : ""),
+                    "מילה" + i, 1));
+        }
+        return words;
+    }
+
+    // לכל זוג: שני הקלפים שלו
+    private static int[][] tilesByPair(Question board) {
+        int[][] pairs = new int[board.getPairCount()][];
+        for (int tile = 0; tile < board.getOptions().length; tile++) {
+            int pair = board.pairOf(tile);
+            if (pairs[pair] == null) {
+                pairs[pair] = new int[]{tile, -1};
+            } else {
+                pairs[pair][1] = tile;
+            }
+        }
+        return pairs;
+    }
+}
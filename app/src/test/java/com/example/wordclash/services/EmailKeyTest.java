@@ -0,0 +1,38 @@
+package com.example.wordclash.services;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotEquals;
+import static org.junit.Assert.assertNull;
+
+import org.junit.Test;
+
+public class EmailKeyTest {
+
+    @Test
+    public void keepsTheExistingFormatForOrdinaryEmails() {
+        // מפתחות שכבר נכתבו לאינדקס חייבים להישאר אותו דבר
+        assertEquals("dana,levi@gmail,com", DatabaseService.emailKey("  Dana.Levi@Gmail.com "));
+    }
+
+    @Test
+    public void encodesEveryCharacterFirebaseForbidsInKeys() {
+        String key = DatabaseService.emailKey("a#b$c[d]e/f%g@x.io");
+
+        assertEquals("a%23b%24c%5Bd%5De%2Ff%25g@x,io", key);
+        for (char forbidden : new char[]{'.', '#', '$', '[', ']', '/'}) {
+            assertFalse(key.indexOf(forbidden) >= 0);
+        }
+    }
+
+    @Test
+    public void escapedCharactersDoNotCollide() {
+        assertNotEquals(DatabaseService.emailKey("a#b@x.io"), DatabaseService.emailKey("a%23b@x.io"));
+    }
+
+    @Test
+    public void emptyEmailHasNoKey() {
+        assertNull(DatabaseService.emailKey(null));
+        assertNull(DatabaseService.emailKey("   "));
+    }
+}
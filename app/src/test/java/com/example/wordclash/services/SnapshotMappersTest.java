@@ -0,0 +1,186 @@
+package com.example.wordclash.services;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assume.assumeTrue;
+
+import com.example.wordclash.models.Stats;
+import com.example.wordclash.models.User;
+import com.example.wordclash.models.Word;
+import com.google.firebase.database.DataSnapshot;
+import com.google.firebase.database.InternalHelpers;
+import com.google.firebase.database.core.Path;
+import com.google.firebase.database.snapshot.IndexedNode;
+import com.google.firebase.database.snapshot.NodeUtilities;
+
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.logging.Logger;
+
+public class SnapshotMappersTest {
+
+    private static final int RECORDS = 10_000;
+    private static final Logger LOG = Logger.getLogger(SnapshotMappersTest.class.getName());
+
+    // ========== נכונות ==========
+
+    @Test
+    public void readsEveryUserField() {
+        User user = SnapshotMappers.toUser(snapshotOf("users/u7", userRecord(7)));
+
+        assertEquals("u7", user.getId());
+        assertEquals("user7@example.com", user.getEmail());
+        assertEquals("secret7", user.getPassword());
+        assertEquals("User 7", user.getUserName());
+        assertEquals("male", user.getGender());
+        assertFalse(user.isAdmin());
+        assertEquals(Integer.toHexString(7 * 31), user.getAvatarHash());
+        assertEquals("en", user.getLearningLanguage());
+
+        List<Word> words = user.getWords();
+        assertEquals(3, words.size());
+        assertEquals("w8", words.get(1).getId());
+        assertEquals("word1", words.get(1).getEnglish());
+        assertEquals("מילה1", words.get(1).getHebrew());
+        assertEquals(2, words.get(1).getRank());
+    }
+
+    @Test
+    public void readsWordsStoredAsAMap() {
+        Map<String, Object> record = userRecord(3);
+        Map<String, Object> words = new HashMap<>();
+        words.put("a", ((List<?>) record.get("words")).get(0));
+        record.put("words", words);
+
+        User user = SnapshotMappers.toUser(snapshotOf("users/u3", record));
+
+        assertEquals(1, user.getWords().size());
+        assertEquals("w3", user.getWords().get(0).getId());
+    }
+
+    @Test
+    public void readsStatsAndIgnoresTheVersion() {
+        Map<String, Object> record = statsRecord(7);
+        record.put("version", 12L);
+
+        Stats stats = SnapshotMappers.toStats(snapshotOf("stats/u7", record));
+
+        assertEquals("u7", stats.getUserId());
+        assertEquals(3, stats.getRank());
+        assertEquals(50, stats.getTotalScore());
+    }
+
+    @Test
+    public void missingRecordIsNull() {
+        assertNull(SnapshotMappers.toUser(snapshotOf("users/none", null)));
+        assertNull(SnapshotMappers.toStats(snapshotOf("stats/none", null)));
+    }
+
+    // ========== מדידה ==========
+
+    /**
+     * Map 10k users and 10k stats records, field by field and with getValue(Class)
+     * Logs the time of each for the whole node. Runs only with -Pbenchmarks.
+     */
+    @Test
+    public void benchmarkAgainstReflection() {
+        assumeTrue(Boolean.getBoolean("benchmarks"));
+        Map<String, Object> users = new HashMap<>();
+        Map<String, Object> stats = new HashMap<>();
+        for (int i = 0; i < RECORDS; i++) {
+            users.put("u" + i, userRecord(i));
+            stats.put("u" + i, statsRecord(i));
+        }
+        DataSnapshot usersSnapshot = snapshotOf("users", users);
+        DataSnapshot statsSnapshot = snapshotOf("stats", stats);
+
+        // חימום, כדי שה-JIT יקמפל את שני המסלולים לפני המדידה
+        for (int round = 0; round < 3; round++) {
+            mapUsers(usersSnapshot, true);
+            mapUsers(usersSnapshot, false);
+            mapStats(statsSnapshot, true);
+            mapStats(statsSnapshot, false);
+        }
+
+        long usersMapped = mapUsers(usersSnapshot, true);
+        long usersReflected = mapUsers(usersSnapshot, false);
+        long statsMapped = mapStats(statsSnapshot, true);
+        long statsReflected = mapStats(statsSnapshot, false);
+        LOG.info(String.format(Locale.ROOT,
+                "SnapshotMappers %,d users: mappers %.1f ms, getValue(User.class) %.1f ms",
+                RECORDS, usersMapped / 1e6, usersReflected / 1e6));
+        LOG.info(String.format(Locale.ROOT,
+                "SnapshotMappers %,d stats: mappers %.1f ms, getValue(Stats.class) %.1f ms",
+                RECORDS, statsMapped / 1e6, statsReflected / 1e6));
+    }
+
+    private static long mapUsers(DataSnapshot snapshot, boolean mappers) {
+        List<User> users = new ArrayList<>(RECORDS);
+        long start = System.nanoTime();
+        for (DataSnapshot child : snapshot.getChildren()) {
+            users.add(mappers ? SnapshotMappers.toUser(child) : child.getValue(User.class));
+        }
+        long elapsed = System.nanoTime() - start;
+        assertEquals(RECORDS, users.size());
+        return elapsed;
+    }
+
+    private static long mapStats(DataSnapshot snapshot, boolean mappers) {
+        long total = 0;
+        long start = System.nanoTime();
+        for (DataSnapshot child : snapshot.getChildren()) {
+            Stats stats = mappers ? SnapshotMappers.toStats(child) : child.getValue(Stats.class);
+            total += stats.getTotalScore();
+        }
+        long elapsed = System.nanoTime() - start;
+        assertTrue(total > 0);
+        return elapsed;
+    }
+
+    // ========== נתונים ==========
+
+    // אותו מבנה ש-Firebase מחזיר ל-snapshot: עץ של Map, String, Long ו-Boolean
+    private static DataSnapshot snapshotOf(String path, Object value) {
+        return InternalHelpers.createDataSnapshot(InternalHelpers.createReference(null, new Path(path)),
+                IndexedNode.from(NodeUtilities.NodeFromJSON(value)));
+    }
+
+    private static Map<String, Object> userRecord(int i) {
+        Map<String, Object> user = new HashMap<>();
+        user.put("id", "u" + i);
+        user.put("email", "user" + i + "@example.com");
+        user.put("password", "secret" + i);
+        user.put("userName", "User " + i);
+        user.put("gender", i % 2 == 0 ? "female" : "male");
+        user.put("admin", i % 100 == 0);
+        user.put("avatarHash", Integer.toHexString(i * 31));
+        user.put("learningLanguage", i % 3 == 0 ? "he" : "en");
+
+        List<Object> words = new ArrayList<>();
+        for (int w = 0; w < 3; w++) {
+            Map<String, Object> word = new HashMap<>();
+            word.put("id", "w" + (i + w));
+            word.put("english", "word" + w);
+            word.put("hebrew", "מילה" + w);
+            word.put("rank", (long) (w + 1));
+            words.add(word);
+        }
+        user.put("words", words);
+        return user;
+    }
+
+    private static Map<String, Object> statsRecord(int i) {
+        Map<String, Object> stats = new HashMap<>();
+        stats.put("userId", "u" + i);
+        stats.put("rank", (long) (i % 5 + 1));
+        stats.put("totalScore", (long) (i * 7 + 1));
+        return stats;
+    }
+}
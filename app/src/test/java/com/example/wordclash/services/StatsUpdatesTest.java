@@ -0,0 +1,128 @@
+package com.example.wordclash.services;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import com.example.wordclash.models.Stats;
+import com.google.firebase.database.ServerValue;
+
+import org.junit.Test;
+
+import java.util.Map;
+
+public class StatsUpdatesTest {
+
+    private static final String USER = "u1";
+    private static final String STATS = DatabaseService.STATS_PATH + "/" + USER;
+    private static final String ROW = DatabaseService.LEADERBOARD_PATH + "/" + USER;
+
+    // ========== statsWrite ==========
+
+    @Test
+    public void firstWriteAddsTheUserToTheHistograms() {
+        Map<String, Object> updates = StatsUpdates.statsWrite(USER, null, 0, new Stats(USER, 1, 30));
+
+        assertEquals(30, updates.get(STATS + "/totalScore"));
+        assertEquals(1, updates.get(STATS + "/rank"));
+        assertEquals(1L, updates.get(STATS + "/" + StatsUpdates.VERSION));
+        assertEquals(30, updates.get(ROW + "/score"));
+        assertEquals(ServerValue.increment(1), updates.get(DatabaseService.LEADERBOARD_BUCKETS_PATH + "/0"));
+        assertEquals(ServerValue.increment(1), updates.get(DatabaseService.LEADERBOARD_SCORE_COUNTS_PATH + "/0/30"));
+    }
+
+    @Test
+    public void scoreChangeMovesTheUserBetweenBuckets() {
+        Map<String, Object> updates = StatsUpdates.statsWrite(USER, new Stats(USER, 2, 95), 7, new Stats(USER, 2, 110));
+
+        assertEquals(8L, updates.get(STATS + "/" + StatsUpdates.VERSION));
+        assertEquals(110, updates.get(ROW + "/score"));
+        assertEquals(ServerValue.increment(-1), updates.get(DatabaseService.LEADERBOARD_SCORE_COUNTS_PATH + "/0/95"));
+        assertEquals(ServerValue.increment(1), updates.get(DatabaseService.LEADERBOARD_SCORE_COUNTS_PATH + "/1/110"));
+        assertEquals(ServerValue.increment(-1), updates.get(DatabaseService.LEADERBOARD_BUCKETS_PATH + "/0"));
+        assertEquals(ServerValue.increment(1), updates.get(DatabaseService.LEADERBOARD_BUCKETS_PATH + "/1"));
+    }
+
+    @Test
+    public void scoreChangeInsideABucketLeavesTheBucketCounts() {
+        Map<String, Object> updates = StatsUpdates.statsWrite(USER, new Stats(USER, 2, 110), 3, new Stats(USER, 2, 130));
+
+        assertEquals(ServerValue.increment(-1), updates.get(DatabaseService.LEADERBOARD_SCORE_COUNTS_PATH + "/1/110"));
+        assertEquals(ServerValue.increment(1), updates.get(DatabaseService.LEADERBOARD_SCORE_COUNTS_PATH + "/1/130"));
+        assertFalse(updates.containsKey(DatabaseService.LEADERBOARD_BUCKETS_PATH + "/1"));
+    }
+
+    @Test
+    public void rankChangeAloneLeavesTheHistograms() {
+        Map<String, Object> updates = StatsUpdates.statsWrite(USER, new Stats(USER, 2, 500), 3, new Stats(USER, 3, 500));
+
+        assertEquals(3, updates.get(ROW + "/rank"));
+        for (String path : updates.keySet()) {
+            assertFalse(path, path.startsWith(DatabaseService.LEADERBOARD_BUCKETS_PATH + "/"));
+            assertFalse(path, path.startsWith(DatabaseService.LEADERBOARD_SCORE_COUNTS_PATH + "/"));
+        }
+    }
+
+    @Test
+    public void passedGameCountsThePracticeInTheSameUpdate() {
+        Stats before = new Stats(USER, 2, 500);
+        Stats after = StatsUpdates.afterGameResult(USER, before, 2, 40, 3);
+
+        Map<String, Object> updates = StatsUpdates.statsWrite(USER, before, 3, after, 2);
+
+        // אותה הגדלה בשרת ש-incrementPracticeForRank שולח
+        assertTrue(updates.entrySet().containsAll(StatsUpdates.practiceIncrement(USER, 2).entrySet()));
+        assertEquals(ServerValue.increment(1), updates.get(StatsUpdates.practiceCountPath(USER, 2)));
+        assertEquals(540, updates.get(STATS + "/totalScore"));
+        assertEquals(540, updates.get(ROW + "/score"));
+        assertEquals(ServerValue.increment(1), updates.get(DatabaseService.LEADERBOARD_SCORE_COUNTS_PATH + "/5/540"));
+    }
+
+    @Test
+    public void failedGameDoesNotCountAPractice() {
+        Stats before = new Stats(USER, 2, 500);
+
+        Map<String, Object> updates = StatsUpdates.statsWrite(USER, before, 3,
+                StatsUpdates.afterGameResult(USER, before, 2, 10, 0), 0);
+
+        for (String path : updates.keySet()) {
+            assertFalse(path, path.startsWith(DatabaseService.RANK_PROGRESS + "/"));
+        }
+    }
+
+    // ========== afterGameResult ==========
+
+    @Test
+    public void firstGameCreatesStatsAtRankOne() {
+        Stats stats = StatsUpdates.afterGameResult(USER, null, 1, 30, 0);
+
+        assertEquals(1, stats.getRank());
+        assertEquals(30, stats.getTotalScore());
+    }
+
+    @Test
+    public void promotesWhenThePracticeCountReachesTheRequirement() {
+        Stats current = new Stats(USER, 2, 500);
+        int required = DatabaseService.getRequiredPracticeCount(2);
+
+        assertEquals(2, StatsUpdates.afterGameResult(USER, current, 2, 10, required - 1).getRank());
+        assertEquals(3, StatsUpdates.afterGameResult(USER, current, 2, 10, required).getRank());
+    }
+
+    @Test
+    public void practiceAtALowerRankNeverDemotes() {
+        Stats current = new Stats(USER, 4, 900);
+
+        Stats stats = StatsUpdates.afterGameResult(USER, current, 2, 10, 1000);
+
+        assertEquals(4, stats.getRank());
+        assertEquals(910, stats.getTotalScore());
+    }
+
+    @Test
+    public void lastRankHasNoPromotion() {
+        Stats current = new Stats(USER, 5, 2000);
+
+        assertEquals(5, StatsUpdates.afterGameResult(USER, current, 5, 10, Integer.MAX_VALUE).getRank());
+    }
+}
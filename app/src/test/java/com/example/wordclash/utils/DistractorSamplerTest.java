@@ -0,0 +1,139 @@
+package com.example.wordclash.utils;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotEquals;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assume.assumeTrue;
+
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Random;
+import java.util.Set;
+import java.util.logging.Logger;
+
+public class DistractorSamplerTest {
+
+    private static final int DISTRACTORS = 3;
+    private static final Logger LOG = Logger.getLogger(DistractorSamplerTest.class.getName());
+
+    // ========== נכונות ==========
+
+    @Test
+    public void picksDistinctIndicesOtherThanTheAnswer() {
+        DistractorSampler sampler = new DistractorSampler(new Random(1));
+        int[] out = new int[DISTRACTORS];
+
+        for (int question = 0; question < 1000; question++) {
+            int answer = question % 50;
+            assertEquals(DISTRACTORS, sampler.sample(50, answer, DISTRACTORS, out));
+
+            Set<Integer> seen = new HashSet<>();
+            for (int index : out) {
+                assertTrue(index >= 0 && index < 50);
+                assertNotEquals(answer, index);
+                assertTrue(seen.add(index));
+            }
+        }
+    }
+
+    @Test
+    public void returnsFewerWhenThePoolIsSmall() {
+        DistractorSampler sampler = new DistractorSampler(new Random(2));
+        int[] out = new int[DISTRACTORS];
+
+        assertEquals(2, sampler.sample(3, 0, DISTRACTORS, out));
+        assertEquals(0, sampler.sample(1, 0, DISTRACTORS, out));
+        assertEquals(3, sampler.sample(3, -1, DISTRACTORS, out));
+    }
+
+    @Test
+    public void everyOtherItemCanBePicked() {
+        DistractorSampler sampler = new DistractorSampler(new Random(3));
+        int[] out = new int[DISTRACTORS];
+        Set<Integer> seen = new HashSet<>();
+
+        for (int question = 0; question < 500; question++) {
+            sampler.sample(20, 7, DISTRACTORS, out);
+            for (int index : out) seen.add(index);
+        }
+        assertEquals(19, seen.size());
+    }
+
+    @Test
+    public void addsItemsOfTheList() {
+        List<String> pool = List.of("cat", "dog", "sun", "sea", "sky");
+        List<String> out = new ArrayList<>();
+
+        int count = new DistractorSampler(new Random(4)).sample(pool, 2, DISTRACTORS, out);
+
+        assertEquals(DISTRACTORS, count);
+        assertEquals(DISTRACTORS, out.size());
+        assertTrue(!out.contains("sun") && pool.containsAll(out));
+    }
+
+    // ========== מדידה ==========
+
+    /**
+     * The sampler against what the games did before: copy the words, remove the answer, shuffle all, take 3
+     * Logs ns per question for each pool size. Runs only with -Pbenchmarks.
+     */
+    @Test
+    public void benchmarkAgainstCopyRemoveShuffle() {
+        assumeTrue(Boolean.getBoolean("benchmarks"));
+        for (int size : new int[]{1_000, 10_000, 100_000}) {
+            List<Integer> pool = new ArrayList<>(size);
+            for (int i = 0; i < size; i++) pool.add(i);
+            // ההעתקה איטית פי אלפים, ולכן נמדדת על פחות שאלות
+            int copyQuestions = Math.max(50, 2_000_000 / size);
+            int samplerQuestions = 200_000;
+
+            // חימום, כדי שה-JIT יקמפל את שני המסלולים לפני המדידה
+            copyRemoveShuffle(pool, copyQuestions);
+            sampler(pool, samplerQuestions);
+
+            long copyNs = copyRemoveShuffle(pool, copyQuestions) / copyQuestions;
+            long samplerNs = sampler(pool, samplerQuestions) / samplerQuestions;
+            LOG.info(String.format(Locale.ROOT,
+                    "DistractorSampler %,7d words: copy+remove+shuffle %,10d ns/question, sampler %,6d ns/question",
+                    size, copyNs, samplerNs));
+        }
+    }
+
+    private static long copyRemoveShuffle(List<Integer> pool, int questions) {
+        Random random = new Random(5);
+        long checksum = 0;
+        long start = System.nanoTime();
+        for (int question = 0; question < questions; question++) {
+            int answer = random.nextInt(pool.size());
+            List<Integer> others = new ArrayList<>(pool);
+            others.remove(answer);
+            Collections.shuffle(others, random);
+            for (int i = 0; i < DISTRACTORS; i++) checksum += others.get(i);
+        }
+        long elapsed = System.nanoTime() - start;
+        assertTrue(checksum >= 0);
+        return elapsed;
+    }
+
+    private static long sampler(List<Integer> pool, int questions) {
+        Random random = new Random(5);
+        DistractorSampler sampler = new DistractorSampler(random);
+        List<Integer> out = new ArrayList<>(DISTRACTORS);
+        long checksum = 0;
+        long start = System.nanoTime();
+        for (int question = 0; question < questions; question++) {
+            int answer = random.nextInt(pool.size());
+            out.clear();
+            sampler.sample(pool, answer, DISTRACTORS, out);
+            for (Integer index : out) checksum += index;
+        }
+        long elapsed = System.nanoTime() - start;
+        assertTrue(checksum >= 0);
+        return elapsed;
+    }
+}